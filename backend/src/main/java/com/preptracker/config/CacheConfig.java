@@ -1,6 +1,12 @@
 package com.preptracker.config;
 
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.preptracker.dto.SubtopicWithItems;
+import com.preptracker.dto.TabWithData;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.caffeine.CaffeineCacheManager;
@@ -8,10 +14,13 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
 
-import java.util.concurrent.TimeUnit;
+import java.util.Collection;
+import java.util.List;
 
+@Slf4j
 @Configuration
 @EnableCaching
+@EnableConfigurationProperties(CachePolicyProperties.class)
 public class CacheConfig {
 
     public static final String TABS_CACHE = "tabs";
@@ -27,31 +36,106 @@ public class CacheConfig {
     public static final String ACTIVITY_CACHE = "activity";
     public static final String IMAGES_CACHE = "images";
 
+    public static final List<String> CACHE_NAMES = List.of(
+            TABS_CACHE, TAB_CACHE, TAB_DATA_CACHE,
+            SUBTOPICS_CACHE, SUBTOPIC_CACHE,
+            ITEMS_CACHE, ITEM_CACHE,
+            CHECKLIST_CACHE, APPLICATIONS_CACHE,
+            DASHBOARD_CACHE, ACTIVITY_CACHE,
+            IMAGES_CACHE
+    );
+
+    /**
+     * Samples lookups of every cache for the hot key report
+     */
+    @Bean
+    public CacheKeySampler cacheKeySampler(CachePolicyProperties properties) {
+        CachePolicyProperties.Sampling sampling = properties.getSampling();
+        return new CacheKeySampler(sampling.getRate(), sampling.getMaxTrackedKeys());
+    }
+
     /**
      * Cache manager using Caffeine (in-memory cache)
-     * Fast and doesn't require external dependencies
+     * Each cache gets its own policy from {@link CachePolicyProperties}
      */
     @Bean
     @Primary
-    public CacheManager caffeineCacheManager() {
-        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
-        
-        // Default cache configuration
-        cacheManager.setCaffeine(Caffeine.newBuilder()
-                .maximumSize(1000)
-                .expireAfterWrite(10, TimeUnit.MINUTES)
-                .recordStats());
-        
-        // Register cache names
-        cacheManager.setCacheNames(java.util.List.of(
-                TABS_CACHE, TAB_CACHE, TAB_DATA_CACHE,
-                SUBTOPICS_CACHE, SUBTOPIC_CACHE,
-                ITEMS_CACHE, ITEM_CACHE,
-                CHECKLIST_CACHE, APPLICATIONS_CACHE,
-                DASHBOARD_CACHE, ACTIVITY_CACHE,
-                IMAGES_CACHE
-        ));
-        
+    public CacheManager caffeineCacheManager(CachePolicyProperties properties,
+                                             ObjectProvider<CacheReloader> reloaders,
+                                             CacheKeySampler sampler) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager() {
+            @Override
+            protected Cache adaptCaffeineCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache) {
+                return new SampledCaffeineCache(name, cache, isAllowNullValues(), sampler);
+            }
+        };
+
+        // Default cache configuration for caches created on demand
+        cacheManager.setCaffeine(builder(properties.getDefaults()));
+
+        // Register named caches with their own policies
+        for (String cacheName : CACHE_NAMES) {
+            CachePolicyProperties.Policy policy = properties.resolve(cacheName);
+            Caffeine<Object, Object> builder = builder(policy);
+            if (policy.getRefreshAfterWrite() != null) {
+                builder.refreshAfterWrite(policy.getRefreshAfterWrite());
+                cacheManager.registerCustomCache(cacheName, builder.build(key -> reload(reloaders, cacheName, key)));
+            } else {
+                cacheManager.registerCustomCache(cacheName, builder.build());
+            }
+            log.debug("Cache '{}' configured with {}", cacheName, policy);
+        }
+
         return cacheManager;
     }
+
+    private static Caffeine<Object, Object> builder(CachePolicyProperties.Policy policy) {
+        Caffeine<Object, Object> builder = Caffeine.newBuilder().recordStats();
+        if (policy.getMaximumWeight() != null) {
+            builder.maximumWeight(policy.getMaximumWeight()).weigher((key, value) -> weigh(value));
+        } else if (policy.getMaximumSize() != null) {
+            builder.maximumSize(policy.getMaximumSize());
+        }
+        if (policy.getExpireAfterWrite() != null) {
+            builder.expireAfterWrite(policy.getExpireAfterWrite());
+        }
+        if (policy.getExpireAfterAccess() != null) {
+            builder.expireAfterAccess(policy.getExpireAfterAccess());
+        }
+        return builder;
+    }
+
+    private static Object reload(ObjectProvider<CacheReloader> reloaders, String cacheName, Object key) {
+        return reloaders.orderedStream()
+                .filter(reloader -> cacheName.equals(reloader.cacheName()))
+                .findFirst()
+                .map(reloader -> reloader.reload(key))
+                .orElse(null);
+    }
+
+    /**
+     * Weight of a cached value, roughly proportional to the number of items it holds
+     */
+    static int weigh(Object value) {
+        if (value instanceof TabWithData tab) {
+            int weight = 1 + (tab.getItems() != null ? tab.getItems().size() : 0);
+            if (tab.getSubtopics() != null) {
+                for (SubtopicWithItems subtopic : tab.getSubtopics()) {
+                    weight += 1 + (subtopic.getItems() != null ? subtopic.getItems().size() : 0);
+                }
+            }
+            return weight;
+        }
+        if (value instanceof SubtopicWithItems subtopic) {
+            return 1 + (subtopic.getItems() != null ? subtopic.getItems().size() : 0);
+        }
+        if (value instanceof Collection<?> collection) {
+            int weight = 1;
+            for (Object element : collection) {
+                weight += weigh(element);
+            }
+            return weight;
+        }
+        return 1;
+    }
 }
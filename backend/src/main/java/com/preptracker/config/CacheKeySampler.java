@@ -0,0 +1,95 @@
+package com.preptracker.config;
+
+import com.preptracker.dto.CacheStatsInfo.HotKey;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Samples cache lookups per key so the hottest and most frequently missed
+ * keys of each cache can be reported. Only a fraction of lookups is recorded
+ * and the number of tracked keys per cache is bounded, so the cost on the
+ * read path stays at one random draw for unsampled lookups.
+ */
+public class CacheKeySampler {
+
+    private final double sampleRate;
+    private final int maxTrackedKeys;
+    private final Map<String, Map<String, KeyCounts>> samples = new ConcurrentHashMap<>();
+
+    public CacheKeySampler(double sampleRate, int maxTrackedKeys) {
+        this.sampleRate = sampleRate;
+        this.maxTrackedKeys = maxTrackedKeys;
+    }
+
+    public double getSampleRate() {
+        return sampleRate;
+    }
+
+    /**
+     * Whether the current lookup should be recorded
+     */
+    boolean shouldSample() {
+        return sampleRate >= 1.0 || (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate);
+    }
+
+    void record(String cacheName, Object key, boolean hit) {
+        Map<String, KeyCounts> keys = samples.computeIfAbsent(cacheName, name -> new ConcurrentHashMap<>());
+        String keyName = String.valueOf(key);
+        KeyCounts counts = keys.get(keyName);
+        if (counts == null) {
+            // Keys first seen after the bound is reached are not tracked until the next reset
+            if (keys.size() >= maxTrackedKeys) {
+                return;
+            }
+            counts = keys.computeIfAbsent(keyName, k -> new KeyCounts());
+        }
+        (hit ? counts.hits : counts.misses).increment();
+    }
+
+    /**
+     * Sampled keys of a cache ordered by misses, then by lookups
+     */
+    public List<HotKey> hotKeys(String cacheName, int limit) {
+        Map<String, KeyCounts> keys = samples.get(cacheName);
+        if (keys == null) {
+            return List.of();
+        }
+        return keys.entrySet().stream()
+                .map(entry -> toHotKey(entry.getKey(), entry.getValue()))
+                .sorted(Comparator.comparingLong(HotKey::getSampledMisses)
+                        .thenComparingLong(HotKey::getSampledLookups)
+                        .reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    /**
+     * Forget all sampled keys
+     */
+    public void reset() {
+        samples.clear();
+    }
+
+    private HotKey toHotKey(String key, KeyCounts counts) {
+        long hits = counts.hits.sum();
+        long misses = counts.misses.sum();
+        long lookups = hits + misses;
+        return HotKey.builder()
+                .key(key)
+                .sampledLookups(lookups)
+                .sampledMisses(misses)
+                .missRatio(lookups > 0 ? (double) misses / lookups : 0.0)
+                .estimatedLookups(sampleRate > 0 ? Math.round(lookups / Math.min(sampleRate, 1.0)) : 0)
+                .build();
+    }
+
+    private static class KeyCounts {
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+    }
+}
@@ -0,0 +1,64 @@
+package com.preptracker.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Per-cache Caffeine policies bound from {@code app.cache.*}.
+ * Values under {@code app.cache.caches[<name>]} override {@code app.cache.defaults}.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.cache")
+public class CachePolicyProperties {
+
+    private Policy defaults = new Policy(1000L, null, Duration.ofMinutes(10), null, null);
+
+    private Map<String, Policy> caches = new HashMap<>();
+
+    private Sampling sampling = new Sampling();
+
+    /**
+     * Effective policy for a cache: its own settings layered over the defaults
+     */
+    public Policy resolve(String cacheName) {
+        Policy own = caches.getOrDefault(cacheName, new Policy());
+        Policy effective = new Policy(
+                own.getMaximumSize() != null ? own.getMaximumSize() : defaults.getMaximumSize(),
+                own.getMaximumWeight() != null ? own.getMaximumWeight() : defaults.getMaximumWeight(),
+                own.getExpireAfterWrite() != null ? own.getExpireAfterWrite() : defaults.getExpireAfterWrite(),
+                own.getExpireAfterAccess() != null ? own.getExpireAfterAccess() : defaults.getExpireAfterAccess(),
+                own.getRefreshAfterWrite() != null ? own.getRefreshAfterWrite() : defaults.getRefreshAfterWrite());
+        // A weight bound replaces the count bound rather than combining with it
+        if (own.getMaximumWeight() != null) {
+            effective.setMaximumSize(null);
+        }
+        return effective;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Policy {
+        private Long maximumSize;
+        private Long maximumWeight;
+        private Duration expireAfterWrite;
+        private Duration expireAfterAccess;
+        private Duration refreshAfterWrite;
+    }
+
+    /**
+     * Per-key lookup sampling behind the hot key list of {@code /api/cache/stats}
+     */
+    @Data
+    public static class Sampling {
+        private double rate = 0.01;
+        private int maxTrackedKeys = 500;
+        private int hotKeys = 10;
+    }
+}
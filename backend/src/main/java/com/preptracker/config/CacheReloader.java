@@ -0,0 +1,29 @@
+package com.preptracker.config;
+
+import java.util.List;
+
+/**
+ * Recomputes a cached value in the background for caches configured with
+ * refresh-after-write. The previous value keeps being served until the
+ * reload completes. Also used by the warm-up scheduler to fill caches
+ * ahead of the first request.
+ */
+public interface CacheReloader {
+
+    /**
+     * Name of the cache this reloader serves
+     */
+    String cacheName();
+
+    /**
+     * Compute a fresh value for the key, or null to drop the entry
+     */
+    Object reload(Object key);
+
+    /**
+     * Keys worth loading before the first request asks for them
+     */
+    default List<Object> warmKeys() {
+        return List.of();
+    }
+}
@@ -0,0 +1,40 @@
+package com.preptracker.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Drops indexes that were replaced by wider composite ones in the entity mappings.
+ * Schema updates create new indexes but never remove old ones, and these would
+ * otherwise be maintained on every write while serving no query.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class IndexMaintenance implements CommandLineRunner {
+
+    // Each is a column prefix of an index declared on the same table, or was
+    // redeclared under a new name with a different column order
+    private static final List<String> SUPERSEDED_INDEXES = List.of(
+            "idx_item_tab",
+            "idx_item_subtopic",
+            "idx_subtopic_tab",
+            "idx_image_item",
+            "idx_activity_ts_id"
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void run(String... args) {
+        for (String index : SUPERSEDED_INDEXES) {
+            jdbcTemplate.execute("DROP INDEX IF EXISTS " + index);
+        }
+        log.debug("Dropped superseded indexes {}", SUPERSEDED_INDEXES);
+    }
+}
@@ -0,0 +1,45 @@
+package com.preptracker.config;
+
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import java.util.concurrent.Callable;
+
+/**
+ * {@link CaffeineCache} that reports a sample of its lookups to a {@link CacheKeySampler}
+ */
+public class SampledCaffeineCache extends CaffeineCache {
+
+    private final CacheKeySampler sampler;
+
+    public SampledCaffeineCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache,
+                                boolean allowNullValues, CacheKeySampler sampler) {
+        super(name, cache, allowNullValues);
+        this.sampler = sampler;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        Object value = super.lookup(key);
+        if (sampler.shouldSample()) {
+            sampler.record(getName(), key, value != null);
+        }
+        return value;
+    }
+
+    /**
+     * Used by {@code @Cacheable(sync = true)}; a miss is detected by the loader being invoked
+     */
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        if (!sampler.shouldSample()) {
+            return super.get(key, valueLoader);
+        }
+        boolean[] loaded = new boolean[1];
+        T value = super.get(key, () -> {
+            loaded[0] = true;
+            return valueLoader.call();
+        });
+        sampler.record(getName(), key, !loaded[0]);
+        return value;
+    }
+}
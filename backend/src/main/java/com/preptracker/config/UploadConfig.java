@@ -0,0 +1,36 @@
+package com.preptracker.config;
+
+import com.preptracker.service.ImageService;
+import jakarta.servlet.MultipartConfigElement;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.web.servlet.MultipartProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Spools multipart uploads into the upload directory instead of the
+ * container's temp directory, so a stored part is moved into place with a
+ * rename on the same file system rather than copied.
+ */
+@Configuration
+public class UploadConfig {
+
+    @Bean
+    public MultipartConfigElement multipartConfigElement(MultipartProperties properties,
+                                                         @Value("${app.upload.dir:./uploads}") String uploadDir) {
+        // Tomcat resolves a relative location against its work directory
+        Path incoming = Paths.get(uploadDir).toAbsolutePath().normalize().resolve(ImageService.INCOMING_DIR);
+        try {
+            Files.createDirectories(incoming);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not create upload directory: " + incoming, e);
+        }
+        properties.setLocation(incoming.toString());
+        return properties.createMultipartConfig();
+    }
+}
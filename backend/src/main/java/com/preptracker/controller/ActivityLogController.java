@@ -1,14 +1,21 @@
 package com.preptracker.controller;
 
+import com.preptracker.dto.ActivityLogPage;
+import com.preptracker.dto.ActivitySummary;
 import com.preptracker.model.ActivityLog;
+import com.preptracker.service.ActivityArchiveService;
 import com.preptracker.service.ActivityLogService;
+import com.preptracker.service.ActivityRollupService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/activity")
@@ -17,10 +24,72 @@ import java.util.List;
 public class ActivityLogController {
     
     private final ActivityLogService activityLogService;
+    private final ActivityRollupService activityRollupService;
+    private final ActivityArchiveService activityArchiveService;
     
+    /**
+     * Every activity log in one response, which grows with the whole history.
+     * Deprecated in favour of the keyset pages of {@code /page}, as the
+     * response headers announce.
+     */
+    @Deprecated
     @GetMapping
     public ResponseEntity<List<ActivityLog>> getAllActivityLogs() {
-        return ResponseEntity.ok(activityLogService.getAllActivityLogs());
+        return ResponseEntity.ok()
+                .header("Deprecation", "true")
+                .header(HttpHeaders.LINK, "</api/activity/page>; rel=\"successor-version\"")
+                .body(activityLogService.getAllActivityLogs());
+    }
+    
+    /**
+     * Keyset-paginated activity logs, newest first
+     */
+    @GetMapping("/page")
+    public ResponseEntity<ActivityLogPage> getActivityLogPage(
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(required = false) String cursor) {
+        try {
+            return ResponseEntity.ok(activityLogService.getActivityLogPage(limit, cursor));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    /**
+     * Daily counts and streaks for a year (last 365 days when no year is given)
+     */
+    @GetMapping("/summary")
+    public ResponseEntity<ActivitySummary> getActivitySummary(
+            @RequestParam(required = false) Integer year,
+            @RequestParam(required = false) String tabId) {
+        return ResponseEntity.ok(activityRollupService.getSummary(year, tabId));
+    }
+    
+    /**
+     * Recompute the daily rollups from the activity log
+     */
+    @PostMapping("/rollups/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildRollups() {
+        long days = activityRollupService.rebuildAll();
+        return ResponseEntity.ok(Map.of("message", "Activity rollups rebuilt successfully", "days", days));
+    }
+    
+    /**
+     * Retention horizon and the months held in the activity archive
+     */
+    @GetMapping("/archive")
+    public ResponseEntity<Map<String, Object>> getArchive() {
+        List<String> months = activityArchiveService.months().stream().map(YearMonth::toString).toList();
+        return ResponseEntity.ok(Map.of("horizon", activityArchiveService.horizon(), "months", months));
+    }
+    
+    /**
+     * Move activity logs older than the retention horizon to the archive now
+     */
+    @PostMapping("/archive")
+    public ResponseEntity<Map<String, Object>> archiveActivityLogs() {
+        int archived = activityArchiveService.archive();
+        return ResponseEntity.ok(Map.of("message", "Activity logs archived successfully", "archived", archived));
     }
     
     @GetMapping("/date/{date}")
@@ -1,10 +1,15 @@
 package com.preptracker.controller;
 
+import com.preptracker.dto.CachePolicyInfo;
+import com.preptracker.dto.CacheStatsInfo;
+import com.preptracker.dto.WarmupReport;
+import com.preptracker.scheduler.WarmupScheduler;
 import com.preptracker.service.CacheService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -14,6 +19,58 @@ import java.util.Map;
 public class CacheController {
     
     private final CacheService cacheService;
+    private final WarmupScheduler warmupScheduler;
+    
+    /**
+     * Effective policy and live size of each cache
+     */
+    @GetMapping("/policies")
+    public ResponseEntity<List<CachePolicyInfo>> getCachePolicies() {
+        return ResponseEntity.ok(cacheService.describeCaches());
+    }
+    
+    /**
+     * Hit/miss, load and eviction statistics of each cache with its sampled hot keys
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<List<CacheStatsInfo>> getCacheStats() {
+        return ResponseEntity.ok(cacheService.collectStats());
+    }
+    
+    /**
+     * Cache statistics in the Prometheus text format for scraping
+     */
+    @GetMapping(value = "/stats/prometheus", produces = "text/plain; version=0.0.4; charset=utf-8")
+    public ResponseEntity<String> getCacheStatsForScrape() {
+        return ResponseEntity.ok(cacheService.formatStatsAsPrometheus(cacheService.collectStats()));
+    }
+    
+    /**
+     * Start a new hot key sampling window
+     */
+    @DeleteMapping("/stats/hot-keys")
+    public ResponseEntity<Map<String, String>> resetHotKeys() {
+        cacheService.resetHotKeys();
+        return ResponseEntity.ok(Map.of("message", "Hot key samples cleared successfully"));
+    }
+    
+    /**
+     * Timings of the latest startup and refresh warm-up passes
+     */
+    @GetMapping("/warmup")
+    public ResponseEntity<Map<String, WarmupReport>> getWarmupReports() {
+        return ResponseEntity.ok(warmupScheduler.getReports());
+    }
+    
+    /**
+     * Start a warm-up refresh pass in the background
+     */
+    @PostMapping("/warmup")
+    public ResponseEntity<Map<String, String>> triggerWarmup() {
+        boolean started = warmupScheduler.triggerRefresh();
+        return ResponseEntity.accepted().body(Map.of("message",
+                started ? "Cache warm-up started" : "Cache warm-up already running"));
+    }
     
     /**
      * Clear all caches
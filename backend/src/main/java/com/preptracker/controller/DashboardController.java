@@ -2,11 +2,27 @@ package com.preptracker.controller;
 
 import com.preptracker.dto.DashboardStats;
 import com.preptracker.dto.FullDataExport;
+import com.preptracker.dto.ImportStatus;
+import com.preptracker.model.ChangeLogEntry.EntityType;
+import com.preptracker.service.ChangeTracker;
 import com.preptracker.service.DashboardService;
 import com.preptracker.service.DataExportService;
+import com.preptracker.service.DataImportService;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/dashboard")
@@ -14,17 +30,94 @@ import org.springframework.web.bind.annotation.*;
 @CrossOrigin(origins = "*")
 public class DashboardController {
     
+    private static final EntityType[] STATS_TYPES = {EntityType.TAB, EntityType.ITEM, EntityType.APPLICATION};
+    
     private final DashboardService dashboardService;
     private final DataExportService dataExportService;
+    private final DataImportService dataImportService;
+    private final ChangeTracker changeTracker;
     
+    /**
+     * Conditional on the tab, item and application versions
+     */
     @GetMapping("/stats")
-    public ResponseEntity<DashboardStats> getDashboardStats() {
-        return ResponseEntity.ok(dashboardService.getDashboardStats());
+    public ResponseEntity<DashboardStats> getDashboardStats(WebRequest request) {
+        ChangeTracker.Stamp stamp = changeTracker.stamp(STATS_TYPES);
+        if (request.checkNotModified(stamp.etag("stats"), stamp.getLastModifiedMillis())) {
+            return null;
+        }
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(dashboardService.getDashboardStats());
     }
     
+    /**
+     * Conditional on the versions of every exported entity type
+     */
     @GetMapping("/export")
-    public ResponseEntity<FullDataExport> exportAllData() {
-        return ResponseEntity.ok(dataExportService.exportAllData());
+    public ResponseEntity<FullDataExport> exportAllData(WebRequest request) {
+        ChangeTracker.Stamp stamp = changeTracker.stamp(EntityType.values());
+        if (request.checkNotModified(stamp.etag("export"), stamp.getLastModifiedMillis())) {
+            return null;
+        }
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(dataExportService.exportAllData());
+    }
+    
+    /**
+     * Same document as /export, written while it is read from the database so
+     * memory use stays flat. With gzip=true the body is compressed on the fly.
+     */
+    @GetMapping("/export/stream")
+    public ResponseEntity<StreamingResponseBody> streamAllData(@RequestParam(defaultValue = "false") boolean gzip,
+                                                               WebRequest request) {
+        ChangeTracker.Stamp stamp = changeTracker.stamp(EntityType.values());
+        if (request.checkNotModified(stamp.etag(gzip ? "export-gz" : "export"), stamp.getLastModifiedMillis())) {
+            return null;
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .contentType(MediaType.APPLICATION_JSON);
+        if (!gzip) {
+            return response.body(dataExportService::writeExport);
+        }
+        return response.header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                .body(out -> {
+                    try (GZIPOutputStream compressed = new GZIPOutputStream(out, 8192)) {
+                        dataExportService.writeExport(compressed);
+                    }
+                });
+    }
+    
+    /**
+     * Restore a document in the export format, streamed from the request body
+     * (gzip-compressed when sent with Content-Encoding: gzip). Mode replace
+     * deletes the existing data first; merge upserts by id.
+     */
+    @PostMapping("/import")
+    public ResponseEntity<ImportStatus> importData(@RequestParam(defaultValue = "merge") String mode,
+                                                   @RequestParam(required = false) Integer chunkSize,
+                                                   HttpServletRequest request) throws IOException {
+        DataImportService.Mode importMode;
+        try {
+            importMode = DataImportService.Mode.parse(mode);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        try (InputStream body = "gzip".equalsIgnoreCase(request.getHeader(HttpHeaders.CONTENT_ENCODING))
+                ? new GZIPInputStream(request.getInputStream())
+                : request.getInputStream()) {
+            return ResponseEntity.ok(dataImportService.importData(body, importMode, chunkSize));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(dataImportService.getStatus());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(dataImportService.getStatus());
+        }
+    }
+    
+    /**
+     * Progress of the running import, or the outcome of the last one
+     */
+    @GetMapping("/import/status")
+    public ResponseEntity<ImportStatus> getImportStatus() {
+        ImportStatus status = dataImportService.getStatus();
+        return status != null ? ResponseEntity.ok(status) : ResponseEntity.noContent().build();
     }
 }
-
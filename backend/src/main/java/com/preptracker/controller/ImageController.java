@@ -1,16 +1,22 @@
 package com.preptracker.controller;
 
+import com.preptracker.dto.ImageIntegrityReport;
 import com.preptracker.model.ImageAttachment;
+import com.preptracker.model.ImageVariant;
+import com.preptracker.service.ImageDelivery;
+import com.preptracker.service.ImageIntegrityService;
 import com.preptracker.service.ImageService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -22,6 +28,12 @@ public class ImageController {
     @Autowired
     private ImageService imageService;
 
+    @Autowired
+    private ImageDelivery imageDelivery;
+
+    @Autowired
+    private ImageIntegrityService imageIntegrityService;
+
     /**
      * Upload an image for an item
      */
@@ -40,17 +52,34 @@ public class ImageController {
     }
 
     /**
-     * Upload multiple images for an item
+     * Upload an image sent as the raw request body, named by the fileName parameter
+     */
+    @PostMapping("/upload-stream")
+    public ResponseEntity<ImageAttachment> uploadImageStream(
+            @RequestParam("itemId") String itemId,
+            @RequestParam("fileName") String fileName,
+            @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+            HttpServletRequest request) {
+        try {
+            ImageAttachment attachment = imageService.uploadStream(request.getInputStream(), fileName,
+                    contentType, itemId);
+            return ResponseEntity.ok(attachment);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (IOException e) {
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * Upload multiple images for an item; the files are stored concurrently
      */
     @PostMapping("/upload-multiple")
     public ResponseEntity<List<ImageAttachment>> uploadMultipleImages(
             @RequestParam("files") MultipartFile[] files,
             @RequestParam("itemId") String itemId) {
         try {
-            List<ImageAttachment> attachments = new java.util.ArrayList<>();
-            for (MultipartFile file : files) {
-                attachments.add(imageService.uploadImage(file, itemId));
-            }
+            List<ImageAttachment> attachments = imageService.uploadImages(Arrays.asList(files), itemId);
             return ResponseEntity.ok(attachments);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().build();
@@ -69,32 +98,58 @@ public class ImageController {
     }
 
     /**
-     * Serve an image file
+     * Report of the running or most recent integrity scan of the image store
+     */
+    @GetMapping("/integrity")
+    public ResponseEntity<ImageIntegrityReport> getIntegrityReport() {
+        ImageIntegrityReport report = imageIntegrityService.getLastReport();
+        return report != null ? ResponseEntity.ok(report) : ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Start an integrity scan in the background. With repair=true, orphan
+     * files and rows whose file is missing are deleted.
+     */
+    @PostMapping("/integrity")
+    public ResponseEntity<ImageIntegrityReport> scanIntegrity(@RequestParam(defaultValue = "false") boolean repair) {
+        if (!imageIntegrityService.startScan(repair)) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(imageIntegrityService.getLastReport());
+        }
+        return ResponseEntity.accepted().body(imageIntegrityService.getLastReport());
+    }
+
+    /**
+     * Serve an image file, with caching headers and byte range support.
+     * With size=thumb or size=medium the downscaled variant is served, or the
+     * original while the variant does not exist (yet).
      */
     @GetMapping("/{fileName:.+}")
-    public ResponseEntity<Resource> getImage(@PathVariable String fileName) {
-        try {
-            Resource resource = imageService.loadImage(fileName);
-            
-            // Determine content type
-            String contentType = "application/octet-stream";
-            if (fileName.toLowerCase().endsWith(".png")) {
-                contentType = "image/png";
-            } else if (fileName.toLowerCase().endsWith(".jpg") || fileName.toLowerCase().endsWith(".jpeg")) {
-                contentType = "image/jpeg";
-            } else if (fileName.toLowerCase().endsWith(".gif")) {
-                contentType = "image/gif";
-            } else if (fileName.toLowerCase().endsWith(".webp")) {
-                contentType = "image/webp";
+    public void getImage(@PathVariable String fileName,
+                         @RequestParam(required = false) String size,
+                         HttpServletRequest request, HttpServletResponse response) throws IOException {
+        ImageVariant.Size variantSize = null;
+        if (size != null && !size.equalsIgnoreCase("original")) {
+            try {
+                variantSize = ImageVariant.Size.valueOf(size.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                response.sendError(HttpServletResponse.SC_BAD_REQUEST);
+                return;
             }
-            
-            return ResponseEntity.ok()
-                    .contentType(MediaType.parseMediaType(contentType))
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + fileName + "\"")
-                    .body(resource);
-        } catch (Exception e) {
-            return ResponseEntity.notFound().build();
         }
+        if (variantSize != null) {
+            ImageService.ImageFile variant = imageService.findVariant(fileName, variantSize);
+            if (variant != null) {
+                imageDelivery.serve(variant, request, response);
+                return;
+            }
+        }
+        ImageService.ImageFile image = imageService.findImage(fileName);
+        if (image == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        // A variant may still appear under this URL, so the fallback must not be cached as immutable
+        imageDelivery.serve(image, request, response, variantSize == null);
     }
 
     /**
@@ -1,5 +1,6 @@
 package com.preptracker.controller;
 
+import com.preptracker.dto.MoveRequest;
 import com.preptracker.dto.ReorderRequest;
 import com.preptracker.model.Item;
 import com.preptracker.service.ItemService;
@@ -41,6 +42,11 @@ public class ItemController {
         return ResponseEntity.ok().build();
     }
     
+    @PutMapping("/{id}/move")
+    public ResponseEntity<Item> moveItem(@PathVariable String id, @RequestBody MoveRequest move) {
+        return ResponseEntity.ok(itemService.moveItem(id, move));
+    }
+    
     @GetMapping("/{id}")
     public ResponseEntity<Item> getItemById(@PathVariable String id) {
         return ResponseEntity.ok(itemService.getItemById(id));
@@ -1,5 +1,6 @@
 package com.preptracker.controller;
 
+import com.preptracker.dto.MoveRequest;
 import com.preptracker.dto.ReorderRequest;
 import com.preptracker.dto.SubtopicWithItems;
 import com.preptracker.model.Subtopic;
@@ -37,6 +38,11 @@ public class SubtopicController {
         return ResponseEntity.ok().build();
     }
     
+    @PutMapping("/{id}/move")
+    public ResponseEntity<Subtopic> moveSubtopic(@PathVariable String id, @RequestBody MoveRequest move) {
+        return ResponseEntity.ok(subtopicService.moveSubtopic(id, move));
+    }
+    
     @GetMapping("/{id}")
     public ResponseEntity<Subtopic> getSubtopicById(@PathVariable String id) {
         return ResponseEntity.ok(subtopicService.getSubtopicById(id));
@@ -0,0 +1,32 @@
+package com.preptracker.controller;
+
+import com.preptracker.dto.SyncResponse;
+import com.preptracker.service.SyncService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/sync")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class SyncController {
+    
+    private final SyncService syncService;
+    
+    /**
+     * Rows changed since the given version. Without a version, or when the
+     * version is too old, the response asks for a full resync.
+     */
+    @GetMapping
+    public ResponseEntity<SyncResponse> sync(@RequestParam(required = false) Long since) {
+        return ResponseEntity.ok(syncService.changesSince(since));
+    }
+    
+    @GetMapping("/version")
+    public ResponseEntity<Map<String, Long>> getVersion() {
+        return ResponseEntity.ok(Map.of("version", syncService.currentVersion()));
+    }
+}
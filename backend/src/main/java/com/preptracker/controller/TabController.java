@@ -2,12 +2,16 @@ package com.preptracker.controller;
 
 import com.preptracker.dto.TabWithData;
 import com.preptracker.model.Tab;
+import com.preptracker.model.ChangeLogEntry.EntityType;
+import com.preptracker.service.ChangeTracker;
 import com.preptracker.service.TabService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -17,16 +21,27 @@ import java.util.List;
 @CrossOrigin(origins = "*")
 public class TabController {
     
+    private static final EntityType[] TREE_TYPES = {EntityType.TAB, EntityType.SUBTOPIC, EntityType.ITEM};
+    
     private final TabService tabService;
+    private final ChangeTracker changeTracker;
     
     @GetMapping
     public ResponseEntity<List<Tab>> getAllTabs() {
         return ResponseEntity.ok(tabService.getAllTabs());
     }
     
+    /**
+     * Conditional on the tab, subtopic and item versions: a matching
+     * If-None-Match is answered with 304 before any cache or database work
+     */
     @GetMapping("/with-data")
-    public ResponseEntity<List<TabWithData>> getAllTabsWithData() {
-        return ResponseEntity.ok(tabService.getAllTabsWithData());
+    public ResponseEntity<List<TabWithData>> getAllTabsWithData(WebRequest request) {
+        ChangeTracker.Stamp stamp = changeTracker.stamp(TREE_TYPES);
+        if (request.checkNotModified(stamp.etag("tabs"), stamp.getLastModifiedMillis())) {
+            return null;
+        }
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(tabService.getAllTabsWithData());
     }
     
     @GetMapping("/{id}")
@@ -35,8 +50,12 @@ public class TabController {
     }
     
     @GetMapping("/{id}/with-data")
-    public ResponseEntity<TabWithData> getTabWithData(@PathVariable String id) {
-        return ResponseEntity.ok(tabService.getTabWithData(id));
+    public ResponseEntity<TabWithData> getTabWithData(@PathVariable String id, WebRequest request) {
+        ChangeTracker.Stamp stamp = changeTracker.stamp(TREE_TYPES);
+        if (request.checkNotModified(stamp.etag("tab-" + id), stamp.getLastModifiedMillis())) {
+            return null;
+        }
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(tabService.getTabWithData(id));
     }
     
     @GetMapping("/{id}/progress")
@@ -0,0 +1,23 @@
+package com.preptracker.dto;
+
+import com.preptracker.model.ActivityLog;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of activity logs, newest first. Pass nextCursor back to get the following page.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ActivityLogPage {
+    
+    private List<ActivityLog> items;
+    private String nextCursor;
+    private boolean hasMore;
+}
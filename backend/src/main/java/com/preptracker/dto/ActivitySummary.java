@@ -0,0 +1,30 @@
+package com.preptracker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * Daily activity counts for a date window plus streaks, read from the daily rollups
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ActivitySummary {
+    
+    private String tabId;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private Map<LocalDate, Long> dailyCounts;
+    private long totalActivities;
+    private int activeDays;
+    private int currentStreak;
+    private int longestStreak;
+    // Earliest day with activity, in any year; null when there is none
+    private LocalDate firstActivityDate;
+}
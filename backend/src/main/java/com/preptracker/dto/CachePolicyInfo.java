@@ -0,0 +1,25 @@
+package com.preptracker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Effective Caffeine policy and live size of one cache
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CachePolicyInfo {
+    
+    private String name;
+    private Long maximumSize;
+    private Long maximumWeight;
+    private Long weightedSize;
+    private long estimatedSize;
+    private Long expireAfterWriteSeconds;
+    private Long expireAfterAccessSeconds;
+    private Long refreshAfterWriteSeconds;
+}
@@ -0,0 +1,43 @@
+package com.preptracker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Caffeine statistics of one cache plus its sampled hot keys
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheStatsInfo {
+    
+    private String name;
+    private long hitCount;
+    private long missCount;
+    private double hitRatio;
+    private long loadSuccessCount;
+    private long loadFailureCount;
+    private long totalLoadTimeNanos;
+    private double averageLoadPenaltyNanos;
+    private long evictionCount;
+    private long evictionWeight;
+    private long estimatedSize;
+    private List<HotKey> hotKeys;
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class HotKey {
+        private String key;
+        private long sampledLookups;
+        private long sampledMisses;
+        private double missRatio;
+        private long estimatedLookups;
+    }
+}
@@ -0,0 +1,45 @@
+package com.preptracker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Compact change notification pushed to subscribers of /api/events.
+ * Carries the changed entity and, for item changes, the new progress of
+ * the affected tab, subtopic and overall so clients can patch their state.
+ * The version is the change log version of the write, usable as a
+ * {@code /api/sync} cursor.
+ */
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChangeEvent {
+
+    private long sequence;
+    private Long version;
+    private String type;
+    private String id;
+    private String tabId;
+    private String subtopicId;
+    private Object data;
+    private List<Progress> progress;
+    private LocalDateTime timestamp;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Progress {
+        private String scope;
+        private String id;
+        private long total;
+        private long completed;
+        private int percent;
+    }
+}
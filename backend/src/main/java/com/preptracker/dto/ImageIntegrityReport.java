@@ -0,0 +1,42 @@
+package com.preptracker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Result of the running or most recent image store scan. Orphans are files
+ * no attachment, blob or variant refers to; missing counts are rows whose
+ * file is gone. Samples hold at most the first hundred findings.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImageIntegrityReport {
+
+    private State state;
+    private boolean repair;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private Long durationMs;
+    private long filesScanned;
+    private long orphanFiles;
+    private List<String> orphanSamples;
+    private long missingAttachmentFiles;
+    private List<String> missingAttachmentSamples;
+    private long missingVariantFiles;
+    private long missingBlobFiles;
+    private long repaired;
+    private String error;
+
+    public enum State {
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+}
@@ -0,0 +1,48 @@
+package com.preptracker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress of the running or most recent bulk import. Counts are rows
+ * written so far, per section of the {@link FullDataExport} document.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportStatus {
+
+    private State state;
+    private String mode;
+    private int chunkSize;
+    private String section;
+    private Counts counts;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private Long durationMs;
+    private String error;
+
+    public enum State {
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Counts {
+        private long tabs;
+        private long subtopics;
+        private long items;
+        private long checklist;
+        private long applications;
+        private long activityLog;
+    }
+}
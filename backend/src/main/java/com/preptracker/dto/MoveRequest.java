@@ -0,0 +1,15 @@
+package com.preptracker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Target position of a single moved element: right after afterId, or first when afterId is null
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MoveRequest {
+    private String afterId;
+}
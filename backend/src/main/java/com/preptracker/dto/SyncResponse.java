@@ -0,0 +1,50 @@
+package com.preptracker.dto;
+
+import com.preptracker.model.ActivityLog;
+import com.preptracker.model.Application;
+import com.preptracker.model.ChecklistItem;
+import com.preptracker.model.Item;
+import com.preptracker.model.Subtopic;
+import com.preptracker.model.Tab;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Rows upserted and ids deleted since a client's version, collapsed to the
+ * latest state of each row. When fullResync is set the client must refetch
+ * everything and continue from the returned version.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncResponse {
+    
+    private long version;
+    private boolean fullResync;
+    private int changes;
+    private List<Tab> tabs;
+    private List<Subtopic> subtopics;
+    private List<Item> items;
+    private List<ChecklistItem> checklist;
+    private List<Application> applications;
+    private List<ActivityLog> activityLog;
+    private Deleted deleted;
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Deleted {
+        private List<String> tabs;
+        private List<String> subtopics;
+        private List<String> items;
+        private List<String> checklist;
+        private List<String> applications;
+        private List<String> activityLog;
+    }
+}
@@ -10,7 +10,7 @@ import lombok.NoArgsConstructor;
 import java.util.List;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class TabWithData {
@@ -31,21 +31,7 @@ public class TabWithData {
     private int progress;
     
     public static TabWithData from(Tab tab, List<Item> items, List<SubtopicWithItems> subtopics) {
-        int progress = 0;
-        
-        if (Boolean.TRUE.equals(tab.getHasSubtopics()) && subtopics != null) {
-            int total = subtopics.stream()
-                    .mapToInt(s -> s.getItems().size())
-                    .sum();
-            int completed = subtopics.stream()
-                    .mapToInt(s -> (int) s.getItems().stream().filter(Item::getCompleted).count())
-                    .sum();
-            progress = total > 0 ? (completed * 100 / total) : 0;
-        } else if (items != null) {
-            int total = items.size();
-            int completed = (int) items.stream().filter(Item::getCompleted).count();
-            progress = total > 0 ? (completed * 100 / total) : 0;
-        }
+        int progress = progressOf(tab.getHasSubtopics(), items, subtopics);
         
         return TabWithData.builder()
                 .id(tab.getId())
@@ -59,5 +45,27 @@ public class TabWithData {
                 .progress(progress)
                 .build();
     }
+    
+    /**
+     * Completion percentage of a tab: over the items of its subtopics when it
+     * has subtopics, otherwise over its own items. Items of a tab with
+     * subtopics that sit outside any subtopic are not counted.
+     */
+    public static int progressOf(Boolean hasSubtopics, List<Item> items, List<SubtopicWithItems> subtopics) {
+        if (Boolean.TRUE.equals(hasSubtopics) && subtopics != null) {
+            int total = subtopics.stream()
+                    .mapToInt(s -> s.getItems().size())
+                    .sum();
+            int completed = subtopics.stream()
+                    .mapToInt(s -> (int) s.getItems().stream().filter(Item::getCompleted).count())
+                    .sum();
+            return total > 0 ? (completed * 100 / total) : 0;
+        }
+        if (items != null) {
+            int total = items.size();
+            int completed = (int) items.stream().filter(Item::getCompleted).count();
+            return total > 0 ? (completed * 100 / total) : 0;
+        }
+        return 0;
+    }
 }
-
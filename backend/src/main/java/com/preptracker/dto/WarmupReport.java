@@ -0,0 +1,38 @@
+package com.preptracker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Outcome of one cache warm-up pass with the time spent on each cache
+ */
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class WarmupReport {
+    
+    private String trigger;
+    private String status;
+    private LocalDateTime startedAt;
+    private long budgetMillis;
+    private Long durationMillis;
+    private List<StageTiming> stages;
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class StageTiming {
+        private String cache;
+        private int loaded;
+        private int skipped;
+        private long durationMillis;
+        private String error;
+    }
+}
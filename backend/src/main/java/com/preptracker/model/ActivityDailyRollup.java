@@ -0,0 +1,45 @@
+package com.preptracker.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Number of activity log rows per day, overall and per tab.
+ * The overall count of a day is stored under {@link #ALL_TABS}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "activity_daily_rollups", indexes = {
+    // Per-tab date ranges for the heatmap and the streak windows
+    @Index(name = "idx_rollup_tab_date", columnList = "tabId, activityDate")
+})
+@IdClass(ActivityDailyRollup.RollupId.class)
+public class ActivityDailyRollup {
+    
+    public static final String ALL_TABS = "";
+    
+    @Id
+    private LocalDate activityDate;
+    
+    @Id
+    private String tabId;
+    
+    private long activityCount;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RollupId implements Serializable {
+        private LocalDate activityDate;
+        private String tabId;
+    }
+}
@@ -15,7 +15,13 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @Entity
 @Table(name = "activity_logs", indexes = {
-    @Index(name = "idx_activity_date", columnList = "date")
+    @Index(name = "idx_activity_date", columnList = "date"),
+    // Keyset pages newest first; H2 only walks an index in its declared order
+    @Index(name = "idx_activity_ts_id_desc", columnList = "timestamp DESC, id DESC"),
+    // Per-tab history, newest first, without a sort
+    @Index(name = "idx_activity_tab_ts", columnList = "tabId, timestamp"),
+    // Deletes by item and the writer's (item, timestamp) de-duplication
+    @Index(name = "idx_activity_item_ts", columnList = "itemId, timestamp")
 })
 public class ActivityLog {
     
@@ -0,0 +1,34 @@
+package com.preptracker.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Marks archived activity as deleted. Archive segments are append-only, so
+ * deleting an activity log or an item whose history was already archived
+ * records a tombstone instead, and archive reads skip the matching rows.
+ * Exactly one of activityId and itemId is set.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "archived_activity_tombstones")
+public class ArchivedActivityTombstone {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private String id;
+
+    private String activityId;
+
+    private String itemId;
+
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,51 @@
+package com.preptracker.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * One write to a synced entity, stamped with a monotonically increasing version.
+ * Rows are inserted in the transaction of the write they describe.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "change_log", indexes = {
+    @Index(name = "idx_change_log_changed_at", columnList = "changedAt")
+})
+public class ChangeLogEntry {
+    
+    @Id
+    private Long version;
+    
+    @Enumerated(EnumType.STRING)
+    private EntityType entityType;
+    
+    private String entityId;
+    
+    @Enumerated(EnumType.STRING)
+    private Operation operation;
+    
+    private LocalDateTime changedAt;
+    
+    public enum EntityType {
+        TAB,
+        SUBTOPIC,
+        ITEM,
+        CHECKLIST,
+        APPLICATION,
+        ACTIVITY
+    }
+    
+    public enum Operation {
+        UPSERT,
+        DELETE
+    }
+}
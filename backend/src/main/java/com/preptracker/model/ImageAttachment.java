@@ -14,7 +14,8 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @Entity
 @Table(name = "image_attachments", indexes = {
-    @Index(name = "idx_image_item", columnList = "itemId")
+    @Index(name = "idx_image_item_uploaded", columnList = "itemId, uploadedAt"),
+    @Index(name = "idx_image_file_name", columnList = "fileName")
 })
 public class ImageAttachment {
     
@@ -34,6 +35,9 @@ public class ImageAttachment {
     
     private String filePath;
     
+    // SHA-256 of the content, the id of the shared ImageBlob; null for files stored before deduplication
+    private String contentHash;
+    
     private LocalDateTime uploadedAt;
 }
 
@@ -0,0 +1,42 @@
+package com.preptracker.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * A stored image file, named after the SHA-256 of its content and shared by
+ * every {@link ImageAttachment} with the same bytes. Blobs whose reference
+ * count drops to zero are deleted after a grace period.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "image_blobs", indexes = {
+    @Index(name = "idx_blob_unreferenced", columnList = "refCount, unreferencedSince")
+})
+public class ImageBlob {
+
+    // Hex SHA-256 of the file content
+    @Id
+    private String id;
+
+    private String fileName;
+
+    private String contentType;
+
+    private Long fileSize;
+
+    private int refCount;
+
+    private LocalDateTime createdAt;
+
+    // Set when the last attachment goes away, cleared when one is added again
+    private LocalDateTime unreferencedSince;
+}
@@ -0,0 +1,67 @@
+package com.preptracker.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * A downscaled copy of an uploaded image, generated after the upload.
+ * Stored next to the original in the upload directory.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "image_variants", indexes = {
+    @Index(name = "idx_variant_source_size", columnList = "sourceFileName, size"),
+    @Index(name = "idx_variant_attachment", columnList = "attachmentId")
+})
+public class ImageVariant {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private String id;
+
+    private String attachmentId;
+
+    // File name of the original, as used in /api/images/{fileName}
+    private String sourceFileName;
+
+    @Enumerated(EnumType.STRING)
+    private Size size;
+
+    private String fileName;
+
+    private String contentType;
+
+    private Integer width;
+
+    private Integer height;
+
+    private Long fileSize;
+
+    private LocalDateTime createdAt;
+
+    public enum Size {
+        THUMB(200),
+        MEDIUM(800);
+
+        private final int maxDimension;
+
+        Size(int maxDimension) {
+            this.maxDimension = maxDimension;
+        }
+
+        /**
+         * Longest side of the variant in pixels
+         */
+        public int getMaxDimension() {
+            return maxDimension;
+        }
+    }
+}
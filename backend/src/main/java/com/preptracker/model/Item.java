@@ -15,8 +15,12 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @Entity
 @Table(name = "items", indexes = {
-    @Index(name = "idx_item_tab", columnList = "tabId"),
-    @Index(name = "idx_item_subtopic", columnList = "subtopicId")
+    // Ordered listings and MAX(sortOrder) lookups per tab and per subtopic
+    @Index(name = "idx_item_tab_subtopic_order", columnList = "tabId, subtopicId, sortOrder"),
+    @Index(name = "idx_item_subtopic_order", columnList = "subtopicId, sortOrder"),
+    // Cover the progress counts so they never touch the table rows
+    @Index(name = "idx_item_tab_completed", columnList = "tabId, completed"),
+    @Index(name = "idx_item_subtopic_completed", columnList = "subtopicId, completed")
 })
 public class Item {
     
@@ -14,7 +14,7 @@ import jakarta.validation.constraints.NotBlank;
 @AllArgsConstructor
 @Entity
 @Table(name = "subtopics", indexes = {
-    @Index(name = "idx_subtopic_tab", columnList = "tabId")
+    @Index(name = "idx_subtopic_tab_order", columnList = "tabId, sortOrder")
 })
 public class Subtopic {
     
@@ -0,0 +1,20 @@
+package com.preptracker.repository;
+
+import com.preptracker.model.ActivityDailyRollup;
+import com.preptracker.model.ActivityDailyRollup.RollupId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ActivityDailyRollupRepository extends JpaRepository<ActivityDailyRollup, RollupId> {
+    
+    List<ActivityDailyRollup> findByTabIdAndActivityDateBetweenOrderByActivityDateAsc(
+            String tabId, LocalDate startDate, LocalDate endDate);
+    
+    Optional<ActivityDailyRollup> findFirstByTabIdAndActivityCountGreaterThanOrderByActivityDateAsc(
+            String tabId, long activityCount);
+}
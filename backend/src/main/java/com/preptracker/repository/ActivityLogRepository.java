@@ -2,17 +2,46 @@ package com.preptracker.repository;
 
 import com.preptracker.model.ActivityLog;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface ActivityLogRepository extends JpaRepository<ActivityLog, String> {
     
-    List<ActivityLog> findAllByOrderByTimestampDesc();
+    List<ActivityLog> findAllByOrderByTimestampDescIdDesc();
+    
+    /**
+     * First page of the keyset pagination, newest first
+     */
+    List<ActivityLog> findAllByOrderByTimestampDescIdDesc(Pageable pageable);
+    
+    /**
+     * Page of logs strictly older than the (timestamp, id) position, served by idx_activity_ts_id_desc.
+     * The leading range on timestamp lets the index seek to the position instead of scanning from the top.
+     */
+    @Query("SELECT a FROM ActivityLog a " +
+           "WHERE a.timestamp <= :timestamp AND (a.timestamp < :timestamp OR a.id < :id) " +
+           "ORDER BY a.timestamp DESC, a.id DESC")
+    List<ActivityLog> findPageAfter(@Param("timestamp") LocalDateTime timestamp,
+                                    @Param("id") String id,
+                                    Pageable pageable);
+    
+    /**
+     * First page of logs with a timestamp for the streaming export, newest first
+     */
+    @Query("SELECT a FROM ActivityLog a WHERE a.timestamp IS NOT NULL ORDER BY a.timestamp DESC, a.id DESC")
+    List<ActivityLog> findNewest(Pageable pageable);
+    
+    List<ActivityLog> findByTimestampIsNullOrderByIdDesc(Pageable pageable);
     
     List<ActivityLog> findByDateOrderByTimestampDesc(LocalDate date);
     
@@ -20,9 +49,32 @@ public interface ActivityLogRepository extends JpaRepository<ActivityLog, String
     
     List<ActivityLog> findByTabIdOrderByTimestampDesc(String tabId);
     
+    /**
+     * Oldest rows dated before the retention horizon, served by idx_activity_date
+     */
+    List<ActivityLog> findByDateBeforeOrderByDateAscTimestampAsc(LocalDate date, Pageable pageable);
+    
     long countByDate(LocalDate date);
     
+    @Query("SELECT a.itemId AS itemId, a.timestamp AS timestamp FROM ActivityLog a WHERE a.itemId IN :itemIds")
+    List<ItemActivity> findActivityByItemIdIn(@Param("itemIds") Collection<String> itemIds);
+    
+    @Query("SELECT a.id FROM ActivityLog a WHERE a.itemId = :itemId")
+    List<String> findIdsByItemId(@Param("itemId") String itemId);
+    
+    @Query("SELECT DISTINCT a.date FROM ActivityLog a WHERE a.itemId = :itemId AND a.date IS NOT NULL")
+    List<LocalDate> findDatesByItemId(@Param("itemId") String itemId);
+    
     @Modifying
     @Transactional
     void deleteByItemId(String itemId);
+    
+    /**
+     * Item and timestamp of an activity log row
+     */
+    interface ItemActivity {
+        String getItemId();
+        
+        LocalDateTime getTimestamp();
+    }
 }
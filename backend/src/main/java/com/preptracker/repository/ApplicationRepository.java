@@ -2,19 +2,56 @@ package com.preptracker.repository;
 
 import com.preptracker.model.Application;
 import com.preptracker.model.Application.ApplicationStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @Repository
 public interface ApplicationRepository extends JpaRepository<Application, String> {
     
-    List<Application> findAllByOrderByDateDesc();
+    List<Application> findAllByOrderByDateDescIdAsc();
+    
+    /**
+     * First keyset page over the dated applications, newest first
+     */
+    List<Application> findByDateIsNotNullOrderByDateDescIdAsc(Pageable pageable);
+    
+    /**
+     * Keyset page of applications after the (date, id) position
+     */
+    @Query("SELECT a FROM Application a " +
+           "WHERE a.date <= :date AND (a.date < :date OR a.id > :id) " +
+           "ORDER BY a.date DESC, a.id ASC")
+    List<Application> findPageAfter(@Param("date") LocalDate date,
+                                    @Param("id") String id,
+                                    Pageable pageable);
+    
+    /**
+     * Keyset page over the applications without a date, which sort last, by id
+     */
+    @Query("SELECT a FROM Application a WHERE a.date IS NULL AND a.id > :id ORDER BY a.id ASC")
+    List<Application> findUndatedAfter(@Param("id") String id, Pageable pageable);
     
     List<Application> findByStatusOrderByDateDesc(ApplicationStatus status);
     
     long countByStatus(ApplicationStatus status);
     
     List<Application> findByCompanyContainingIgnoreCaseOrderByDateDesc(String company);
+    
+    @Query("SELECT a.status AS status, COUNT(a) AS total FROM Application a GROUP BY a.status")
+    List<StatusCount> countGroupedByStatus();
+    
+    /**
+     * Number of applications in one status bucket
+     */
+    interface StatusCount {
+        ApplicationStatus getStatus();
+        
+        Long getTotal();
+    }
 }
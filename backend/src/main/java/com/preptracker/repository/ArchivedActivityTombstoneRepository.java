@@ -0,0 +1,18 @@
+package com.preptracker.repository;
+
+import com.preptracker.model.ArchivedActivityTombstone;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Set;
+
+@Repository
+public interface ArchivedActivityTombstoneRepository extends JpaRepository<ArchivedActivityTombstone, String> {
+
+    @Query("SELECT t.activityId FROM ArchivedActivityTombstone t WHERE t.activityId IS NOT NULL")
+    Set<String> findActivityIds();
+
+    @Query("SELECT t.itemId FROM ArchivedActivityTombstone t WHERE t.itemId IS NOT NULL")
+    Set<String> findItemIds();
+}
@@ -0,0 +1,37 @@
+package com.preptracker.repository;
+
+import com.preptracker.model.ChangeLogEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ChangeLogRepository extends JpaRepository<ChangeLogEntry, Long> {
+    
+    @Query("SELECT MAX(c.version) FROM ChangeLogEntry c")
+    Long findMaxVersion();
+    
+    @Query("SELECT MIN(c.version) FROM ChangeLogEntry c")
+    Long findMinVersion();
+    
+    /**
+     * Entries in the (since, until] version window, oldest first, served by the primary key
+     */
+    @Query("SELECT c FROM ChangeLogEntry c WHERE c.version > :since AND c.version <= :until ORDER BY c.version ASC")
+    List<ChangeLogEntry> findWindow(@Param("since") long since, @Param("until") long until, Pageable pageable);
+    
+    @Query("SELECT MAX(c.version) FROM ChangeLogEntry c WHERE c.changedAt < :cutoff")
+    Long findMaxVersionBefore(@Param("cutoff") LocalDateTime cutoff);
+    
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ChangeLogEntry c WHERE c.version <= :version")
+    int deleteThrough(@Param("version") long version);
+}
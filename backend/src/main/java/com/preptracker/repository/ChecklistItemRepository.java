@@ -1,7 +1,10 @@
 package com.preptracker.repository;
 
 import com.preptracker.model.ChecklistItem;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -9,7 +12,28 @@ import java.util.List;
 @Repository
 public interface ChecklistItemRepository extends JpaRepository<ChecklistItem, String> {
     
-    List<ChecklistItem> findAllByOrderBySortOrderAsc();
+    List<ChecklistItem> findAllByOrderBySortOrderAscIdAsc();
+    
+    /**
+     * Keyset page over the items without a sort order, which sort first, by id
+     */
+    @Query("SELECT c FROM ChecklistItem c WHERE c.sortOrder IS NULL AND c.id > :id ORDER BY c.id ASC")
+    List<ChecklistItem> findUnorderedAfter(@Param("id") String id, Pageable pageable);
+    
+    /**
+     * First keyset page over the items with a sort order
+     */
+    List<ChecklistItem> findBySortOrderIsNotNullOrderBySortOrderAscIdAsc(Pageable pageable);
+    
+    /**
+     * Keyset page of items after the (sortOrder, id) position
+     */
+    @Query("SELECT c FROM ChecklistItem c " +
+           "WHERE c.sortOrder >= :sortOrder AND (c.sortOrder > :sortOrder OR c.id > :id) " +
+           "ORDER BY c.sortOrder ASC, c.id ASC")
+    List<ChecklistItem> findPageAfter(@Param("sortOrder") Integer sortOrder,
+                                      @Param("id") String id,
+                                      Pageable pageable);
     
     List<ChecklistItem> findByCompletedTrueOrderBySortOrderAsc();
     
@@ -3,16 +3,32 @@ package com.preptracker.repository;
 import com.preptracker.model.ImageAttachment;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ImageAttachmentRepository extends JpaRepository<ImageAttachment, String> {
     
     List<ImageAttachment> findByItemIdOrderByUploadedAtAsc(String itemId);
     
+    Optional<ImageAttachment> findFirstByFileName(String fileName);
+    
+    @Query("SELECT a FROM ImageAttachment a WHERE NOT EXISTS (SELECT i.id FROM Item i WHERE i.id = a.itemId)")
+    List<ImageAttachment> findWithoutItem();
+    
+    @Query("SELECT DISTINCT a.fileName FROM ImageAttachment a")
+    List<String> findAllFileNames();
+    
+    @Modifying
+    @Transactional
+    @Query("UPDATE ImageAttachment a SET a.filePath = :filePath WHERE a.fileName = :fileName")
+    int updateFilePath(@Param("fileName") String fileName, @Param("filePath") String filePath);
+    
     @Modifying
     @Transactional
     void deleteByItemId(String itemId);
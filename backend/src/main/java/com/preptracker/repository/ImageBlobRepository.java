@@ -0,0 +1,51 @@
+package com.preptracker.repository;
+
+import com.preptracker.model.ImageBlob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ImageBlobRepository extends JpaRepository<ImageBlob, String> {
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE ImageBlob b SET b.refCount = b.refCount + 1, b.unreferencedSince = NULL WHERE b.id = :id")
+    int incrementRefCount(@Param("id") String id);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE ImageBlob b SET b.refCount = b.refCount - 1, " +
+           "b.unreferencedSince = CASE WHEN b.refCount = 1 THEN :now ELSE b.unreferencedSince END " +
+           "WHERE b.id = :id AND b.refCount > 0")
+    int decrementRefCount(@Param("id") String id, @Param("now") LocalDateTime now);
+
+    /**
+     * Restart the grace period of an unreferenced blob that is about to gain a reference
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE ImageBlob b SET b.unreferencedSince = :now WHERE b.id = :id AND b.refCount = 0")
+    int deferCollection(@Param("id") String id, @Param("now") LocalDateTime now);
+
+    @Query("SELECT b.fileName FROM ImageBlob b")
+    List<String> findAllFileNames();
+
+    @Query("SELECT b.id FROM ImageBlob b WHERE b.refCount = 0 AND b.unreferencedSince < :cutoff")
+    List<String> findUnreferencedIds(@Param("cutoff") LocalDateTime cutoff);
+
+    /**
+     * Delete a blob that is still unreferenced and past its grace period; an
+     * upload that restarted the grace period since the candidates were read keeps it
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ImageBlob b WHERE b.id = :id AND b.refCount = 0 AND b.unreferencedSince < :cutoff")
+    int deleteIfUnreferenced(@Param("id") String id, @Param("cutoff") LocalDateTime cutoff);
+}
@@ -0,0 +1,20 @@
+package com.preptracker.repository;
+
+import com.preptracker.model.ImageVariant;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ImageVariantRepository extends JpaRepository<ImageVariant, String> {
+
+    Optional<ImageVariant> findFirstBySourceFileNameAndSize(String sourceFileName, ImageVariant.Size size);
+
+    List<ImageVariant> findBySourceFileName(String sourceFileName);
+
+    @Query("SELECT v.fileName FROM ImageVariant v")
+    List<String> findAllFileNames();
+}
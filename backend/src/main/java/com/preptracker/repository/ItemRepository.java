@@ -1,11 +1,16 @@
 package com.preptracker.repository;
 
+import com.preptracker.dto.ReorderRequest;
 import com.preptracker.model.Item;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -17,6 +22,10 @@ public interface ItemRepository extends JpaRepository<Item, String> {
     
     List<Item> findBySubtopicIdOrderBySortOrderAsc(String subtopicId);
     
+    List<Item> findBySubtopicIdInOrderBySortOrderAsc(Collection<String> subtopicIds);
+    
+    List<Item> findAllByOrderBySortOrderAsc();
+    
     List<Item> findByTabIdAndCompletedTrue(String tabId);
     
     List<Item> findBySubtopicIdAndCompletedTrue(String subtopicId);
@@ -38,4 +47,64 @@ public interface ItemRepository extends JpaRepository<Item, String> {
     void deleteBySubtopicId(String subtopicId);
     
     long countByCompletedTrue();
+    
+    @Query("SELECT i.id FROM Item i WHERE i.tabId = :tabId")
+    List<String> findIdsByTabId(@Param("tabId") String tabId);
+    
+    @Query("SELECT i.id FROM Item i WHERE i.subtopicId = :subtopicId")
+    List<String> findIdsBySubtopicId(@Param("subtopicId") String subtopicId);
+    
+    @Query("SELECT new com.preptracker.dto.ReorderRequest(i.id, i.sortOrder) FROM Item i " +
+           "WHERE i.subtopicId = :subtopicId ORDER BY i.sortOrder")
+    List<ReorderRequest> findSortOrdersBySubtopicId(@Param("subtopicId") String subtopicId);
+    
+    @Query("SELECT new com.preptracker.dto.ReorderRequest(i.id, i.sortOrder) FROM Item i " +
+           "WHERE i.tabId = :tabId AND i.subtopicId IS NULL ORDER BY i.sortOrder")
+    List<ReorderRequest> findSortOrdersByTabIdWithoutSubtopic(@Param("tabId") String tabId);
+    
+    @Query("SELECT MAX(i.sortOrder) FROM Item i WHERE i.subtopicId = :subtopicId")
+    Integer findMaxSortOrderBySubtopicId(@Param("subtopicId") String subtopicId);
+    
+    @Query("SELECT MAX(i.sortOrder) FROM Item i WHERE i.tabId = :tabId AND i.subtopicId IS NULL")
+    Integer findMaxSortOrderByTabIdWithoutSubtopic(@Param("tabId") String tabId);
+    
+    @Query("SELECT DISTINCT i.tabId AS tabId, i.subtopicId AS subtopicId FROM Item i WHERE i.id IN :ids")
+    List<ItemScope> findScopesByIdIn(@Param("ids") Collection<String> ids);
+    
+    /**
+     * Items completed since the given time without an activity log written at or after their completion
+     */
+    @Query("SELECT i FROM Item i WHERE i.completed = true AND i.completedAt >= :since AND NOT EXISTS " +
+           "(SELECT a.id FROM ActivityLog a WHERE a.itemId = i.id AND a.timestamp >= i.completedAt)")
+    List<Item> findCompletedWithoutActivityLog(@Param("since") LocalDateTime since);
+    
+    @Query("SELECT i.tabId AS groupId, COUNT(i) AS total, " +
+           "SUM(CASE WHEN i.completed = true THEN 1 ELSE 0 END) AS completed " +
+           "FROM Item i GROUP BY i.tabId")
+    List<ProgressCount> countProgressGroupedByTab();
+    
+    @Query("SELECT i.subtopicId AS groupId, COUNT(i) AS total, " +
+           "SUM(CASE WHEN i.completed = true THEN 1 ELSE 0 END) AS completed " +
+           "FROM Item i WHERE i.subtopicId IS NOT NULL GROUP BY i.subtopicId")
+    List<ProgressCount> countProgressGroupedBySubtopic();
+    
+    /**
+     * Tab and subtopic an item belongs to
+     */
+    interface ItemScope {
+        String getTabId();
+        
+        String getSubtopicId();
+    }
+    
+    /**
+     * Total and completed item counts for one group (tab or subtopic)
+     */
+    interface ProgressCount {
+        String getGroupId();
+        
+        Long getTotal();
+        
+        Long getCompleted();
+    }
 }
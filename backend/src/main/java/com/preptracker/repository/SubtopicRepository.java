@@ -1,11 +1,15 @@
 package com.preptracker.repository;
 
+import com.preptracker.dto.ReorderRequest;
 import com.preptracker.model.Subtopic;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -13,9 +17,21 @@ public interface SubtopicRepository extends JpaRepository<Subtopic, String> {
     
     List<Subtopic> findByTabIdOrderBySortOrderAsc(String tabId);
     
+    List<Subtopic> findAllByOrderBySortOrderAsc();
+    
     @Modifying
     @Transactional
     void deleteByTabId(String tabId);
     
     long countByTabId(String tabId);
+    
+    @Query("SELECT new com.preptracker.dto.ReorderRequest(s.id, s.sortOrder) FROM Subtopic s " +
+           "WHERE s.tabId = :tabId ORDER BY s.sortOrder")
+    List<ReorderRequest> findSortOrdersByTabId(@Param("tabId") String tabId);
+    
+    @Query("SELECT MAX(s.sortOrder) FROM Subtopic s WHERE s.tabId = :tabId")
+    Integer findMaxSortOrderByTabId(@Param("tabId") String tabId);
+    
+    @Query("SELECT DISTINCT s.tabId FROM Subtopic s WHERE s.id IN :ids")
+    List<String> findTabIdsByIdIn(@Param("ids") Collection<String> ids);
 }
@@ -1,15 +1,42 @@
 package com.preptracker.scheduler;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.preptracker.config.CacheReloader;
+import com.preptracker.dto.WarmupReport;
+import com.preptracker.dto.WarmupReport.StageTiming;
+import com.preptracker.service.CacheService;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import javax.sql.DataSource;
 import java.sql.Connection;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+/**
+ * Keeps the database connection and the read caches warm.
+ * <p>
+ * Once the application is ready, the caches listed in {@code app.warmup.caches}
+ * are filled on a background thread, so traffic is served while warming
+ * proceeds. A periodic pass then reloads entries that are about to expire and
+ * refills entries that were evicted. Each pass stops loading once
+ * {@code app.warmup.budget} is spent.
+ */
 @Component
 public class WarmupScheduler {
 
@@ -18,6 +45,35 @@ public class WarmupScheduler {
     @Autowired
     private DataSource dataSource;
 
+    @Autowired
+    private CacheService cacheService;
+
+    @Autowired
+    private List<CacheReloader> cacheReloaders;
+
+    @Value("${app.warmup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.warmup.caches:tabs,tabData,dashboard,checklist,applications}")
+    private List<String> caches;
+
+    @Value("${app.warmup.budget:30s}")
+    private Duration budget;
+
+    @Value("${app.warmup.refresh-ahead:2m}")
+    private Duration refreshAhead;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "cache-warmup");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private volatile WarmupReport startupReport;
+    private volatile WarmupReport refreshReport;
+
     /**
      * Ping the database every 10 minutes to keep connections warm
      */
@@ -31,6 +87,44 @@ public class WarmupScheduler {
         }
     }
 
+    /**
+     * Fill the caches in the background once the application accepts traffic
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void prewarm() {
+        if (enabled) {
+            submit("startup", false);
+        }
+    }
+
+    /**
+     * Reload entries close to expiry and refill evicted ones
+     */
+    @Scheduled(initialDelayString = "${app.warmup.refresh-interval-ms:60000}",
+            fixedDelayString = "${app.warmup.refresh-interval-ms:60000}")
+    public void refreshAhead() {
+        if (enabled && startupReport != null) {
+            submit("refresh", true);
+        }
+    }
+
+    /**
+     * Run a refresh pass now; returns false if a pass is already running
+     */
+    public boolean triggerRefresh() {
+        return submit("manual", true);
+    }
+
+    /**
+     * Latest startup and refresh reports
+     */
+    public Map<String, WarmupReport> getReports() {
+        Map<String, WarmupReport> reports = new LinkedHashMap<>();
+        reports.put("startup", startupReport);
+        reports.put("refresh", refreshReport);
+        return reports;
+    }
+
     /**
      * Log startup message
      */
@@ -38,6 +132,153 @@ public class WarmupScheduler {
     public void logStartup() {
         logger.info("PrepTracker Backend started successfully at {}", LocalDateTime.now());
         logger.info("Using H2 Database (local file-based storage)");
-        logger.info("Warmup scheduler is active - pinging every 10 minutes");
+        logger.info("Warmup scheduler is active - pinging every 10 minutes, warming caches {}", caches);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private boolean submit(String trigger, boolean refresh) {
+        if (!running.compareAndSet(false, true)) {
+            logger.debug("Skipping {} warm-up, a pass is already running", trigger);
+            return false;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    warm(trigger, refresh);
+                } finally {
+                    running.set(false);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            running.set(false);
+            return false;
+        }
+    }
+
+    private void warm(String trigger, boolean refresh) {
+        long start = System.nanoTime();
+        long deadline = start + budget.toNanos();
+        List<StageTiming> stages = new ArrayList<>();
+        WarmupReport report = WarmupReport.builder()
+                .trigger(trigger)
+                .status("RUNNING")
+                .startedAt(LocalDateTime.now())
+                .budgetMillis(budget.toMillis())
+                .stages(List.of())
+                .build();
+        publish(trigger, report);
+
+        boolean budgetExceeded = false;
+        for (String cacheName : caches) {
+            StageTiming stage = warmCache(cacheName, refresh, deadline);
+            budgetExceeded |= stage.getSkipped() > 0;
+            stages.add(stage);
+            publish(trigger, report.toBuilder().stages(List.copyOf(stages)).build());
+        }
+
+        long durationMillis = (System.nanoTime() - start) / 1_000_000;
+        publish(trigger, report.toBuilder()
+                .status(budgetExceeded ? "BUDGET_EXCEEDED" : "COMPLETED")
+                .durationMillis(durationMillis)
+                .stages(List.copyOf(stages))
+                .build());
+        if (!refresh || budgetExceeded) {
+            logger.info("Cache warm-up ({}) finished in {} ms: {}", trigger, durationMillis, stages.stream()
+                    .map(stage -> stage.getCache() + "=" + stage.getDurationMillis() + "ms")
+                    .toList());
+        }
+    }
+
+    private StageTiming warmCache(String cacheName, boolean refresh, long deadline) {
+        long start = System.nanoTime();
+        int loaded = 0;
+        int skipped = 0;
+        String error = null;
+        CacheReloader reloader = reloaderFor(cacheName);
+        Cache<Object, Object> cache = cacheService.nativeCache(cacheName);
+        if (reloader == null || cache == null) {
+            error = "No reloader for cache";
+        } else if (System.nanoTime() > deadline) {
+            skipped = 1;
+        } else {
+            try {
+                List<Object> keys = reloader.warmKeys();
+                for (int i = 0; i < keys.size(); i++) {
+                    if (System.nanoTime() > deadline) {
+                        skipped = keys.size() - i;
+                        break;
+                    }
+                    if (warmKey(cache, reloader, keys.get(i), refresh)) {
+                        loaded++;
+                    }
+                }
+            } catch (Exception e) {
+                logger.warn("Warming cache '{}' failed: {}", cacheName, e.getMessage());
+                error = e.getMessage();
+            }
+        }
+        return StageTiming.builder()
+                .cache(cacheName)
+                .loaded(loaded)
+                .skipped(skipped)
+                .durationMillis((System.nanoTime() - start) / 1_000_000)
+                .error(error)
+                .build();
+    }
+
+    /**
+     * Load a missing entry, or on a refresh pass reload one that is about to expire.
+     * Both loads run inside a Caffeine compute: lookups of the key wait for the
+     * load instead of repeating it, and an eviction made meanwhile waits too and
+     * then removes the loaded value, so a stale value is never left behind.
+     */
+    private boolean warmKey(Cache<Object, Object> cache, CacheReloader reloader, Object key, boolean refresh) {
+        boolean[] loaded = {false};
+        Object current = cache.get(key, k -> {
+            loaded[0] = true;
+            return reloader.reload(k);
+        });
+        if (loaded[0]) {
+            return current != null;
+        }
+        if (current == null || !refresh || !expiresWithin(cache, key, refreshAhead)) {
+            return false;
+        }
+        Object reloaded = cache.asMap().compute(key, (k, value) -> {
+            if (value != current) {
+                // Evicted or replaced since it was read
+                return value;
+            }
+            loaded[0] = true;
+            return reloader.reload(k);
+        });
+        return loaded[0] && reloaded != null;
+    }
+
+    private static boolean expiresWithin(Cache<Object, Object> cache, Object key, Duration window) {
+        return cache.policy().expireAfterWrite()
+                .flatMap(expiration -> expiration.ageOf(key)
+                        .map(age -> expiration.getExpiresAfter().minus(age).compareTo(window) <= 0))
+                .orElse(false);
+    }
+
+    private CacheReloader reloaderFor(String cacheName) {
+        return cacheReloaders.stream()
+                .filter(reloader -> cacheName.equals(reloader.cacheName()))
+                .findFirst()
+                .orElse(null);
+    }
+
+    private void publish(String trigger, WarmupReport report) {
+        if ("startup".equals(trigger)) {
+            startupReport = report;
+        } else {
+            refreshReport = report;
+        }
     }
 }
@@ -0,0 +1,461 @@
+package com.preptracker.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.preptracker.model.ActivityLog;
+import com.preptracker.model.ArchivedActivityTombstone;
+import com.preptracker.repository.ActivityLogRepository;
+import com.preptracker.repository.ArchivedActivityTombstoneRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipException;
+
+/**
+ * Moves activity logs older than the retention horizon out of activity_logs
+ * into monthly archive segments ({@code activity-YYYY-MM.jsonl.gz}) on disk.
+ * <p>
+ * Each archive run appends one gzip member of JSON lines per month to the
+ * segment, forces it to disk and only then deletes the rows, so a crash
+ * leaves rows in the table rather than losing them. A row may therefore be
+ * archived twice; reads de-duplicate by id. A failed append is truncated
+ * away, and a member torn by a crash is cut off at startup, so later
+ * members are never hidden behind a broken one. Daily rollups are left
+ * alone because archived activity still counts towards heatmaps and streaks.
+ * <p>
+ * Segments are append-only; deleting archived activity, directly or with
+ * its item, records an {@link ArchivedActivityTombstone} that reads honour.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ActivityArchiveService {
+
+    private static final String SEGMENT_PREFIX = "activity-";
+    private static final String SEGMENT_SUFFIX = ".jsonl.gz";
+    private static final byte GZIP_MAGIC_1 = (byte) 0x1f;
+    private static final byte GZIP_MAGIC_2 = (byte) 0x8b;
+
+    private final ActivityLogRepository activityLogRepository;
+    private final CacheInvalidator cacheInvalidator;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final ArchivedActivityTombstoneRepository tombstoneRepository;
+
+    @Value("${app.activity.retention.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.activity.retention.retention-days:730}")
+    private int retentionDays;
+
+    @Value("${app.activity.retention.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${app.activity.retention.archive-dir:./data/activity-archive}")
+    private String archiveDir;
+
+    // Appends take the write lock so readers never see half a gzip member
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Path archivePath;
+
+    @PostConstruct
+    public void init() {
+        archivePath = Paths.get(archiveDir).toAbsolutePath().normalize();
+        try {
+            Files.createDirectories(archivePath);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create activity archive directory", e);
+        }
+        for (YearMonth month : months()) {
+            repairSegment(month);
+        }
+    }
+
+    /**
+     * Nightly archive run
+     */
+    @Scheduled(cron = "${app.activity.retention.cron:0 30 3 * * *}")
+    public void scheduledArchive() {
+        if (enabled) {
+            archive();
+        }
+    }
+
+    /**
+     * Oldest date still kept in activity_logs; rows dated before it are archived
+     */
+    public LocalDate horizon() {
+        return LocalDate.now().minusDays(Math.max(retentionDays, 1));
+    }
+
+    /**
+     * Move every row dated before the horizon into the archive, one batch per transaction.
+     * Returns the number of rows moved.
+     */
+    public int archive() {
+        LocalDate horizon = horizon();
+        int moved = 0;
+        while (true) {
+            Integer batch = transactionTemplate.execute(status -> archiveBatch(horizon));
+            if (batch == null || batch == 0) {
+                break;
+            }
+            moved += batch;
+            if (batch < batchSize) {
+                break;
+            }
+        }
+        if (moved > 0) {
+            log.info("Archived {} activity logs dated before {}", moved, horizon);
+        }
+        return moved;
+    }
+
+    private int archiveBatch(LocalDate horizon) {
+        List<ActivityLog> rows = activityLogRepository
+                .findByDateBeforeOrderByDateAscTimestampAsc(horizon, PageRequest.of(0, batchSize));
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        Map<YearMonth, List<ActivityLog>> byMonth = new TreeMap<>();
+        for (ActivityLog row : rows) {
+            byMonth.computeIfAbsent(YearMonth.from(row.getDate()), month -> new ArrayList<>()).add(row);
+        }
+        byMonth.forEach(this::append);
+        activityLogRepository.deleteAllInBatch(rows);
+        cacheInvalidator.activityRemoved();
+        return rows.size();
+    }
+
+    /**
+     * Archived rows dated within the range, de-duplicated by id
+     */
+    public List<ActivityLog> read(LocalDate startDate, LocalDate endDate) {
+        Predicate<ActivityLog> visible = visible();
+        Map<String, ActivityLog> rows = new LinkedHashMap<>();
+        for (YearMonth month = YearMonth.from(startDate); !month.isAfter(YearMonth.from(endDate)); month = month.plusMonths(1)) {
+            readSegment(month, row -> {
+                if (row.getDate() != null && !row.getDate().isBefore(startDate) && !row.getDate().isAfter(endDate)
+                        && visible.test(row)) {
+                    rows.putIfAbsent(row.getId(), row);
+                }
+            });
+        }
+        return new ArrayList<>(rows.values());
+    }
+
+    /**
+     * Every archived row, de-duplicated by id
+     */
+    public List<ActivityLog> readAll() {
+        Predicate<ActivityLog> visible = visible();
+        Map<String, ActivityLog> rows = new LinkedHashMap<>();
+        for (YearMonth month : months()) {
+            readSegment(month, row -> {
+                if (visible.test(row)) {
+                    rows.putIfAbsent(row.getId(), row);
+                }
+            });
+        }
+        return new ArrayList<>(rows.values());
+    }
+
+    /**
+     * Hide the archived history of a deleted item. Only months from the
+     * item's creation on are searched. Returns the dates of the hidden rows,
+     * whose rollups need recounting.
+     */
+    public List<LocalDate> forgetItem(String itemId, LocalDate createdOn) {
+        Set<LocalDate> dates = new TreeSet<>();
+        boolean[] found = {false};
+        for (YearMonth month : months()) {
+            if (createdOn != null && month.isBefore(YearMonth.from(createdOn))) {
+                continue;
+            }
+            readSegment(month, row -> {
+                if (itemId.equals(row.getItemId())) {
+                    found[0] = true;
+                    if (row.getDate() != null) {
+                        dates.add(row.getDate());
+                    }
+                }
+            });
+        }
+        if (found[0]) {
+            tombstoneRepository.save(ArchivedActivityTombstone.builder()
+                    .itemId(itemId)
+                    .createdAt(LocalDateTime.now())
+                    .build());
+        }
+        return new ArrayList<>(dates);
+    }
+
+    /**
+     * Hide an archived activity log. Returns its date, or null when it is not
+     * in the archive.
+     */
+    public LocalDate forgetActivity(String activityId) {
+        ActivityLog[] match = {null};
+        for (YearMonth month : months()) {
+            readSegment(month, row -> {
+                if (activityId.equals(row.getId())) {
+                    match[0] = row;
+                }
+            });
+            if (match[0] != null) {
+                break;
+            }
+        }
+        if (match[0] == null) {
+            return null;
+        }
+        tombstoneRepository.save(ArchivedActivityTombstone.builder()
+                .activityId(activityId)
+                .createdAt(LocalDateTime.now())
+                .build());
+        return match[0].getDate();
+    }
+
+    /**
+     * Whether any archived month overlaps the range
+     */
+    public boolean covers(LocalDate startDate, LocalDate endDate) {
+        for (YearMonth month = YearMonth.from(startDate); !month.isAfter(YearMonth.from(endDate)); month = month.plusMonths(1)) {
+            if (Files.exists(segment(month))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Archived months, oldest first
+     */
+    public List<YearMonth> months() {
+        try (Stream<Path> files = Files.list(archivePath)) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> parseMonth(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())))
+                    .filter(month -> month != null)
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not list activity archive", e);
+        }
+    }
+
+    /**
+     * Delete every segment, for an import that replaces the whole history.
+     * Returns the number of months removed.
+     */
+    public int clear() {
+        lock.writeLock().lock();
+        try {
+            int removed = 0;
+            for (YearMonth month : months()) {
+                if (Files.deleteIfExists(segment(month))) {
+                    removed++;
+                }
+            }
+            tombstoneRepository.deleteAllInBatch();
+            log.info("Cleared {} activity archive segments", removed);
+            return removed;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not clear activity archive", e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Append rows to a month's segment as a new gzip member and force it to
+     * disk. On failure the segment is truncated back to its previous length,
+     * so no partial member is left in front of later appends.
+     */
+    private void append(YearMonth month, Collection<ActivityLog> rows) {
+        lock.writeLock().lock();
+        try (FileChannel channel = FileChannel.open(segment(month),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            long length = channel.size();
+            try {
+                GZIPOutputStream gzip = new GZIPOutputStream(Channels.newOutputStream(channel));
+                Writer writer = new BufferedWriter(new OutputStreamWriter(gzip, StandardCharsets.UTF_8));
+                for (ActivityLog row : rows) {
+                    writer.write(objectMapper.writeValueAsString(row));
+                    writer.write('\n');
+                }
+                writer.flush();
+                gzip.finish();
+                channel.force(true);
+            } catch (IOException | RuntimeException e) {
+                try {
+                    channel.truncate(length);
+                    channel.force(true);
+                } catch (IOException truncateFailure) {
+                    e.addSuppressed(truncateFailure);
+                }
+                throw e;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not append to activity archive " + month, e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Rewrite a segment that ends in, or contains, a member torn by a crash.
+     * Rows are salvaged from every member that still decodes; those of the
+     * torn member were never deleted from activity_logs. The rewritten
+     * segment replaces the old one with an atomic rename.
+     */
+    private void repairSegment(YearMonth month) {
+        Path file = segment(month);
+        try {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                    new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8))) {
+                while (reader.readLine() != null) {
+                    // Decoding to the end is the check
+                }
+                return;
+            } catch (EOFException | ZipException e) {
+                log.warn("Activity archive {} has a damaged member, rewriting it: {}", file.getFileName(), e.getMessage());
+            }
+
+            // Try every gzip header in the file; a member decodes on its own
+            byte[] bytes = Files.readAllBytes(file);
+            Map<String, ActivityLog> rows = new LinkedHashMap<>();
+            for (int offset = 0; offset + 2 < bytes.length; offset++) {
+                if (bytes[offset] != GZIP_MAGIC_1 || bytes[offset + 1] != GZIP_MAGIC_2 || bytes[offset + 2] != 8) {
+                    continue;
+                }
+                try (BufferedReader reader = new BufferedReader(new InputStreamReader(new GZIPInputStream(
+                        new ByteArrayInputStream(bytes, offset, bytes.length - offset)), StandardCharsets.UTF_8))) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        if (!line.isBlank()) {
+                            ActivityLog row = objectMapper.readValue(line, ActivityLog.class);
+                            rows.putIfAbsent(row.getId(), row);
+                        }
+                    }
+                } catch (IOException e) {
+                    // End of this run of members, or not a real header
+                }
+            }
+
+            Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+            try (GZIPOutputStream gzip = new GZIPOutputStream(Files.newOutputStream(temp));
+                 Writer writer = new BufferedWriter(new OutputStreamWriter(gzip, StandardCharsets.UTF_8))) {
+                for (ActivityLog row : rows.values()) {
+                    writer.write(objectMapper.writeValueAsString(row));
+                    writer.write('\n');
+                }
+            }
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.info("Rewrote activity archive {} with {} salvaged rows", file.getFileName(), rows.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not repair activity archive " + month, e);
+        }
+    }
+
+    /**
+     * Filter for archived rows that have not been deleted since
+     */
+    private Predicate<ActivityLog> visible() {
+        Set<String> activityIds = tombstoneRepository.findActivityIds();
+        Set<String> itemIds = tombstoneRepository.findItemIds();
+        if (activityIds.isEmpty() && itemIds.isEmpty()) {
+            return row -> true;
+        }
+        return row -> !activityIds.contains(row.getId())
+                && (row.getItemId() == null || !itemIds.contains(row.getItemId()));
+    }
+
+    private void readSegment(YearMonth month, Consumer<ActivityLog> consumer) {
+        Path file = segment(month);
+        lock.readLock().lock();
+        try {
+            if (!Files.exists(file)) {
+                return;
+            }
+            // GZIPInputStream reads concatenated members as one stream
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                    new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (!line.isBlank()) {
+                        consumer.accept(objectMapper.readValue(line, ActivityLog.class));
+                    }
+                }
+            } catch (EOFException | ZipException e) {
+                // A member cut short by a crash; its rows were never deleted from activity_logs
+                log.warn("Activity archive {} ends with an incomplete member: {}", file.getFileName(), e.getMessage());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read activity archive " + month, e);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Path segment(YearMonth month) {
+        return archivePath.resolve(SEGMENT_PREFIX + month + SEGMENT_SUFFIX);
+    }
+
+    private static YearMonth parseMonth(String value) {
+        try {
+            return YearMonth.parse(value);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
@@ -1,60 +1,200 @@
 package com.preptracker.service;
 
 import com.preptracker.config.CacheConfig;
+import com.preptracker.dto.ActivityLogPage;
 import com.preptracker.model.ActivityLog;
 import com.preptracker.repository.ActivityLogRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class ActivityLogService {
     
+    private static final int MAX_PAGE_SIZE = 200;
+    
+    /**
+     * Order of activity listings and exports: newest first, ties by id descending
+     */
+    static final Comparator<ActivityLog> NEWEST_FIRST = Comparator
+            .comparing(ActivityLog::getTimestamp, Comparator.nullsLast(Comparator.<LocalDateTime>reverseOrder()))
+            .thenComparing(ActivityLog::getId, Comparator.nullsLast(Comparator.<String>reverseOrder()));
+    
     private final ActivityLogRepository activityLogRepository;
+    private final ActivityRollupService activityRollupService;
+    private final ActivityArchiveService activityArchiveService;
+    private final ChangeEvents changeEvents;
     
+    /**
+     * Every activity log, archived ones included
+     */
     @Cacheable(value = CacheConfig.ACTIVITY_CACHE, key = "'all'")
     public List<ActivityLog> getAllActivityLogs() {
         log.debug("Fetching all activity logs from database");
-        return activityLogRepository.findAllByOrderByTimestampDesc();
+        return merge(activityLogRepository.findAllByOrderByTimestampDescIdDesc(), activityArchiveService.readAll());
+    }
+    
+    /**
+     * Keyset page of activity logs, newest first. The cursor encodes the
+     * (timestamp, id) of the last row returned, so every page costs one
+     * index range scan no matter how much history exists.
+     */
+    public ActivityLogPage getActivityLogPage(int limit, String cursor) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        // Fetch one extra row to know whether another page follows
+        Pageable pageable = PageRequest.of(0, pageSize + 1);
+        List<ActivityLog> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = activityLogRepository.findAllByOrderByTimestampDescIdDesc(pageable);
+        } else {
+            String[] position = decodeCursor(cursor);
+            rows = activityLogRepository.findPageAfter(LocalDateTime.parse(position[0]), position[1], pageable);
+        }
+        
+        boolean hasMore = rows.size() > pageSize;
+        List<ActivityLog> items = hasMore ? rows.subList(0, pageSize) : rows;
+        ActivityLog last = items.isEmpty() ? null : items.get(items.size() - 1);
+        String nextCursor = hasMore && last.getTimestamp() != null ? encodeCursor(last) : null;
+        return ActivityLogPage.builder()
+                .items(new ArrayList<>(items))
+                .nextCursor(nextCursor)
+                .hasMore(nextCursor != null)
+                .build();
     }
     
     @Cacheable(value = CacheConfig.ACTIVITY_CACHE, key = "'date_' + #date")
     public List<ActivityLog> getActivityLogsByDate(LocalDate date) {
         log.debug("Fetching activity logs for date: {}", date);
-        return activityLogRepository.findByDateOrderByTimestampDesc(date);
+        return withArchived(activityLogRepository.findByDateOrderByTimestampDesc(date), date, date);
     }
     
+    /**
+     * Logs dated within the range, including archived ones when the range reaches
+     * back into archived months
+     */
     public List<ActivityLog> getActivityLogsByDateRange(LocalDate startDate, LocalDate endDate) {
         // Don't cache range queries as they can vary
-        return activityLogRepository.findByDateBetweenOrderByTimestampDesc(startDate, endDate);
+        return withArchived(activityLogRepository.findByDateBetweenOrderByTimestampDesc(startDate, endDate),
+                startDate, endDate);
     }
     
+    /**
+     * Activity logs of a tab, archived ones included
+     */
     @Cacheable(value = CacheConfig.ACTIVITY_CACHE, key = "'tab_' + #tabId")
     public List<ActivityLog> getActivityLogsByTabId(String tabId) {
         log.debug("Fetching activity logs for tab: {}", tabId);
-        return activityLogRepository.findByTabIdOrderByTimestampDesc(tabId);
+        List<ActivityLog> archived = activityArchiveService.readAll().stream()
+                .filter(row -> tabId.equals(row.getTabId()))
+                .toList();
+        return merge(activityLogRepository.findByTabIdOrderByTimestampDesc(tabId), archived);
     }
     
+    @Transactional
     @CacheEvict(value = CacheConfig.ACTIVITY_CACHE, allEntries = true)
     public ActivityLog createActivityLog(ActivityLog activityLog) {
         log.debug("Creating activity log");
-        return activityLogRepository.save(activityLog);
+        // Keyset pages skip rows without a timestamp
+        if (activityLog.getTimestamp() == null) {
+            activityLog.setTimestamp(LocalDateTime.now());
+        }
+        if (activityLog.getDate() == null) {
+            activityLog.setDate(activityLog.getTimestamp().toLocalDate());
+        }
+        ActivityLog saved = activityLogRepository.save(activityLog);
+        activityRollupService.recordActivity(saved);
+        changeEvents.activityAppended(saved);
+        return saved;
     }
     
+    @Transactional
     @CacheEvict(value = CacheConfig.ACTIVITY_CACHE, allEntries = true)
     public void deleteActivityLog(String id) {
         log.debug("Deleting activity log: {}", id);
-        activityLogRepository.deleteById(id);
+        ActivityLog activityLog = activityLogRepository.findById(id).orElse(null);
+        if (activityLog != null) {
+            activityLogRepository.delete(activityLog);
+            changeEvents.activityDeleted(id);
+            if (activityLog.getDate() != null) {
+                activityRollupService.rebuildDays(List.of(activityLog.getDate()));
+            }
+            return;
+        }
+        // Already archived: hide it from archive reads
+        LocalDate archivedDate = activityArchiveService.forgetActivity(id);
+        if (archivedDate != null) {
+            changeEvents.activityDeleted(id);
+            activityRollupService.rebuildDays(List.of(archivedDate));
+        }
     }
     
+    /**
+     * Activity count of a day, read from the daily rollups
+     */
     public long countByDate(LocalDate date) {
-        return activityLogRepository.countByDate(date);
+        return activityRollupService.countByDate(date);
+    }
+    
+    /**
+     * Merge archived rows of the range into rows read from activity_logs, newest first
+     */
+    private List<ActivityLog> withArchived(List<ActivityLog> rows, LocalDate startDate, LocalDate endDate) {
+        if (startDate.isAfter(endDate) || !activityArchiveService.covers(startDate, endDate)) {
+            return rows;
+        }
+        return merge(rows, activityArchiveService.read(startDate, endDate));
+    }
+    
+    /**
+     * Archived rows merged into rows read from activity_logs, newest first. A row
+     * in both, left by an interrupted archive run, is kept once.
+     */
+    private static List<ActivityLog> merge(List<ActivityLog> rows, List<ActivityLog> archived) {
+        if (archived.isEmpty()) {
+            return rows;
+        }
+        Map<String, ActivityLog> merged = new LinkedHashMap<>();
+        rows.forEach(row -> merged.put(row.getId(), row));
+        archived.forEach(row -> merged.putIfAbsent(row.getId(), row));
+        List<ActivityLog> result = new ArrayList<>(merged.values());
+        result.sort(NEWEST_FIRST);
+        return result;
+    }
+    
+    private static String encodeCursor(ActivityLog activityLog) {
+        String position = activityLog.getTimestamp() + "|" + activityLog.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    private static String[] decodeCursor(String cursor) {
+        try {
+            String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = position.split("\\|", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            LocalDateTime.parse(parts[0]);
+            return parts;
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
     }
 }
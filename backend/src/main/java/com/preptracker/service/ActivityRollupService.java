@@ -0,0 +1,256 @@
+package com.preptracker.service;
+
+import com.preptracker.dto.ActivitySummary;
+import com.preptracker.model.ActivityDailyRollup;
+import com.preptracker.model.ActivityDailyRollup.RollupId;
+import com.preptracker.model.ActivityLog;
+import com.preptracker.repository.ActivityDailyRollupRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains {@link ActivityDailyRollup} counts alongside the activity log.
+ * Appends increment the day's counters in the same transaction; removals
+ * recount the affected days, adding back rows that were moved to the
+ * activity archive. Heatmaps and streaks are served from the
+ * rollups instead of scanning activity_logs.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ActivityRollupService {
+    
+    private static final int STREAK_WINDOW_DAYS = 32;
+    
+    private static final String INCREMENT_SQL =
+            "MERGE INTO activity_daily_rollups r " +
+            "USING (VALUES (CAST(? AS DATE), CAST(? AS VARCHAR(255)), CAST(? AS BIGINT))) s(activity_date, tab_id, amount) " +
+            "ON r.activity_date = s.activity_date AND r.tab_id = s.tab_id " +
+            "WHEN MATCHED THEN UPDATE SET r.activity_count = r.activity_count + s.amount " +
+            "WHEN NOT MATCHED THEN INSERT (activity_date, tab_id, activity_count) " +
+            "VALUES (s.activity_date, s.tab_id, s.amount)";
+    
+    private static final String INSERT_TOTALS_SQL =
+            "INSERT INTO activity_daily_rollups (activity_date, tab_id, activity_count) " +
+            "SELECT date, '', COUNT(*) FROM activity_logs WHERE date IS NOT NULL%s GROUP BY date";
+    
+    private static final String INSERT_TAB_COUNTS_SQL =
+            "INSERT INTO activity_daily_rollups (activity_date, tab_id, activity_count) " +
+            "SELECT date, tab_id, COUNT(*) FROM activity_logs " +
+            "WHERE date IS NOT NULL AND tab_id IS NOT NULL%s GROUP BY date, tab_id";
+    
+    private final ActivityDailyRollupRepository rollupRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ActivityArchiveService activityArchiveService;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    /**
+     * Count a new activity log row for its day and tab
+     */
+    @Transactional
+    public void recordActivity(ActivityLog activityLog) {
+        if (activityLog.getDate() == null) {
+            return;
+        }
+        Date day = Date.valueOf(activityLog.getDate());
+        jdbcTemplate.update(INCREMENT_SQL, day, ActivityDailyRollup.ALL_TABS, 1L);
+        if (activityLog.getTabId() != null) {
+            jdbcTemplate.update(INCREMENT_SQL, day, activityLog.getTabId(), 1L);
+        }
+    }
+    
+    /**
+     * Recount the given days from activity_logs after rows were removed
+     */
+    @Transactional
+    public void rebuildDays(Collection<LocalDate> days) {
+        if (days.isEmpty()) {
+            return;
+        }
+        // Pending JPA deletes must reach the database before recounting
+        entityManager.flush();
+        List<Date> dates = days.stream().distinct().map(Date::valueOf).toList();
+        String placeholders = dates.stream().map(d -> "?").collect(Collectors.joining(", "));
+        Object[] args = dates.toArray();
+        jdbcTemplate.update("DELETE FROM activity_daily_rollups WHERE activity_date IN (" + placeholders + ")", args);
+        String filter = " AND date IN (" + placeholders + ")";
+        jdbcTemplate.update(String.format(INSERT_TOTALS_SQL, filter), args);
+        jdbcTemplate.update(String.format(INSERT_TAB_COUNTS_SQL, filter), args);
+        
+        Set<LocalDate> daySet = new HashSet<>(days);
+        LocalDate first = Collections.min(daySet);
+        LocalDate last = Collections.max(daySet);
+        if (activityArchiveService.covers(first, last)) {
+            addArchived(activityArchiveService.read(first, last).stream()
+                    .filter(activityLog -> daySet.contains(activityLog.getDate()))
+                    .toList());
+        }
+    }
+    
+    /**
+     * Recompute every rollup from activity_logs with two INSERT ... SELECT ... GROUP BY statements
+     */
+    @Transactional
+    public long rebuildAll() {
+        entityManager.flush();
+        jdbcTemplate.update("DELETE FROM activity_daily_rollups");
+        int days = jdbcTemplate.update(String.format(INSERT_TOTALS_SQL, ""));
+        jdbcTemplate.update(String.format(INSERT_TAB_COUNTS_SQL, ""));
+        days += addArchived(activityArchiveService.readAll());
+        log.info("Rebuilt activity rollups for {} days", days);
+        return days;
+    }
+    
+    /**
+     * Add the counts of archived rows, which are no longer in activity_logs.
+     * Returns the number of days that had no rollup yet.
+     */
+    private int addArchived(List<ActivityLog> archived) {
+        Map<RollupId, Long> counts = new HashMap<>();
+        for (ActivityLog activityLog : archived) {
+            if (activityLog.getDate() == null) {
+                continue;
+            }
+            counts.merge(new RollupId(activityLog.getDate(), ActivityDailyRollup.ALL_TABS), 1L, Long::sum);
+            if (activityLog.getTabId() != null) {
+                counts.merge(new RollupId(activityLog.getDate(), activityLog.getTabId()), 1L, Long::sum);
+            }
+        }
+        if (counts.isEmpty()) {
+            return 0;
+        }
+        int newDays = 0;
+        List<Object[]> args = new ArrayList<>();
+        for (Map.Entry<RollupId, Long> count : counts.entrySet()) {
+            RollupId id = count.getKey();
+            if (ActivityDailyRollup.ALL_TABS.equals(id.getTabId()) && !rollupRepository.existsById(id)) {
+                newDays++;
+            }
+            args.add(new Object[]{Date.valueOf(id.getActivityDate()), id.getTabId(), count.getValue()});
+        }
+        jdbcTemplate.batchUpdate(INCREMENT_SQL, args);
+        return newDays;
+    }
+    
+    /**
+     * Backfill rollups for history recorded before the rollup table existed
+     */
+    @Transactional
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        Long rollups = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM activity_daily_rollups", Long.class);
+        Long logs = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM activity_logs", Long.class);
+        boolean hasHistory = (logs != null && logs > 0) || !activityArchiveService.months().isEmpty();
+        if ((rollups == null || rollups == 0) && hasHistory) {
+            log.info("Backfilling activity rollups from {} activity logs", logs);
+            rebuildAll();
+        }
+    }
+    
+    public long countByDate(LocalDate date) {
+        return rollupRepository.findById(new RollupId(date, ActivityDailyRollup.ALL_TABS))
+                .map(ActivityDailyRollup::getActivityCount)
+                .orElse(0L);
+    }
+    
+    /**
+     * Daily counts for a calendar year, or the last 365 days when year is null,
+     * with the active-day total and current and longest streaks
+     */
+    public ActivitySummary getSummary(Integer year, String tabId) {
+        String tabKey = tabId != null ? tabId : ActivityDailyRollup.ALL_TABS;
+        LocalDate today = LocalDate.now();
+        LocalDate startDate = year != null ? LocalDate.of(year, 1, 1) : today.minusDays(364);
+        LocalDate endDate = year != null ? LocalDate.of(year, 12, 31) : today;
+        
+        Map<LocalDate, Long> dailyCounts = new LinkedHashMap<>();
+        long total = 0;
+        for (ActivityDailyRollup rollup : rollupRepository
+                .findByTabIdAndActivityDateBetweenOrderByActivityDateAsc(tabKey, startDate, endDate)) {
+            if (rollup.getActivityCount() > 0) {
+                dailyCounts.put(rollup.getActivityDate(), rollup.getActivityCount());
+                total += rollup.getActivityCount();
+            }
+        }
+        
+        return ActivitySummary.builder()
+                .tabId(tabId)
+                .startDate(startDate)
+                .endDate(endDate)
+                .dailyCounts(dailyCounts)
+                .totalActivities(total)
+                .activeDays(dailyCounts.size())
+                .currentStreak(currentStreak(tabKey, today))
+                .longestStreak(longestStreak(dailyCounts, startDate, endDate))
+                .firstActivityDate(rollupRepository
+                        .findFirstByTabIdAndActivityCountGreaterThanOrderByActivityDateAsc(tabKey, 0)
+                        .map(ActivityDailyRollup::getActivityDate)
+                        .orElse(null))
+                .build();
+    }
+    
+    /**
+     * Consecutive active days ending today, or ending yesterday if nothing happened today yet.
+     * Days are read backwards from today one window at a time, stopping at the first gap.
+     */
+    private int currentStreak(String tabKey, LocalDate today) {
+        LocalDate expected = today;
+        LocalDate end = today;
+        int streak = 0;
+        while (true) {
+            LocalDate start = end.minusDays(STREAK_WINDOW_DAYS - 1);
+            List<ActivityDailyRollup> window = rollupRepository
+                    .findByTabIdAndActivityDateBetweenOrderByActivityDateAsc(tabKey, start, end);
+            for (int i = window.size() - 1; i >= 0; i--) {
+                ActivityDailyRollup rollup = window.get(i);
+                if (rollup.getActivityCount() <= 0) {
+                    continue;
+                }
+                if (streak == 0 && expected.equals(today) && rollup.getActivityDate().isBefore(today)) {
+                    expected = today.minusDays(1);
+                }
+                if (!rollup.getActivityDate().equals(expected)) {
+                    return streak;
+                }
+                streak++;
+                expected = expected.minusDays(1);
+            }
+            if (!expected.isBefore(start)) {
+                return streak;
+            }
+            end = start.minusDays(1);
+        }
+    }
+    
+    private static int longestStreak(Map<LocalDate, Long> dailyCounts, LocalDate startDate, LocalDate endDate) {
+        int longest = 0;
+        int streak = 0;
+        for (LocalDate day = startDate; !day.isAfter(endDate); day = day.plusDays(1)) {
+            streak = dailyCounts.containsKey(day) ? streak + 1 : 0;
+            longest = Math.max(longest, streak);
+        }
+        return longest;
+    }
+}
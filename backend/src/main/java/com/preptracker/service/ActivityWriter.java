@@ -0,0 +1,277 @@
+package com.preptracker.service;
+
+import com.preptracker.model.ActivityLog;
+import com.preptracker.model.Item;
+import com.preptracker.model.Subtopic;
+import com.preptracker.model.Tab;
+import com.preptracker.repository.ActivityLogRepository;
+import com.preptracker.repository.ActivityLogRepository.ItemActivity;
+import com.preptracker.repository.ItemRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Persists item completion activity off the request path.
+ * <p>
+ * Toggles enqueue a small {@link CompletionEvent} after their transaction
+ * commits; a single background thread drains the queue and writes the
+ * activity logs in batches, with tab and subtopic names taken from the
+ * cached lookups. Delivery is at-least-once: a failed batch is retried, the
+ * queue is drained on shutdown, and after a run that ended without draining it
+ * (a crash) or that dropped a batch, completed items without a log are
+ * re-enqueued at startup. A marker file that exists only while the writer
+ * runs, or after such a run, tells the two apart, so logs deleted on purpose
+ * are not brought back after a clean restart. Writes are idempotent because a
+ * log carries its item's completion time as timestamp, so an event whose log
+ * already exists is skipped.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ActivityWriter {
+    
+    private final ActivityLogRepository activityLogRepository;
+    private final ItemRepository itemRepository;
+    private final TabService tabService;
+    private final SubtopicService subtopicService;
+    private final ActivityRollupService activityRollupService;
+    private final CacheInvalidator cacheInvalidator;
+    private final ChangeEvents changeEvents;
+    private final TransactionTemplate transactionTemplate;
+    
+    @Value("${app.activity.writer.queue-capacity:10000}")
+    private int queueCapacity;
+    
+    @Value("${app.activity.writer.batch-size:100}")
+    private int batchSize;
+    
+    @Value("${app.activity.writer.max-attempts:3}")
+    private int maxAttempts;
+    
+    @Value("${app.activity.writer.recovery-window:7d}")
+    private Duration recoveryWindow;
+    
+    @Value("${app.activity.writer.running-marker:./data/activity-writer.running}")
+    private String runningMarker;
+    
+    private BlockingQueue<CompletionEvent> queue;
+    private Thread writerThread;
+    private volatile boolean running;
+    private volatile boolean dropped;
+    private boolean recoveryNeeded;
+    private Path markerPath;
+    
+    @PostConstruct
+    public void start() {
+        markerPath = Paths.get(runningMarker).toAbsolutePath().normalize();
+        recoveryNeeded = Files.exists(markerPath);
+        try {
+            Files.createDirectories(markerPath.getParent());
+            Files.writeString(markerPath, LocalDateTime.now().toString());
+        } catch (IOException e) {
+            log.warn("Could not write {}, recovering activity logs on every start: {}", markerPath, e.getMessage());
+            recoveryNeeded = true;
+        }
+        queue = new LinkedBlockingQueue<>(queueCapacity);
+        running = true;
+        writerThread = new Thread(this::run, "activity-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+    
+    /**
+     * Queue the completion of an item; written synchronously when the queue is full
+     */
+    public void itemCompleted(Item item) {
+        CompletionEvent event = new CompletionEvent(item.getId(), item.getTitle(), item.getTabId(),
+                item.getSubtopicId(), item.getCompletedAt() != null ? item.getCompletedAt() : LocalDateTime.now());
+        if (!running || !queue.offer(event)) {
+            log.warn("Activity queue unavailable, writing completion of item {} synchronously", item.getId());
+            writeWithRetry(List.of(event));
+        }
+    }
+    
+    /**
+     * After an unclean shutdown, re-enqueue recent completions whose activity
+     * log never made it to the database
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recover() {
+        if (!recoveryNeeded) {
+            return;
+        }
+        List<Item> missing = itemRepository.findCompletedWithoutActivityLog(LocalDateTime.now().minus(recoveryWindow));
+        if (!missing.isEmpty()) {
+            log.info("Recovering activity logs for {} completed items", missing.size());
+            missing.forEach(this::itemCompleted);
+        }
+    }
+    
+    public int getQueueSize() {
+        return queue.size();
+    }
+    
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        // No interrupt: it would close the database's file channel under a write
+        running = false;
+        writerThread.join(TimeUnit.SECONDS.toMillis(10));
+        if (writerThread.isAlive()) {
+            log.warn("Activity writer did not stop in time, its batch is recovered at the next start");
+            return;
+        }
+        List<CompletionEvent> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            log.info("Writing {} queued activity events before shutdown", remaining.size());
+            for (int i = 0; i < remaining.size(); i += batchSize) {
+                writeWithRetry(remaining.subList(i, Math.min(i + batchSize, remaining.size())));
+            }
+        }
+        if (!dropped) {
+            try {
+                Files.deleteIfExists(markerPath);
+            } catch (IOException e) {
+                log.warn("Could not remove {}: {}", markerPath, e.getMessage());
+            }
+        }
+    }
+    
+    private void run() {
+        while (running) {
+            try {
+                CompletionEvent first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                List<CompletionEvent> batch = new ArrayList<>(batchSize);
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                writeWithRetry(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+    
+    private void writeWithRetry(List<CompletionEvent> batch) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> write(batch));
+                return;
+            } catch (RuntimeException e) {
+                if (attempt >= maxAttempts) {
+                    // Startup recovery picks these up again from the completed items
+                    log.error("Dropping {} activity events after {} attempts: {}", batch.size(), attempt, e.getMessage());
+                    dropped = true;
+                    return;
+                }
+                log.warn("Writing {} activity events failed (attempt {}): {}", batch.size(), attempt, e.getMessage());
+                try {
+                    Thread.sleep(200L * attempt);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+    
+    private void write(List<CompletionEvent> batch) {
+        Set<String> itemIds = batch.stream().map(CompletionEvent::getItemId).collect(Collectors.toSet());
+        Set<String> existingItems = itemRepository.findAllById(itemIds).stream()
+                .map(Item::getId)
+                .collect(Collectors.toSet());
+        Set<String> written = new HashSet<>();
+        for (ItemActivity activity : activityLogRepository.findActivityByItemIdIn(itemIds)) {
+            written.add(activity.getItemId() + "|" + activity.getTimestamp());
+        }
+        
+        List<ActivityLog> logs = new ArrayList<>(batch.size());
+        for (CompletionEvent event : batch) {
+            // Skip items deleted since they were completed and events already written
+            if (!existingItems.contains(event.getItemId())
+                    || !written.add(event.getItemId() + "|" + event.getCompletedAt())) {
+                continue;
+            }
+            logs.add(toActivityLog(event));
+        }
+        if (logs.isEmpty()) {
+            return;
+        }
+        
+        activityLogRepository.saveAll(logs);
+        for (ActivityLog activityLog : logs) {
+            activityRollupService.recordActivity(activityLog);
+            cacheInvalidator.activityAppended(activityLog);
+            changeEvents.activityAppended(activityLog);
+        }
+        log.debug("Wrote {} activity logs", logs.size());
+    }
+    
+    private ActivityLog toActivityLog(CompletionEvent event) {
+        Tab tab = lookup(() -> tabService.getTabById(event.getTabId()), event.getTabId());
+        Subtopic subtopic = lookup(() -> subtopicService.getSubtopicById(event.getSubtopicId()), event.getSubtopicId());
+        return ActivityLog.builder()
+                .date(event.getCompletedAt().toLocalDate())
+                .timestamp(event.getCompletedAt())
+                .tabId(event.getTabId())
+                .tabName(tab != null ? tab.getName() : null)
+                .tabColor(tab != null ? tab.getColor() : null)
+                .subtopicId(event.getSubtopicId())
+                .subtopicName(subtopic != null ? subtopic.getName() : null)
+                .itemId(event.getItemId())
+                .itemTitle(event.getItemTitle())
+                .type(ActivityLog.ActivityType.TOPIC_COMPLETED)
+                .build();
+    }
+    
+    /**
+     * Cached tab or subtopic lookup; null when the id is absent or no longer exists
+     */
+    private static <T> T lookup(Supplier<T> loader, String id) {
+        if (id == null) {
+            return null;
+        }
+        try {
+            return loader.get();
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+    
+    @Getter
+    @AllArgsConstructor
+    static class CompletionEvent {
+        private final String itemId;
+        private final String itemTitle;
+        private final String tabId;
+        private final String subtopicId;
+        private final LocalDateTime completedAt;
+    }
+}
@@ -1,6 +1,7 @@
 package com.preptracker.service;
 
 import com.preptracker.config.CacheConfig;
+import com.preptracker.config.CacheReloader;
 import com.preptracker.model.Application;
 import com.preptracker.model.Application.ApplicationStatus;
 import com.preptracker.repository.ApplicationRepository;
@@ -10,6 +11,7 @@ import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -17,14 +19,15 @@ import java.util.List;
 @Slf4j
 @Service
 @RequiredArgsConstructor
-public class ApplicationService {
+public class ApplicationService implements CacheReloader {
     
     private final ApplicationRepository applicationRepository;
+    private final ChangeEvents changeEvents;
     
     @Cacheable(value = CacheConfig.APPLICATIONS_CACHE, key = "'all'")
     public List<Application> getAllApplications() {
         log.debug("Fetching all applications from database");
-        return applicationRepository.findAllByOrderByDateDesc();
+        return applicationRepository.findAllByOrderByDateDescIdAsc();
     }
     
     @Cacheable(value = CacheConfig.APPLICATIONS_CACHE, key = "#id")
@@ -45,21 +48,50 @@ public class ApplicationService {
         return applicationRepository.findByCompanyContainingIgnoreCaseOrderByDateDesc(company);
     }
     
+    @Override
+    public String cacheName() {
+        return CacheConfig.APPLICATIONS_CACHE;
+    }
+    
+    /**
+     * Fresh value for an applications cache key; self-invocation bypasses the cache
+     */
+    @Override
+    public Object reload(Object key) {
+        String name = String.valueOf(key);
+        if ("all".equals(name)) {
+            return getAllApplications();
+        }
+        if (name.startsWith("status_")) {
+            return getApplicationsByStatus(ApplicationStatus.valueOf(name.substring("status_".length())));
+        }
+        return applicationRepository.findById(name).orElse(null);
+    }
+    
+    @Override
+    public List<Object> warmKeys() {
+        return List.of("all");
+    }
+    
     @Caching(evict = {
             @CacheEvict(value = CacheConfig.APPLICATIONS_CACHE, allEntries = true),
             @CacheEvict(value = CacheConfig.DASHBOARD_CACHE, allEntries = true)
     })
+    @Transactional
     public Application createApplication(Application application) {
         log.debug("Creating application for: {}", application.getCompany());
         application.setCreatedAt(LocalDateTime.now());
         application.setUpdatedAt(LocalDateTime.now());
-        return applicationRepository.save(application);
+        Application saved = applicationRepository.save(application);
+        changeEvents.applicationCreated(saved);
+        return saved;
     }
     
     @Caching(evict = {
             @CacheEvict(value = CacheConfig.APPLICATIONS_CACHE, allEntries = true),
             @CacheEvict(value = CacheConfig.DASHBOARD_CACHE, allEntries = true)
     })
+    @Transactional
     public Application updateApplication(String id, Application applicationUpdates) {
         log.debug("Updating application: {}", id);
         Application existingApplication = applicationRepository.findById(id)
@@ -85,29 +117,36 @@ public class ApplicationService {
         }
         
         existingApplication.setUpdatedAt(LocalDateTime.now());
-        return applicationRepository.save(existingApplication);
+        Application saved = applicationRepository.save(existingApplication);
+        changeEvents.applicationUpdated(saved);
+        return saved;
     }
     
     @Caching(evict = {
             @CacheEvict(value = CacheConfig.APPLICATIONS_CACHE, allEntries = true),
             @CacheEvict(value = CacheConfig.DASHBOARD_CACHE, allEntries = true)
     })
+    @Transactional
     public Application updateApplicationStatus(String id, ApplicationStatus status) {
         log.debug("Updating application status: {} -> {}", id, status);
         Application application = applicationRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Application not found with id: " + id));
         application.setStatus(status);
         application.setUpdatedAt(LocalDateTime.now());
-        return applicationRepository.save(application);
+        Application saved = applicationRepository.save(application);
+        changeEvents.applicationUpdated(saved);
+        return saved;
     }
     
     @Caching(evict = {
             @CacheEvict(value = CacheConfig.APPLICATIONS_CACHE, allEntries = true),
             @CacheEvict(value = CacheConfig.DASHBOARD_CACHE, allEntries = true)
     })
+    @Transactional
     public void deleteApplication(String id) {
         log.debug("Deleting application: {}", id);
         applicationRepository.deleteById(id);
+        changeEvents.applicationDeleted(id);
     }
     
     public long countByStatus(ApplicationStatus status) {
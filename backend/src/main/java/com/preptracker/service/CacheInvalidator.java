@@ -0,0 +1,190 @@
+package com.preptracker.service;
+
+import com.preptracker.config.CacheConfig;
+import com.preptracker.model.ActivityLog;
+import com.preptracker.model.Item;
+import com.preptracker.model.Subtopic;
+import com.preptracker.repository.ItemRepository.ItemScope;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Evicts only the cache keys that depend on a changed tab, subtopic or item.
+ * Follows the tab -> subtopic -> item dependency graph so that a write to one
+ * item leaves every other tab's cached tree in place. Evictions run after the
+ * surrounding transaction commits.
+ * <p>
+ * Updates that keep an item or subtopic in the same place are handed to
+ * {@link TabDataPatcher} so the tab trees stay warm.
+ */
+@Component
+@RequiredArgsConstructor
+public class CacheInvalidator {
+
+    static final String ALL_KEY = "all";
+    static final String ALL_WITH_DATA_KEY = "allWithData";
+    static final String WITH_SUBTOPICS_KEY = "withSubtopics";
+
+    private final CacheService cacheService;
+    private final TabDataPatcher tabDataPatcher;
+
+    /**
+     * An item's own fields changed; it still belongs to the same tab and subtopic.
+     * The cached tab trees are patched in place rather than evicted.
+     */
+    public void itemChanged(Item item) {
+        AfterCommit.run(() -> {
+            cacheService.evictFromCache(CacheConfig.ITEM_CACHE, item.getId());
+            evictItemLists(item.getTabId(), item.getSubtopicId());
+            if (!tabDataPatcher.itemUpdated(item)) {
+                evictTabData(item.getTabId());
+            }
+        });
+    }
+
+    public void itemAdded(Item item) {
+        AfterCommit.run(() -> {
+            evictItemLists(item.getTabId(), item.getSubtopicId());
+            evictTabData(item.getTabId());
+        });
+    }
+
+    public void itemRemoved(Item item) {
+        AfterCommit.run(() -> {
+            cacheService.evictFromCache(CacheConfig.ITEM_CACHE, item.getId());
+            evictItemLists(item.getTabId(), item.getSubtopicId());
+            evictTabData(item.getTabId());
+        });
+    }
+
+    public void itemsReordered(Collection<String> itemIds, Collection<ItemScope> scopes) {
+        AfterCommit.run(() -> {
+            evictItems(itemIds);
+            Set<String> tabIds = new LinkedHashSet<>();
+            Set<String> subtopicIds = new LinkedHashSet<>();
+            for (ItemScope scope : scopes) {
+                tabIds.add(scope.getTabId());
+                if (scope.getSubtopicId() != null) {
+                    subtopicIds.add(scope.getSubtopicId());
+                }
+            }
+            cacheService.evictFromCache(CacheConfig.ITEMS_CACHE, ALL_KEY);
+            tabIds.forEach(tabId -> cacheService.evictFromCache(CacheConfig.ITEMS_CACHE, "tab_" + tabId));
+            subtopicIds.forEach(subtopicId -> cacheService.evictFromCache(CacheConfig.ITEMS_CACHE, "subtopic_" + subtopicId));
+            tabIds.forEach(this::evictTabData);
+        });
+    }
+
+    public void subtopicAdded(Subtopic subtopic) {
+        AfterCommit.run(() -> {
+            cacheService.evictFromCache(CacheConfig.SUBTOPICS_CACHE, subtopic.getTabId());
+            evictTabData(subtopic.getTabId());
+        });
+    }
+
+    /**
+     * A subtopic's own fields changed; the cached tab trees are patched in place
+     */
+    public void subtopicChanged(Subtopic subtopic) {
+        AfterCommit.run(() -> {
+            cacheService.evictFromCache(CacheConfig.SUBTOPIC_CACHE, subtopic.getId());
+            cacheService.evictFromCache(CacheConfig.SUBTOPICS_CACHE, subtopic.getTabId());
+            if (!tabDataPatcher.subtopicUpdated(subtopic)) {
+                evictTabData(subtopic.getTabId());
+            }
+        });
+    }
+
+    public void subtopicsReordered(Collection<String> subtopicIds, Collection<String> tabIds) {
+        AfterCommit.run(() -> {
+            subtopicIds.forEach(subtopicId -> cacheService.evictFromCache(CacheConfig.SUBTOPIC_CACHE, subtopicId));
+            tabIds.forEach(tabId -> cacheService.evictFromCache(CacheConfig.SUBTOPICS_CACHE, tabId));
+            tabIds.forEach(this::evictTabData);
+        });
+    }
+
+    public void subtopicRemoved(Subtopic subtopic, Collection<String> itemIds) {
+        AfterCommit.run(() -> {
+            cacheService.evictFromCache(CacheConfig.SUBTOPIC_CACHE, subtopic.getId());
+            cacheService.evictFromCache(CacheConfig.SUBTOPICS_CACHE, subtopic.getTabId());
+            evictItems(itemIds);
+            cacheService.evictFromCache(CacheConfig.ITEMS_CACHE, ALL_KEY);
+            cacheService.evictFromCache(CacheConfig.ITEMS_CACHE, "subtopic_" + subtopic.getId());
+            evictTabData(subtopic.getTabId());
+        });
+    }
+
+    public void tabAdded() {
+        AfterCommit.run(() -> {
+            evictTabLists();
+            cacheService.evictFromCache(CacheConfig.TAB_DATA_CACHE, ALL_WITH_DATA_KEY);
+        });
+    }
+
+    public void tabChanged(String tabId) {
+        AfterCommit.run(() -> {
+            cacheService.evictFromCache(CacheConfig.TAB_CACHE, tabId);
+            evictTabLists();
+            evictTabData(tabId);
+        });
+    }
+
+    public void tabRemoved(String tabId, Collection<String> subtopicIds, Collection<String> itemIds) {
+        AfterCommit.run(() -> {
+            cacheService.evictFromCache(CacheConfig.TAB_CACHE, tabId);
+            evictTabLists();
+            evictTabData(tabId);
+            cacheService.evictFromCache(CacheConfig.SUBTOPICS_CACHE, tabId);
+            for (String subtopicId : subtopicIds) {
+                cacheService.evictFromCache(CacheConfig.SUBTOPIC_CACHE, subtopicId);
+                cacheService.evictFromCache(CacheConfig.ITEMS_CACHE, "subtopic_" + subtopicId);
+            }
+            evictItems(itemIds);
+            cacheService.evictFromCache(CacheConfig.ITEMS_CACHE, ALL_KEY);
+            cacheService.evictFromCache(CacheConfig.ITEMS_CACHE, "tab_" + tabId);
+        });
+    }
+
+    public void activityAppended(ActivityLog activityLog) {
+        AfterCommit.run(() -> {
+            cacheService.evictFromCache(CacheConfig.ACTIVITY_CACHE, ALL_KEY);
+            cacheService.evictFromCache(CacheConfig.ACTIVITY_CACHE, "date_" + activityLog.getDate());
+            cacheService.evictFromCache(CacheConfig.ACTIVITY_CACHE, "tab_" + activityLog.getTabId());
+        });
+    }
+
+    /**
+     * Activity rows were removed across unknown dates
+     */
+    public void activityRemoved() {
+        AfterCommit.run(() -> cacheService.clearCache(CacheConfig.ACTIVITY_CACHE));
+    }
+
+    private void evictItems(Collection<String> itemIds) {
+        itemIds.forEach(itemId -> cacheService.evictFromCache(CacheConfig.ITEM_CACHE, itemId));
+    }
+
+    private void evictItemLists(String tabId, String subtopicId) {
+        cacheService.evictFromCache(CacheConfig.ITEMS_CACHE, ALL_KEY);
+        cacheService.evictFromCache(CacheConfig.ITEMS_CACHE, "tab_" + tabId);
+        if (subtopicId != null) {
+            cacheService.evictFromCache(CacheConfig.ITEMS_CACHE, "subtopic_" + subtopicId);
+        }
+    }
+
+    private void evictTabLists() {
+        cacheService.evictFromCache(CacheConfig.TABS_CACHE, ALL_KEY);
+        cacheService.evictFromCache(CacheConfig.TABS_CACHE, WITH_SUBTOPICS_KEY);
+    }
+
+    private void evictTabData(String tabId) {
+        if (tabId != null) {
+            cacheService.evictFromCache(CacheConfig.TAB_DATA_CACHE, tabId);
+        }
+        cacheService.evictFromCache(CacheConfig.TAB_DATA_CACHE, ALL_WITH_DATA_KEY);
+    }
+}
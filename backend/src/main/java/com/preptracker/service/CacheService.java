@@ -1,12 +1,23 @@
 package com.preptracker.service;
 
+import com.github.benmanes.caffeine.cache.Policy;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import com.preptracker.config.CacheConfig;
+import com.preptracker.config.CacheKeySampler;
+import com.preptracker.config.CachePolicyProperties;
+import com.preptracker.dto.CachePolicyInfo;
+import com.preptracker.dto.CacheStatsInfo;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 /**
  * Service for managing cache operations
@@ -17,6 +28,8 @@ import java.util.Objects;
 public class CacheService {
 
     private final CacheManager cacheManager;
+    private final CacheKeySampler cacheKeySampler;
+    private final CachePolicyProperties cachePolicyProperties;
 
     /**
      * Clear all caches
@@ -82,6 +95,128 @@ public class CacheService {
         clearCache(CacheConfig.ACTIVITY_CACHE);
     }
 
+    /**
+     * Effective policy and live size of every Caffeine-backed cache
+     */
+    public List<CachePolicyInfo> describeCaches() {
+        List<CachePolicyInfo> caches = new ArrayList<>();
+        for (String cacheName : cacheManager.getCacheNames()) {
+            com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache = nativeCache(cacheName);
+            if (nativeCache == null) {
+                continue;
+            }
+            Policy<Object, Object> policy = nativeCache.policy();
+            CachePolicyInfo.CachePolicyInfoBuilder info = CachePolicyInfo.builder()
+                    .name(cacheName)
+                    .estimatedSize(nativeCache.estimatedSize());
+            policy.eviction().ifPresent(eviction -> {
+                if (eviction.isWeighted()) {
+                    info.maximumWeight(eviction.getMaximum());
+                    eviction.weightedSize().ifPresent(info::weightedSize);
+                } else {
+                    info.maximumSize(eviction.getMaximum());
+                }
+            });
+            policy.expireAfterWrite().ifPresent(expiry ->
+                    info.expireAfterWriteSeconds(expiry.getExpiresAfter(TimeUnit.SECONDS)));
+            policy.expireAfterAccess().ifPresent(expiry ->
+                    info.expireAfterAccessSeconds(expiry.getExpiresAfter(TimeUnit.SECONDS)));
+            policy.refreshAfterWrite().ifPresent(refresh ->
+                    info.refreshAfterWriteSeconds(refresh.getRefreshesAfter(TimeUnit.SECONDS)));
+            caches.add(info.build());
+        }
+        caches.sort(Comparator.comparing(CachePolicyInfo::getName));
+        return caches;
+    }
+
+    /**
+     * Caffeine statistics and sampled hot keys of every Caffeine-backed cache
+     */
+    public List<CacheStatsInfo> collectStats() {
+        int hotKeyLimit = cachePolicyProperties.getSampling().getHotKeys();
+        List<CacheStatsInfo> caches = new ArrayList<>();
+        for (String cacheName : cacheManager.getCacheNames()) {
+            com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache = nativeCache(cacheName);
+            if (nativeCache == null) {
+                continue;
+            }
+            CacheStats stats = nativeCache.stats();
+            caches.add(CacheStatsInfo.builder()
+                    .name(cacheName)
+                    .hitCount(stats.hitCount())
+                    .missCount(stats.missCount())
+                    .hitRatio(stats.hitRate())
+                    .loadSuccessCount(stats.loadSuccessCount())
+                    .loadFailureCount(stats.loadFailureCount())
+                    .totalLoadTimeNanos(stats.totalLoadTime())
+                    .averageLoadPenaltyNanos(stats.averageLoadPenalty())
+                    .evictionCount(stats.evictionCount())
+                    .evictionWeight(stats.evictionWeight())
+                    .estimatedSize(nativeCache.estimatedSize())
+                    .hotKeys(cacheKeySampler.hotKeys(cacheName, hotKeyLimit))
+                    .build());
+        }
+        caches.sort(Comparator.comparing(CacheStatsInfo::getName));
+        return caches;
+    }
+
+    /**
+     * Cache statistics in the Prometheus text exposition format.
+     * Hot keys are left out to keep label cardinality bounded.
+     */
+    public String formatStatsAsPrometheus(List<CacheStatsInfo> caches) {
+        StringBuilder out = new StringBuilder();
+        appendMetric(out, caches, "cache_hits_total", "counter", "Cache lookups that found a value",
+                CacheStatsInfo::getHitCount);
+        appendMetric(out, caches, "cache_misses_total", "counter", "Cache lookups that found no value",
+                CacheStatsInfo::getMissCount);
+        appendMetric(out, caches, "cache_hit_ratio", "gauge", "Hits divided by lookups since startup",
+                CacheStatsInfo::getHitRatio);
+        appendMetric(out, caches, "cache_loads_total", "counter", "Successful cache loads",
+                CacheStatsInfo::getLoadSuccessCount);
+        appendMetric(out, caches, "cache_load_failures_total", "counter", "Failed cache loads",
+                CacheStatsInfo::getLoadFailureCount);
+        appendMetric(out, caches, "cache_load_duration_seconds_total", "counter", "Time spent loading values",
+                cache -> cache.getTotalLoadTimeNanos() / 1e9);
+        appendMetric(out, caches, "cache_evictions_total", "counter", "Entries evicted by size or expiry",
+                CacheStatsInfo::getEvictionCount);
+        appendMetric(out, caches, "cache_eviction_weight_total", "counter", "Weight of evicted entries",
+                CacheStatsInfo::getEvictionWeight);
+        appendMetric(out, caches, "cache_size", "gauge", "Estimated number of entries",
+                CacheStatsInfo::getEstimatedSize);
+        return out.toString();
+    }
+
+    /**
+     * Forget the sampled hot keys of all caches
+     */
+    public void resetHotKeys() {
+        cacheKeySampler.reset();
+    }
+
+    private static void appendMetric(StringBuilder out, List<CacheStatsInfo> caches, String name, String type,
+                                     String help, Function<CacheStatsInfo, Number> value) {
+        String metric = "preptracker_" + name;
+        out.append("# HELP ").append(metric).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(metric).append(' ').append(type).append('\n');
+        for (CacheStatsInfo cache : caches) {
+            out.append(metric).append("{cache=\"").append(cache.getName()).append("\"} ")
+                    .append(value.apply(cache)).append('\n');
+        }
+    }
+
+    /**
+     * Underlying Caffeine cache, or null for other cache providers
+     */
+    @SuppressWarnings("unchecked")
+    public com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache(String cacheName) {
+        var cache = cacheManager.getCache(cacheName);
+        if (cache != null && cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache) {
+            return (com.github.benmanes.caffeine.cache.Cache<Object, Object>) cache.getNativeCache();
+        }
+        return null;
+    }
+
     /**
      * Clear checklist cache
      */
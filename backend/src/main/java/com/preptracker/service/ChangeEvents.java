@@ -0,0 +1,220 @@
+package com.preptracker.service;
+
+import com.preptracker.dto.ChangeEvent;
+import com.preptracker.dto.ReorderRequest;
+import com.preptracker.model.ActivityLog;
+import com.preptracker.model.Application;
+import com.preptracker.model.ChangeLogEntry.EntityType;
+import com.preptracker.model.ChangeLogEntry.Operation;
+import com.preptracker.model.ChecklistItem;
+import com.preptracker.model.Item;
+import com.preptracker.model.Subtopic;
+import com.preptracker.model.Tab;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Single hook for writes to synced entities. Each change is stamped with a
+ * version in the change log as part of the surrounding transaction, then
+ * published to the live update stream once it commits. Item events carry the
+ * progress of the affected tab, subtopic and overall as read from
+ * {@link ProgressCounters} at that point.
+ */
+@Component
+@RequiredArgsConstructor
+public class ChangeEvents {
+
+    private final EventBroadcaster eventBroadcaster;
+    private final ProgressCounters progressCounters;
+    private final ChangeTracker changeTracker;
+
+    public void itemCreated(Item item) {
+        publishItem("item.created", item, item, Operation.UPSERT);
+    }
+
+    public void itemUpdated(Item item) {
+        publishItem("item.updated", item, item, Operation.UPSERT);
+    }
+
+    public void itemToggled(Item item) {
+        publishItem("item.toggled", item, item, Operation.UPSERT);
+    }
+
+    /**
+     * An item was deleted together with its activity logs
+     */
+    public void itemDeleted(Item item, Collection<String> activityIds) {
+        changeTracker.record(EntityType.ACTIVITY, activityIds, Operation.DELETE);
+        publishItem("item.deleted", item, null, Operation.DELETE);
+    }
+
+    public void itemsReordered(List<ReorderRequest> sortOrders) {
+        long version = changeTracker.record(EntityType.ITEM, ids(sortOrders), Operation.UPSERT);
+        publish(ChangeEvent.builder().type("items.reordered").version(version).data(sortOrders), false);
+    }
+
+    public void subtopicCreated(Subtopic subtopic) {
+        publishSubtopic("subtopic.created", subtopic, subtopic, Operation.UPSERT);
+    }
+
+    public void subtopicUpdated(Subtopic subtopic) {
+        publishSubtopic("subtopic.updated", subtopic, subtopic, Operation.UPSERT);
+    }
+
+    /**
+     * A subtopic was deleted together with its items
+     */
+    public void subtopicDeleted(Subtopic subtopic, Collection<String> itemIds) {
+        changeTracker.record(EntityType.ITEM, itemIds, Operation.DELETE);
+        publishSubtopic("subtopic.deleted", subtopic, null, Operation.DELETE);
+    }
+
+    public void subtopicsReordered(List<ReorderRequest> sortOrders) {
+        long version = changeTracker.record(EntityType.SUBTOPIC, ids(sortOrders), Operation.UPSERT);
+        publish(ChangeEvent.builder().type("subtopics.reordered").version(version).data(sortOrders), false);
+    }
+
+    public void tabCreated(Tab tab) {
+        long version = changeTracker.record(EntityType.TAB, tab.getId(), Operation.UPSERT);
+        publish(ChangeEvent.builder().type("tab.created").version(version).id(tab.getId()).tabId(tab.getId()).data(tab), false);
+    }
+
+    public void tabUpdated(Tab tab) {
+        long version = changeTracker.record(EntityType.TAB, tab.getId(), Operation.UPSERT);
+        publish(ChangeEvent.builder().type("tab.updated").version(version).id(tab.getId()).tabId(tab.getId()).data(tab), false);
+    }
+
+    /**
+     * A tab was deleted together with its subtopics and items
+     */
+    public void tabDeleted(String tabId, Collection<String> subtopicIds, Collection<String> itemIds) {
+        changeTracker.record(EntityType.ITEM, itemIds, Operation.DELETE);
+        changeTracker.record(EntityType.SUBTOPIC, subtopicIds, Operation.DELETE);
+        long version = changeTracker.record(EntityType.TAB, tabId, Operation.DELETE);
+        publish(ChangeEvent.builder().type("tab.deleted").version(version).id(tabId).tabId(tabId), true);
+    }
+
+    public void checklistItemCreated(ChecklistItem item) {
+        publishEntity("checklist.created", EntityType.CHECKLIST, item.getId(), item);
+    }
+
+    public void checklistItemUpdated(ChecklistItem item) {
+        publishEntity("checklist.updated", EntityType.CHECKLIST, item.getId(), item);
+    }
+
+    public void checklistItemToggled(ChecklistItem item) {
+        publishEntity("checklist.toggled", EntityType.CHECKLIST, item.getId(), item);
+    }
+
+    public void checklistItemDeleted(String id) {
+        publishEntity("checklist.deleted", EntityType.CHECKLIST, id, null);
+    }
+
+    public void applicationCreated(Application application) {
+        publishEntity("application.created", EntityType.APPLICATION, application.getId(), application);
+    }
+
+    public void applicationUpdated(Application application) {
+        publishEntity("application.updated", EntityType.APPLICATION, application.getId(), application);
+    }
+
+    public void applicationDeleted(String id) {
+        publishEntity("application.deleted", EntityType.APPLICATION, id, null);
+    }
+
+    public void activityAppended(ActivityLog activityLog) {
+        long version = changeTracker.record(EntityType.ACTIVITY, activityLog.getId(), Operation.UPSERT);
+        publish(ChangeEvent.builder()
+                .type("activity.appended")
+                .version(version)
+                .id(activityLog.getId())
+                .tabId(activityLog.getTabId())
+                .subtopicId(activityLog.getSubtopicId())
+                .data(activityLog), false);
+    }
+
+    public void activityDeleted(String id) {
+        publishEntity("activity.deleted", EntityType.ACTIVITY, id, null);
+    }
+
+    /**
+     * Every entity type was rewritten in bulk; subscribers and sync clients refetch everything
+     */
+    public void dataImported() {
+        long version = 0;
+        for (EntityType entityType : EntityType.values()) {
+            version = changeTracker.record(entityType, ChangeTracker.ALL, Operation.UPSERT);
+        }
+        publish(ChangeEvent.builder().type(EventBroadcaster.RESYNC).version(version), false);
+    }
+    
+    private void publishItem(String type, Item item, Object data, Operation operation) {
+        long version = changeTracker.record(EntityType.ITEM, item.getId(), operation);
+        publish(ChangeEvent.builder()
+                .type(type)
+                .version(version)
+                .id(item.getId())
+                .tabId(item.getTabId())
+                .subtopicId(item.getSubtopicId())
+                .data(data), true);
+    }
+
+    private void publishSubtopic(String type, Subtopic subtopic, Object data, Operation operation) {
+        long version = changeTracker.record(EntityType.SUBTOPIC, subtopic.getId(), operation);
+        publish(ChangeEvent.builder()
+                .type(type)
+                .version(version)
+                .id(subtopic.getId())
+                .tabId(subtopic.getTabId())
+                .subtopicId(subtopic.getId())
+                .data(data), true);
+    }
+
+    /**
+     * Upsert when data is given, delete otherwise
+     */
+    private void publishEntity(String type, EntityType entityType, String id, Object data) {
+        long version = changeTracker.record(entityType, id, data != null ? Operation.UPSERT : Operation.DELETE);
+        publish(ChangeEvent.builder().type(type).version(version).id(id).data(data), false);
+    }
+
+    private void publish(ChangeEvent.ChangeEventBuilder builder, boolean withProgress) {
+        AfterCommit.run(() -> {
+            ChangeEvent event = builder.build();
+            if (withProgress) {
+                event.setProgress(progress(event.getTabId(), event.getSubtopicId()));
+            }
+            eventBroadcaster.broadcast(event);
+        });
+    }
+
+    private List<ChangeEvent.Progress> progress(String tabId, String subtopicId) {
+        List<ChangeEvent.Progress> progress = new ArrayList<>(3);
+        if (tabId != null) {
+            progress.add(toProgress("tab", tabId, progressCounters.tab(tabId)));
+        }
+        if (subtopicId != null) {
+            progress.add(toProgress("subtopic", subtopicId, progressCounters.subtopic(subtopicId)));
+        }
+        progress.add(toProgress("overall", null, progressCounters.global()));
+        return progress;
+    }
+
+    private static List<String> ids(List<ReorderRequest> sortOrders) {
+        return sortOrders.stream().map(ReorderRequest::getId).toList();
+    }
+
+    private static ChangeEvent.Progress toProgress(String scope, String id, ProgressCounters.Progress counts) {
+        return ChangeEvent.Progress.builder()
+                .scope(scope)
+                .id(id)
+                .total(counts.getTotal())
+                .completed(counts.getCompleted())
+                .percent(counts.percent())
+                .build();
+    }
+}
@@ -0,0 +1,236 @@
+package com.preptracker.service;
+
+import com.preptracker.model.ChangeLogEntry;
+import com.preptracker.model.ChangeLogEntry.EntityType;
+import com.preptracker.model.ChangeLogEntry.Operation;
+import com.preptracker.repository.ChangeLogRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Stamps writes to synced entities with versions from a single counter and
+ * records them in the change_log table, inside the transaction of the write.
+ * <p>
+ * Versions are handed out before their transactions commit, and those
+ * transactions may commit out of order. Readers therefore only see changes up
+ * to the {@link #watermark()}: the highest version below which every version
+ * has either committed or rolled back. A client that syncs up to the watermark
+ * can never miss a change that commits later.
+ * <p>
+ * For conditional GETs, the highest committed version and commit time of each
+ * entity type are also kept in memory. A {@link Stamp} over the types a
+ * response depends on makes its ETag and Last-Modified without touching the
+ * database.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ChangeTracker {
+
+    /**
+     * Entity id of an entry that stands for every row of its type, as written
+     * by a bulk import; clients behind it need a full resync
+     */
+    public static final String ALL = "*";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO change_log (version, entity_type, entity_id, operation, changed_at) VALUES (?, ?, ?, ?, ?)";
+
+    private final ChangeLogRepository changeLogRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${app.sync.retention:30d}")
+    private Duration retention;
+
+    // Both guarded by this; allocation and the watermark must see them together
+    private long lastVersion;
+    private final TreeSet<Long> inFlight = new TreeSet<>();
+
+    private volatile long prunedThrough;
+
+    // Distinguishes ETags of this process from those of a previous run over different data
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final Map<EntityType, Stamp> committed = new EnumMap<>(EntityType.class);
+
+    @PostConstruct
+    public void seed() {
+        Long max = changeLogRepository.findMaxVersion();
+        Long min = changeLogRepository.findMinVersion();
+        synchronized (this) {
+            lastVersion = max != null ? max : 0L;
+            Stamp initial = new Stamp(lastVersion, Instant.now(), epoch);
+            for (EntityType entityType : EntityType.values()) {
+                committed.put(entityType, initial);
+            }
+        }
+        prunedThrough = min != null ? min - 1 : 0L;
+        log.debug("Change log starts at version {}", lastVersion);
+    }
+
+    public long record(EntityType entityType, String entityId, Operation operation) {
+        return record(entityType, List.of(entityId), operation);
+    }
+
+    /**
+     * Record a change to each entity and return the last version assigned,
+     * or the current watermark when there is nothing to record
+     */
+    public long record(EntityType entityType, Collection<String> entityIds, Operation operation) {
+        if (entityIds.isEmpty()) {
+            return watermark();
+        }
+        long first;
+        long last;
+        synchronized (this) {
+            first = lastVersion + 1;
+            last = lastVersion + entityIds.size();
+            lastVersion = last;
+            for (long version = first; version <= last; version++) {
+                inFlight.add(version);
+            }
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(entityIds.size());
+        long version = first;
+        for (String entityId : entityIds) {
+            rows.add(new Object[]{version++, entityType.name(), entityId, operation.name(), now});
+        }
+
+        boolean inTransaction = TransactionSynchronizationManager.isSynchronizationActive();
+        if (inTransaction) {
+            long from = first;
+            long to = last;
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    release(from, to);
+                    if (status == STATUS_COMMITTED) {
+                        markCommitted(entityType, to);
+                    }
+                }
+            });
+        }
+        try {
+            jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+            if (!inTransaction) {
+                markCommitted(entityType, last);
+            }
+        } finally {
+            if (!inTransaction) {
+                release(first, last);
+            }
+        }
+        return last;
+    }
+
+    /**
+     * Highest version up to which every change is committed or rolled back
+     */
+    public synchronized long watermark() {
+        return inFlight.isEmpty() ? lastVersion : inFlight.first() - 1;
+    }
+
+    /**
+     * Latest committed version and commit time across the given entity types
+     */
+    public synchronized Stamp stamp(EntityType... entityTypes) {
+        long version = 0;
+        Instant lastModified = Instant.EPOCH;
+        for (EntityType entityType : entityTypes) {
+            Stamp stamp = committed.get(entityType);
+            version = Math.max(version, stamp.getVersion());
+            if (stamp.getLastModified().isAfter(lastModified)) {
+                lastModified = stamp.getLastModified();
+            }
+        }
+        return new Stamp(version, lastModified, epoch);
+    }
+
+    /**
+     * Versions at or below this were pruned; clients behind it need a full resync
+     */
+    public long getPrunedThrough() {
+        return prunedThrough;
+    }
+
+    /**
+     * Entries in the (since, until] window, oldest first, at most limit of them
+     */
+    public List<ChangeLogEntry> entries(long since, long until, int limit) {
+        return changeLogRepository.findWindow(since, until, PageRequest.of(0, limit));
+    }
+
+    /**
+     * Drop entries older than the retention period, always keeping the newest
+     * one so the counter resumes from it after a restart
+     */
+    @Scheduled(cron = "${app.sync.prune-cron:0 15 * * * *}")
+    public void prune() {
+        Long candidate = changeLogRepository.findMaxVersionBefore(LocalDateTime.now().minus(retention));
+        if (candidate == null) {
+            return;
+        }
+        long through = Math.min(candidate, watermark() - 1);
+        if (through <= prunedThrough) {
+            return;
+        }
+        int removed = changeLogRepository.deleteThrough(through);
+        prunedThrough = through;
+        log.info("Pruned {} change log entries through version {}", removed, through);
+    }
+
+    private synchronized void release(long first, long last) {
+        for (long version = first; version <= last; version++) {
+            inFlight.remove(version);
+        }
+    }
+
+    private synchronized void markCommitted(EntityType entityType, long version) {
+        Stamp current = committed.get(entityType);
+        committed.put(entityType, new Stamp(Math.max(current.getVersion(), version), Instant.now(), epoch));
+    }
+
+    /**
+     * Data version of a response, for ETag and Last-Modified headers
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Stamp {
+        private final long version;
+        private final Instant lastModified;
+        private final String epoch;
+
+        /**
+         * Strong ETag for a representation of the given scope at this version
+         */
+        public String etag(String scope) {
+            return "\"" + scope + "-" + epoch + "-" + version + "\"";
+        }
+
+        public long getLastModifiedMillis() {
+            return lastModified.toEpochMilli();
+        }
+    }
+}
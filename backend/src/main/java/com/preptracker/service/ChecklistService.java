@@ -1,6 +1,7 @@
 package com.preptracker.service;
 
 import com.preptracker.config.CacheConfig;
+import com.preptracker.config.CacheReloader;
 import com.preptracker.model.ChecklistItem;
 import com.preptracker.repository.ChecklistItemRepository;
 import lombok.RequiredArgsConstructor;
@@ -9,6 +10,7 @@ import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -16,14 +18,15 @@ import java.util.List;
 @Slf4j
 @Service
 @RequiredArgsConstructor
-public class ChecklistService {
+public class ChecklistService implements CacheReloader {
     
     private final ChecklistItemRepository checklistItemRepository;
+    private final ChangeEvents changeEvents;
     
     @Cacheable(value = CacheConfig.CHECKLIST_CACHE, key = "'all'")
     public List<ChecklistItem> getAllChecklistItems() {
         log.debug("Fetching all checklist items from database");
-        return checklistItemRepository.findAllByOrderBySortOrderAsc();
+        return checklistItemRepository.findAllByOrderBySortOrderAscIdAsc();
     }
     
     @Cacheable(value = CacheConfig.CHECKLIST_CACHE, key = "#id")
@@ -33,7 +36,29 @@ public class ChecklistService {
                 .orElseThrow(() -> new RuntimeException("Checklist item not found with id: " + id));
     }
     
+    @Override
+    public String cacheName() {
+        return CacheConfig.CHECKLIST_CACHE;
+    }
+    
+    /**
+     * Fresh value for a checklist cache key; self-invocation bypasses the cache
+     */
+    @Override
+    public Object reload(Object key) {
+        if ("all".equals(key)) {
+            return getAllChecklistItems();
+        }
+        return checklistItemRepository.findById(String.valueOf(key)).orElse(null);
+    }
+    
+    @Override
+    public List<Object> warmKeys() {
+        return List.of("all");
+    }
+    
     @CacheEvict(value = CacheConfig.CHECKLIST_CACHE, allEntries = true)
+    @Transactional
     public ChecklistItem createChecklistItem(ChecklistItem item) {
         log.debug("Creating checklist item: {}", item.getText());
         item.setCreatedAt(LocalDateTime.now());
@@ -41,10 +66,13 @@ public class ChecklistService {
             long count = checklistItemRepository.count();
             item.setSortOrder((int) count);
         }
-        return checklistItemRepository.save(item);
+        ChecklistItem saved = checklistItemRepository.save(item);
+        changeEvents.checklistItemCreated(saved);
+        return saved;
     }
     
     @CacheEvict(value = CacheConfig.CHECKLIST_CACHE, allEntries = true)
+    @Transactional
     public ChecklistItem updateChecklistItem(String id, ChecklistItem itemUpdates) {
         log.debug("Updating checklist item: {}", id);
         ChecklistItem existingItem = checklistItemRepository.findById(id)
@@ -57,10 +85,13 @@ public class ChecklistService {
             existingItem.setSortOrder(itemUpdates.getSortOrder());
         }
         
-        return checklistItemRepository.save(existingItem);
+        ChecklistItem saved = checklistItemRepository.save(existingItem);
+        changeEvents.checklistItemUpdated(saved);
+        return saved;
     }
     
     @CacheEvict(value = CacheConfig.CHECKLIST_CACHE, allEntries = true)
+    @Transactional
     public ChecklistItem toggleChecklistItem(String id) {
         log.debug("Toggling checklist item: {}", id);
         ChecklistItem item = checklistItemRepository.findById(id)
@@ -75,12 +106,16 @@ public class ChecklistService {
             item.setCompletedAt(null);
         }
         
-        return checklistItemRepository.save(item);
+        ChecklistItem saved = checklistItemRepository.save(item);
+        changeEvents.checklistItemToggled(saved);
+        return saved;
     }
     
     @CacheEvict(value = CacheConfig.CHECKLIST_CACHE, allEntries = true)
+    @Transactional
     public void deleteChecklistItem(String id) {
         log.debug("Deleting checklist item: {}", id);
         checklistItemRepository.deleteById(id);
+        changeEvents.checklistItemDeleted(id);
     }
 }
@@ -0,0 +1,103 @@
+package com.preptracker.service;
+
+import com.preptracker.config.CacheConfig;
+import com.preptracker.config.CacheReloader;
+import com.preptracker.model.Application.ApplicationStatus;
+import com.preptracker.repository.ApplicationRepository;
+import com.preptracker.repository.ItemRepository;
+import com.preptracker.repository.ItemRepository.ProgressCount;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Aggregate counts for the dashboard computed with GROUP BY projections.
+ * Each method issues a single query no matter how many tabs or subtopics exist.
+ */
+@Component
+@RequiredArgsConstructor
+public class DashboardAggregator implements CacheReloader {
+
+    static final String APPLICATION_STATS_KEY = "applicationStats";
+
+    private final ItemRepository itemRepository;
+    private final ApplicationRepository applicationRepository;
+
+    /**
+     * Total and completed item counts keyed by tab id (1 query)
+     */
+    public Map<String, ProgressCount> countItemsByTab() {
+        return byGroupId(itemRepository.countProgressGroupedByTab());
+    }
+
+    /**
+     * Total and completed item counts keyed by subtopic id (1 query)
+     */
+    public Map<String, ProgressCount> countItemsBySubtopic() {
+        return byGroupId(itemRepository.countProgressGroupedBySubtopic());
+    }
+
+    /**
+     * Application counts in the buckets shown on the dashboard (1 query)
+     */
+    @Cacheable(value = CacheConfig.DASHBOARD_CACHE, key = "'applicationStats'", sync = true)
+    public Map<String, Long> countApplicationsByStatus() {
+        Map<ApplicationStatus, Long> byStatus = new HashMap<>();
+        long total = 0;
+        for (ApplicationRepository.StatusCount count : applicationRepository.countGroupedByStatus()) {
+            long value = valueOf(count.getTotal());
+            if (count.getStatus() != null) {
+                byStatus.put(count.getStatus(), value);
+            }
+            total += value;
+        }
+
+        Map<String, Long> applicationStats = new HashMap<>();
+        applicationStats.put("applied", byStatus.getOrDefault(ApplicationStatus.APPLIED, 0L));
+        applicationStats.put("interview", byStatus.getOrDefault(ApplicationStatus.INTERVIEW, 0L));
+        applicationStats.put("offered", byStatus.getOrDefault(ApplicationStatus.OFFERED, 0L));
+        applicationStats.put("rejected", byStatus.getOrDefault(ApplicationStatus.REJECTED, 0L));
+        applicationStats.put("total", total);
+        return applicationStats;
+    }
+
+    @Override
+    public String cacheName() {
+        return CacheConfig.DASHBOARD_CACHE;
+    }
+
+    /**
+     * Background refresh of the dashboard cache (refresh-after-write)
+     */
+    @Override
+    public Object reload(Object key) {
+        return APPLICATION_STATS_KEY.equals(key) ? countApplicationsByStatus() : null;
+    }
+
+    @Override
+    public List<Object> warmKeys() {
+        return List.of(APPLICATION_STATS_KEY);
+    }
+
+    private static Map<String, ProgressCount> byGroupId(List<ProgressCount> rows) {
+        Map<String, ProgressCount> counts = new HashMap<>();
+        for (ProgressCount count : rows) {
+            if (count.getGroupId() != null) {
+                counts.put(count.getGroupId(), count);
+            }
+        }
+        return counts;
+    }
+
+    static int percent(long completed, long total) {
+        return total > 0 ? (int) (completed * 100 / total) : 0;
+    }
+
+    private static long valueOf(Long value) {
+        return value != null ? value : 0L;
+    }
+}
@@ -1,31 +1,55 @@
 package com.preptracker.service;
 
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.preptracker.dto.FullDataExport;
 import com.preptracker.dto.TabWithData;
 import com.preptracker.model.ActivityLog;
 import com.preptracker.model.Application;
 import com.preptracker.model.ChecklistItem;
+import com.preptracker.model.Tab;
+import com.preptracker.repository.ActivityLogRepository;
+import com.preptracker.repository.ApplicationRepository;
+import com.preptracker.repository.ChecklistItemRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
 
 @Service
 @RequiredArgsConstructor
 public class DataExportService {
-    
+
+    private static final int PAGE_SIZE = 500;
+
     private final TabService tabService;
+    private final TabTreeLoader tabTreeLoader;
     private final ChecklistService checklistService;
     private final ApplicationService applicationService;
     private final ActivityLogService activityLogService;
-    
+    private final ActivityArchiveService activityArchiveService;
+    private final ChecklistItemRepository checklistItemRepository;
+    private final ApplicationRepository applicationRepository;
+    private final ActivityLogRepository activityLogRepository;
+    private final ObjectMapper objectMapper;
+
     public FullDataExport exportAllData() {
         List<TabWithData> tabs = tabService.getAllTabsWithData();
         List<String> tabsWithSubtopics = tabService.getTabIdsWithSubtopics();
         List<ChecklistItem> checklist = checklistService.getAllChecklistItems();
         List<Application> applications = applicationService.getAllApplications();
-        List<ActivityLog> activityLog = activityLogService.getAllActivityLogs();
-        
+        List<ActivityLog> activityLog = withArchived(activityLogService.getAllActivityLogs());
+
         return FullDataExport.builder()
                 .tabs(tabs)
                 .tabsWithSubtopics(tabsWithSubtopics)
@@ -34,5 +58,231 @@ public class DataExportService {
                 .activityLog(activityLog)
                 .build();
     }
-}
 
+    /**
+     * Write the same JSON as {@link #exportAllData()} incrementally. Only one
+     * tab tree, one page of rows or one archived month is held at a time, so
+     * memory use does not grow with the data set. Tab trees are loaded
+     * directly so an export does not push the hot entries out of the tab
+     * data cache, and rows are read in keyset pages in the same order as the
+     * in-memory export, so concurrent inserts cannot shift a page.
+     */
+    public void writeExport(OutputStream out) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            // The caller owns the stream
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartObject();
+
+            generator.writeArrayFieldStart("tabs");
+            for (Tab tab : tabService.getAllTabs()) {
+                generator.writeObject(tabTreeLoader.loadTab(tab));
+            }
+            generator.writeEndArray();
+
+            generator.writeObjectField("tabsWithSubtopics", tabService.getTabIdsWithSubtopics());
+
+            generator.writeArrayFieldStart("checklist");
+            writeRows(generator, new ChecklistIterator());
+            generator.writeEndArray();
+
+            generator.writeArrayFieldStart("applications");
+            writeRows(generator, new ApplicationIterator());
+            generator.writeEndArray();
+
+            generator.writeArrayFieldStart("activityLog");
+            writeActivityLog(generator);
+            generator.writeEndArray();
+
+            generator.writeEndObject();
+        }
+    }
+
+    private <T> void writeRows(JsonGenerator generator, Iterator<T> rows) throws IOException {
+        int written = 0;
+        while (rows.hasNext()) {
+            generator.writeObject(rows.next());
+            if (++written % PAGE_SIZE == 0) {
+                generator.flush();
+            }
+        }
+        generator.flush();
+    }
+
+    /**
+     * Merge the keyset-paged hot table with the archive, read one month at a
+     * time from the newest, in {@link ActivityLogService#NEWEST_FIRST} order.
+     * A row present in both (an interrupted archive run) is written once.
+     */
+    private void writeActivityLog(JsonGenerator generator) throws IOException {
+        Iterator<ActivityLog> hot = new HotActivityIterator();
+        Iterator<ActivityLog> archived = new ArchivedActivityIterator();
+        ActivityLog nextHot = hot.hasNext() ? hot.next() : null;
+        ActivityLog nextArchived = archived.hasNext() ? archived.next() : null;
+        int written = 0;
+        while (nextHot != null || nextArchived != null) {
+            if (nextArchived == null
+                    || (nextHot != null && ActivityLogService.NEWEST_FIRST.compare(nextHot, nextArchived) <= 0)) {
+                if (nextArchived != null && nextHot.getId().equals(nextArchived.getId())) {
+                    nextArchived = archived.hasNext() ? archived.next() : null;
+                }
+                generator.writeObject(nextHot);
+                nextHot = hot.hasNext() ? hot.next() : null;
+            } else {
+                generator.writeObject(nextArchived);
+                nextArchived = archived.hasNext() ? archived.next() : null;
+            }
+            if (++written % PAGE_SIZE == 0) {
+                generator.flush();
+            }
+        }
+    }
+
+    /**
+     * The export covers the full history, including rows moved to the archive
+     */
+    private List<ActivityLog> withArchived(List<ActivityLog> rows) {
+        Map<String, ActivityLog> merged = new LinkedHashMap<>();
+        rows.forEach(row -> merged.put(row.getId(), row));
+        activityArchiveService.readAll().forEach(row -> merged.putIfAbsent(row.getId(), row));
+        List<ActivityLog> result = new ArrayList<>(merged.values());
+        result.sort(ActivityLogService.NEWEST_FIRST);
+        return result;
+    }
+
+    /**
+     * activity_logs newest first: keyset pages over (timestamp, id), then rows without a timestamp
+     */
+    private class HotActivityIterator extends PageIterator<ActivityLog> {
+
+        private ActivityLog last;
+        private int nullPage = -1;
+
+        @Override
+        protected List<ActivityLog> fetch() {
+            if (nullPage < 0) {
+                PageRequest pageable = PageRequest.of(0, PAGE_SIZE);
+                List<ActivityLog> rows = last == null
+                        ? activityLogRepository.findNewest(pageable)
+                        : activityLogRepository.findPageAfter(last.getTimestamp(), last.getId(), pageable);
+                if (!rows.isEmpty()) {
+                    last = rows.get(rows.size() - 1);
+                    return rows;
+                }
+                nullPage = 0;
+            }
+            return activityLogRepository.findByTimestampIsNullOrderByIdDesc(PageRequest.of(nullPage++, PAGE_SIZE));
+        }
+    }
+
+    /**
+     * checklist_items by sort order then id: keyset pages over the rows
+     * without a sort order, which H2 sorts first, then over (sortOrder, id)
+     */
+    private class ChecklistIterator extends PageIterator<ChecklistItem> {
+
+        private ChecklistItem last;
+        private boolean ordered;
+
+        @Override
+        protected List<ChecklistItem> fetch() {
+            PageRequest pageable = PageRequest.of(0, PAGE_SIZE);
+            if (!ordered) {
+                List<ChecklistItem> rows = checklistItemRepository.findUnorderedAfter(last == null ? "" : last.getId(), pageable);
+                if (!rows.isEmpty()) {
+                    last = rows.get(rows.size() - 1);
+                    return rows;
+                }
+                ordered = true;
+                last = null;
+            }
+            List<ChecklistItem> rows = last == null
+                    ? checklistItemRepository.findBySortOrderIsNotNullOrderBySortOrderAscIdAsc(pageable)
+                    : checklistItemRepository.findPageAfter(last.getSortOrder(), last.getId(), pageable);
+            if (!rows.isEmpty()) {
+                last = rows.get(rows.size() - 1);
+            }
+            return rows;
+        }
+    }
+
+    /**
+     * applications newest first then by id: keyset pages over (date, id),
+     * then over the rows without a date, which H2 sorts last when descending
+     */
+    private class ApplicationIterator extends PageIterator<Application> {
+
+        private Application last;
+        private boolean undated;
+
+        @Override
+        protected List<Application> fetch() {
+            PageRequest pageable = PageRequest.of(0, PAGE_SIZE);
+            if (!undated) {
+                List<Application> rows = last == null
+                        ? applicationRepository.findByDateIsNotNullOrderByDateDescIdAsc(pageable)
+                        : applicationRepository.findPageAfter(last.getDate(), last.getId(), pageable);
+                if (!rows.isEmpty()) {
+                    last = rows.get(rows.size() - 1);
+                    return rows;
+                }
+                undated = true;
+                last = null;
+            }
+            List<Application> rows = applicationRepository.findUndatedAfter(last == null ? "" : last.getId(), pageable);
+            if (!rows.isEmpty()) {
+                last = rows.get(rows.size() - 1);
+            }
+            return rows;
+        }
+    }
+
+    /**
+     * Archived rows, one month at a time from the newest month
+     */
+    private class ArchivedActivityIterator extends PageIterator<ActivityLog> {
+
+        private final List<YearMonth> months = new ArrayList<>(activityArchiveService.months());
+
+        @Override
+        protected List<ActivityLog> fetch() {
+            while (!months.isEmpty()) {
+                YearMonth month = months.remove(months.size() - 1);
+                List<ActivityLog> rows = activityArchiveService.read(month.atDay(1), month.atEndOfMonth());
+                if (!rows.isEmpty()) {
+                    rows.sort(ActivityLogService.NEWEST_FIRST);
+                    return rows;
+                }
+            }
+            return List.of();
+        }
+    }
+
+    /**
+     * Iterates over pages until an empty one is fetched
+     */
+    private abstract static class PageIterator<T> implements Iterator<T> {
+
+        private Iterator<T> current = List.<T>of().iterator();
+        private boolean exhausted;
+
+        protected abstract List<T> fetch();
+
+        @Override
+        public boolean hasNext() {
+            while (!current.hasNext() && !exhausted) {
+                List<T> page = fetch();
+                exhausted = page.isEmpty();
+                current = page.iterator();
+            }
+            return current.hasNext();
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return current.next();
+        }
+    }
+}
@@ -0,0 +1,602 @@
+package com.preptracker.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.preptracker.dto.ImportStatus;
+import com.preptracker.model.ActivityLog;
+import com.preptracker.model.Application;
+import com.preptracker.model.ChecklistItem;
+import com.preptracker.model.Item;
+import com.preptracker.model.Subtopic;
+import com.preptracker.model.Tab;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Restores a {@link com.preptracker.dto.FullDataExport} document, as written
+ * by the export endpoints.
+ * <p>
+ * The document is parsed as a stream, one row at a time, so only the rows of
+ * the current chunk are held in memory. Each chunk is written with one JDBC
+ * batch of inserts into a staging table ({@code import_<table>}) and committed
+ * on its own. A staging table is created from its table's definition, with the
+ * primary key and indexes held back until the whole document has been read.
+ * Merge mode then copies in the current rows whose id the document does not
+ * contain. The staging tables are finally renamed over the live ones and the
+ * replaced tables dropped. A truncated or malformed document therefore changes
+ * nothing. Replace mode clears the activity archive and drops the image
+ * attachments of items that no longer exist once the tables are swapped.
+ * <p>
+ * Rows are not applied with one large {@code DELETE} and {@code INSERT} or
+ * {@code MERGE} transaction because H2 slows down sharply with the size of a
+ * transaction. H2 commits each rename on its own, so the swap is a short run
+ * of renames that only starts once every staging table is complete; if one
+ * fails, the tables already swapped are renamed back. Rows written to the live
+ * tables while the staging tables are built are not carried over.
+ * <p>
+ * Per-row change events are not recorded; the import is published as a single
+ * resync, and caches, progress counters and activity rollups are rebuilt once
+ * it ends.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DataImportService {
+
+    private static final String[] TAB_COLUMNS = {"id", "name", "icon", "color", "has_subtopics", "sort_order"};
+    private static final String[] SUBTOPIC_COLUMNS = {"id", "name", "color", "tab_id", "sort_order"};
+    private static final String[] ITEM_COLUMNS = {"id", "title", "completed", "content", "code", "code_language",
+            "tab_id", "subtopic_id", "sort_order", "created_at", "updated_at", "completed_at", "images"};
+    private static final String[] CHECKLIST_COLUMNS = {"id", "text", "completed", "sort_order", "created_at",
+            "completed_at"};
+    private static final String[] APPLICATION_COLUMNS = {"id", "company", "role", "status", "date", "notes", "url",
+            "created_at", "updated_at"};
+    private static final String[] ACTIVITY_COLUMNS = {"id", "date", "timestamp", "tab_id", "tab_name", "tab_color",
+            "subtopic_id", "subtopic_name", "item_id", "item_title", "type"};
+
+    private static final String STAGING_PREFIX = "import_";
+    private static final String REPLACED_PREFIX = "replaced_";
+
+    // Schema-qualified names in the statements of SCRIPT, which quotes every identifier
+    private static final Pattern QUALIFIED_NAME = Pattern.compile("(\"[^\"]+\"\\.)\"");
+    private static final Pattern INDEX_NAME = Pattern.compile("^CREATE (?:UNIQUE )?INDEX \"[^\"]+\"\\.\"([^\"]+)\"");
+    private static final Pattern CONSTRAINT_NAME = Pattern.compile(" ADD CONSTRAINT \"[^\"]+\"\\.\"([^\"]+)\"");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final ChangeEvents changeEvents;
+    private final CacheService cacheService;
+    private final ProgressCounters progressCounters;
+    private final ActivityArchiveService activityArchiveService;
+    private final ActivityRollupService activityRollupService;
+    private final ImageService imageService;
+
+    @Value("${app.import.chunk-size:1000}")
+    private int defaultChunkSize;
+
+    @Value("${app.import.max-chunk-size:10000}")
+    private int maxChunkSize;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile Run last;
+
+    public enum Mode {
+        /**
+         * Delete all tabs, subtopics, items, checklist, applications and activity, archive included,
+         * and the images of items not in the document
+         */
+        REPLACE,
+        /**
+         * Insert new rows and overwrite rows with the same id, keeping everything else
+         */
+        MERGE;
+
+        public static Mode parse(String value) {
+            try {
+                return valueOf(value.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown import mode: " + value);
+            }
+        }
+    }
+
+    /**
+     * Import a document read from the stream. Throws IllegalStateException when
+     * an import is already running and IllegalArgumentException when the
+     * chunk size is out of range or the document is malformed; the failure is
+     * kept in the status.
+     */
+    public ImportStatus importData(InputStream in, Mode mode, Integer chunkSize) {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("An import is already running");
+        }
+        int chunk = chunkSize != null ? chunkSize : defaultChunkSize;
+        Run run = new Run(mode, chunk);
+        last = run;
+        try {
+            if (chunk < 1 || chunk > maxChunkSize) {
+                throw new IllegalArgumentException("Chunk size must be between 1 and " + maxChunkSize);
+            }
+            parse(in, run);
+            afterImport(mode);
+            run.complete(null);
+            log.info("Imported {} in {} ms ({} mode, chunks of {})",
+                    run.counts, run.snapshot().getDurationMs(), mode, chunk);
+        } catch (RuntimeException e) {
+            if (run.modified) {
+                afterImport(mode);
+            }
+            run.complete(e.getMessage());
+            log.warn("Import failed: {}", e.getMessage());
+            throw e;
+        } finally {
+            running.set(false);
+        }
+        return run.snapshot();
+    }
+
+    /**
+     * The running import's progress, or the outcome of the last one; null if none ran yet
+     */
+    public ImportStatus getStatus() {
+        Run run = last;
+        return run != null ? run.snapshot() : null;
+    }
+
+    /**
+     * Publish the import and rebuild derived state from the rows now in the tables
+     */
+    private void afterImport(Mode mode) {
+        transactionTemplate.executeWithoutResult(tx -> changeEvents.dataImported());
+        if (mode == Mode.REPLACE) {
+            // The replaced history and images belonged to the old rows
+            activityArchiveService.clear();
+            try {
+                imageService.deleteImagesOfMissingItems();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not delete images of replaced items", e);
+            }
+        }
+        // Imported history older than the retention horizon goes back to the archive
+        // before the rollups are recounted, so no row is counted twice
+        if (activityArchiveService.isEnabled()) {
+            activityArchiveService.archive();
+        }
+        activityRollupService.rebuildAll();
+        cacheService.clearAllCaches();
+        progressCounters.reconcile();
+    }
+
+    private void parse(InputStream in, Run run) {
+        BatchWriter<Tab> tabs = new BatchWriter<>("tabs", TAB_COLUMNS, run, tab -> new Object[]{
+                tab.getId(), tab.getName(), tab.getIcon(), tab.getColor(),
+                Boolean.TRUE.equals(tab.getHasSubtopics()), tab.getSortOrder()},
+                count -> run.counts.setTabs(run.counts.getTabs() + count));
+        BatchWriter<Subtopic> subtopics = new BatchWriter<>("subtopics", SUBTOPIC_COLUMNS, run,
+                subtopic -> new Object[]{
+                        subtopic.getId(), subtopic.getName(), subtopic.getColor(), subtopic.getTabId(),
+                        subtopic.getSortOrder()},
+                count -> run.counts.setSubtopics(run.counts.getSubtopics() + count));
+        BatchWriter<Item> items = new BatchWriter<>("items", ITEM_COLUMNS, run, item -> new Object[]{
+                item.getId(), item.getTitle(), Boolean.TRUE.equals(item.getCompleted()), item.getContent(),
+                item.getCode(), item.getCodeLanguage(), item.getTabId(), item.getSubtopicId(), item.getSortOrder(),
+                timestamp(item.getCreatedAt()), timestamp(item.getUpdatedAt()), timestamp(item.getCompletedAt()),
+                item.getImages()},
+                count -> run.counts.setItems(run.counts.getItems() + count));
+        BatchWriter<ChecklistItem> checklist = new BatchWriter<>("checklist_items", CHECKLIST_COLUMNS, run,
+                item -> new Object[]{
+                        item.getId(), item.getText(), Boolean.TRUE.equals(item.getCompleted()), item.getSortOrder(),
+                        timestamp(item.getCreatedAt()), timestamp(item.getCompletedAt())},
+                count -> run.counts.setChecklist(run.counts.getChecklist() + count));
+        BatchWriter<Application> applications = new BatchWriter<>("applications", APPLICATION_COLUMNS, run,
+                application -> new Object[]{
+                        application.getId(), application.getCompany(), application.getRole(),
+                        application.getStatus() != null ? application.getStatus().name() : Application.ApplicationStatus.APPLIED.name(),
+                        date(application.getDate()), application.getNotes(), application.getUrl(),
+                        timestamp(application.getCreatedAt()), timestamp(application.getUpdatedAt())},
+                count -> run.counts.setApplications(run.counts.getApplications() + count));
+        BatchWriter<ActivityLog> activity = new BatchWriter<>("activity_logs", ACTIVITY_COLUMNS, run,
+                row -> new Object[]{
+                        row.getId(), date(row.getDate()), timestamp(row.getTimestamp()), row.getTabId(),
+                        row.getTabName(), row.getTabColor(), row.getSubtopicId(), row.getSubtopicName(),
+                        row.getItemId(), row.getItemTitle(),
+                        row.getType() != null ? row.getType().name() : ActivityLog.ActivityType.TOPIC_COMPLETED.name()},
+                count -> run.counts.setActivityLog(run.counts.getActivityLog() + count));
+
+        List<BatchWriter<?>> writers = List.of(tabs, subtopics, items, checklist, applications, activity);
+        writers.forEach(BatchWriter::createStaging);
+        try (JsonParser parser = objectMapper.getFactory().createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IllegalArgumentException("Import must be a JSON object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                parser.nextToken();
+                run.section(field);
+                switch (field) {
+                    case "tabs" -> readArray(parser, () -> readTab(parser, tabs, subtopics, items));
+                    case "checklist" -> readArray(parser, () -> checklist.add(withId(
+                            objectMapper.readValue(parser, ChecklistItem.class), ChecklistItem::getId, ChecklistItem::setId)));
+                    case "applications" -> readArray(parser, () -> applications.add(withId(
+                            objectMapper.readValue(parser, Application.class), Application::getId, Application::setId)));
+                    case "activityLog" -> readArray(parser, () -> activity.add(withId(
+                            objectMapper.readValue(parser, ActivityLog.class), ActivityLog::getId, ActivityLog::setId)));
+                    // tabsWithSubtopics is derived from the tabs
+                    default -> parser.skipChildren();
+                }
+            }
+            for (BatchWriter<?> writer : writers) {
+                writer.flush();
+            }
+            apply(run, writers);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed import document: " + e.getOriginalMessage(), e);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read import document", e);
+        } finally {
+            writers.forEach(BatchWriter::dropStaging);
+        }
+    }
+
+    /**
+     * Complete the staging tables and swap them in. A valid document without
+     * rows still empties the tables in replace mode.
+     */
+    private void apply(Run run, List<BatchWriter<?>> writers) {
+        run.section(null);
+        for (BatchWriter<?> writer : writers) {
+            writer.build();
+        }
+        List<BatchWriter<?>> swapped = new ArrayList<>();
+        try {
+            for (BatchWriter<?> writer : writers) {
+                writer.swapIn();
+                swapped.add(writer);
+            }
+        } catch (RuntimeException e) {
+            run.modified = !swapped.isEmpty();
+            Collections.reverse(swapped);
+            for (BatchWriter<?> writer : swapped) {
+                writer.swapOut();
+            }
+            run.modified = false;
+            throw e;
+        }
+        run.modified = true;
+        for (BatchWriter<?> writer : writers) {
+            writer.dropReplaced();
+        }
+    }
+
+    /**
+     * A tab of the tree: its own fields, then its items or its subtopics with their items.
+     * Children without a parent id get the id of the enclosing tab or subtopic.
+     */
+    private void readTab(JsonParser parser, BatchWriter<Tab> tabs, BatchWriter<Subtopic> subtopics,
+                         BatchWriter<Item> items) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            throw new IllegalArgumentException("Tab must be a JSON object");
+        }
+        ObjectNode fields = objectMapper.createObjectNode();
+        String[] tabId = new String[1];
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            parser.nextToken();
+            if ("items".equals(field)) {
+                readArray(parser, () -> items.add(readItem(parser, resolveId(fields, tabId), null)));
+            } else if ("subtopics".equals(field)) {
+                readArray(parser, () -> readSubtopic(parser, resolveId(fields, tabId), subtopics, items));
+            } else {
+                fields.set(field, parser.readValueAsTree());
+            }
+        }
+        Tab tab = objectMapper.treeToValue(fields, Tab.class);
+        tab.setId(resolveId(fields, tabId));
+        tabs.add(tab);
+    }
+
+    private void readSubtopic(JsonParser parser, String tabId, BatchWriter<Subtopic> subtopics,
+                              BatchWriter<Item> items) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            throw new IllegalArgumentException("Subtopic must be a JSON object");
+        }
+        ObjectNode fields = objectMapper.createObjectNode();
+        String[] subtopicId = new String[1];
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            parser.nextToken();
+            if ("items".equals(field)) {
+                readArray(parser, () -> items.add(readItem(parser, tabId, resolveId(fields, subtopicId))));
+            } else {
+                fields.set(field, parser.readValueAsTree());
+            }
+        }
+        Subtopic subtopic = objectMapper.treeToValue(fields, Subtopic.class);
+        subtopic.setId(resolveId(fields, subtopicId));
+        if (subtopic.getTabId() == null) {
+            subtopic.setTabId(tabId);
+        }
+        subtopics.add(subtopic);
+    }
+
+    private Item readItem(JsonParser parser, String tabId, String subtopicId) throws IOException {
+        Item item = withId(objectMapper.readValue(parser, Item.class), Item::getId, Item::setId);
+        if (item.getTabId() == null) {
+            item.setTabId(tabId);
+        }
+        if (item.getSubtopicId() == null) {
+            item.setSubtopicId(subtopicId);
+        }
+        return item;
+    }
+
+    /**
+     * Id of the enclosing object: the one read so far, or a generated one fixed on first use
+     */
+    private static String resolveId(ObjectNode fields, String[] resolved) {
+        if (resolved[0] == null) {
+            resolved[0] = fields.hasNonNull("id") ? fields.get("id").asText() : UUID.randomUUID().toString();
+        }
+        return resolved[0];
+    }
+
+    private static <T> T withId(T row, Function<T, String> getter, BiConsumer<T, String> setter) {
+        if (getter.apply(row) == null) {
+            setter.accept(row, UUID.randomUUID().toString());
+        }
+        return row;
+    }
+
+    private static void readArray(JsonParser parser, RowReader reader) throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_NULL) {
+            return;
+        }
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            throw new IllegalArgumentException("Expected an array for " + parser.getCurrentName());
+        }
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            reader.read();
+        }
+    }
+
+    private static Timestamp timestamp(LocalDateTime value) {
+        return value != null ? Timestamp.valueOf(value) : null;
+    }
+
+    private static Date date(LocalDate value) {
+        return value != null ? Date.valueOf(value) : null;
+    }
+
+    @FunctionalInterface
+    private interface RowReader {
+        void read() throws IOException;
+    }
+
+    /**
+     * Collects rows of one table and writes them a chunk at a time
+     */
+    private final class BatchWriter<T> {
+
+        private final String table;
+        private final String staging;
+        private final String columnList;
+        private final String sql;
+        private final int chunkSize;
+        private final Function<T, Object[]> mapper;
+        private final Consumer<Integer> written;
+        private final Run run;
+        private final List<Object[]> pending;
+        // Primary key and index statements of the staging table, run once its rows are in
+        private final List<String> deferred = new ArrayList<>();
+        // Names given to the staging table's indexes and constraints, without the staging prefix
+        private final List<String> indexes = new ArrayList<>();
+        private final List<String> constraints = new ArrayList<>();
+
+        private BatchWriter(String table, String[] columns, Run run, Function<T, Object[]> mapper,
+                            Consumer<Integer> written) {
+            String placeholders = String.join(", ", Collections.nCopies(columns.length, "?"));
+            this.table = table;
+            this.staging = STAGING_PREFIX + table;
+            this.columnList = String.join(", ", columns);
+            this.sql = "INSERT INTO " + staging + " (" + columnList + ") VALUES (" + placeholders + ")";
+            this.chunkSize = run.chunkSize;
+            this.mapper = mapper;
+            this.written = written;
+            this.run = run;
+            this.pending = new ArrayList<>(chunkSize);
+        }
+
+        void add(T row) {
+            pending.add(mapper.apply(row));
+            if (pending.size() >= chunkSize) {
+                flush();
+            }
+        }
+
+        /**
+         * An empty table with the table's definition, replacing any left by an
+         * interrupted import. Its indexes and constraints carry the staging
+         * prefix, as their names are unique across the schema.
+         */
+        void createStaging() {
+            dropStaging();
+            jdbcTemplate.execute("DROP TABLE IF EXISTS " + REPLACED_PREFIX + table);
+            deferred.clear();
+            indexes.clear();
+            constraints.clear();
+            String quoted = "\"" + table.toUpperCase(Locale.ROOT) + "\"";
+            String prefix = STAGING_PREFIX.toUpperCase(Locale.ROOT);
+            for (String statement : jdbcTemplate.queryForList("SCRIPT NODATA NOSETTINGS TABLE " + table, String.class)) {
+                if (!statement.contains(quoted) || statement.startsWith("--")) {
+                    continue;
+                }
+                Matcher index = INDEX_NAME.matcher(statement);
+                Matcher constraint = CONSTRAINT_NAME.matcher(statement);
+                boolean isIndex = index.find();
+                if (isIndex) {
+                    indexes.add(index.group(1));
+                } else if (constraint.find()) {
+                    constraints.add(constraint.group(1));
+                }
+                String renamed = QUALIFIED_NAME.matcher(statement).replaceAll("$1\"" + prefix);
+                if (isIndex || statement.contains("PRIMARY KEY") || statement.contains(" UNIQUE(")) {
+                    deferred.add(renamed);
+                } else {
+                    jdbcTemplate.execute(renamed);
+                }
+            }
+        }
+
+        void dropStaging() {
+            jdbcTemplate.execute("DROP TABLE IF EXISTS " + staging);
+        }
+
+        void flush() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            transactionTemplate.executeWithoutResult(tx -> jdbcTemplate.batchUpdate(sql, pending));
+            run.written(written, pending.size());
+            pending.clear();
+        }
+
+        /**
+         * Add the primary key to the staged rows, in merge mode the current rows
+         * they do not replace, and then the indexes
+         */
+        void build() {
+            for (String statement : deferred) {
+                if (statement.contains("PRIMARY KEY")) {
+                    jdbcTemplate.execute(statement);
+                }
+            }
+            if (run.mode == Mode.MERGE) {
+                jdbcTemplate.update("INSERT INTO " + staging + " SELECT * FROM " + table + " t"
+                        + " WHERE NOT EXISTS (SELECT 1 FROM " + staging + " s WHERE s.id = t.id)");
+            }
+            for (String statement : deferred) {
+                if (!statement.contains("PRIMARY KEY")) {
+                    jdbcTemplate.execute(statement);
+                }
+            }
+        }
+
+        void swapIn() {
+            jdbcTemplate.execute("ALTER TABLE " + table + " RENAME TO " + REPLACED_PREFIX + table);
+            try {
+                jdbcTemplate.execute("ALTER TABLE " + staging + " RENAME TO " + table);
+            } catch (RuntimeException e) {
+                jdbcTemplate.execute("ALTER TABLE " + REPLACED_PREFIX + table + " RENAME TO " + table);
+                throw e;
+            }
+        }
+
+        void swapOut() {
+            jdbcTemplate.execute("ALTER TABLE " + table + " RENAME TO " + staging);
+            jdbcTemplate.execute("ALTER TABLE " + REPLACED_PREFIX + table + " RENAME TO " + table);
+        }
+
+        /**
+         * Drop the swapped-out table and give its index and constraint names to the new one
+         */
+        void dropReplaced() {
+            jdbcTemplate.execute("DROP TABLE " + REPLACED_PREFIX + table);
+            String prefix = STAGING_PREFIX.toUpperCase(Locale.ROOT);
+            for (String index : indexes) {
+                jdbcTemplate.execute("ALTER INDEX \"" + prefix + index + "\" RENAME TO \"" + index + "\"");
+            }
+            for (String constraint : constraints) {
+                jdbcTemplate.execute("ALTER TABLE " + table
+                        + " RENAME CONSTRAINT \"" + prefix + constraint + "\" TO \"" + constraint + "\"");
+            }
+        }
+    }
+
+    /**
+     * Mutable progress of one import, read by status requests while it runs
+     */
+    private final class Run {
+
+        private final Mode mode;
+        private final int chunkSize;
+        private final ImportStatus.Counts counts = new ImportStatus.Counts();
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private final long startNanos = System.nanoTime();
+        private ImportStatus.State state = ImportStatus.State.RUNNING;
+        private String section;
+        private LocalDateTime finishedAt;
+        private Long durationMs;
+        private String error;
+        // Set once the staged rows are applied; only touched by the importing thread
+        private boolean modified;
+
+        private Run(Mode mode, int chunkSize) {
+            this.mode = mode;
+            this.chunkSize = chunkSize;
+        }
+
+        synchronized void section(String section) {
+            this.section = section;
+        }
+
+        synchronized void written(Consumer<Integer> counter, int count) {
+            counter.accept(count);
+        }
+
+        synchronized void complete(String error) {
+            this.state = error == null ? ImportStatus.State.COMPLETED : ImportStatus.State.FAILED;
+            this.error = error;
+            this.section = null;
+            this.finishedAt = LocalDateTime.now();
+            this.durationMs = (System.nanoTime() - startNanos) / 1_000_000;
+        }
+
+        synchronized ImportStatus snapshot() {
+            return ImportStatus.builder()
+                    .state(state)
+                    .mode(mode.name().toLowerCase(Locale.ROOT))
+                    .chunkSize(chunkSize)
+                    .section(section)
+                    .counts(ImportStatus.Counts.builder()
+                            .tabs(counts.getTabs())
+                            .subtopics(counts.getSubtopics())
+                            .items(counts.getItems())
+                            .checklist(counts.getChecklist())
+                            .applications(counts.getApplications())
+                            .activityLog(counts.getActivityLog())
+                            .build())
+                    .startedAt(startedAt)
+                    .finishedAt(finishedAt)
+                    .durationMs(durationMs)
+                    .error(error)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.preptracker.service;
+
+import com.preptracker.dto.ChangeEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fans {@link ChangeEvent}s out to Server-Sent Events subscribers.
+ * <p>
+ * An idle subscriber is only an open async response: no thread is held for
+ * it. Each subscriber has a bounded queue drained by a small shared pool, so a
+ * slow client never delays publishers or other subscribers. When a queue
+ * overflows its backlog is replaced by a single {@code resync} event, telling
+ * the client to refetch instead of applying deltas.
+ */
+@Slf4j
+@Component
+public class EventBroadcaster {
+
+    static final String RESYNC = "resync";
+
+    // Marker queued by the heartbeat, sent as an SSE comment
+    private static final ChangeEvent HEARTBEAT = new ChangeEvent();
+
+    private final int queueCapacity;
+    private final int maxSubscribers;
+    private final Duration timeout;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicLong sequence = new AtomicLong();
+    private final ExecutorService dispatcher;
+
+    public EventBroadcaster(@Value("${app.events.dispatch-threads:4}") int dispatchThreads,
+                            @Value("${app.events.queue-capacity:256}") int queueCapacity,
+                            @Value("${app.events.max-subscribers:1000}") int maxSubscribers,
+                            @Value("${app.events.timeout:30m}") Duration timeout) {
+        this.queueCapacity = queueCapacity;
+        this.maxSubscribers = maxSubscribers;
+        this.timeout = timeout;
+        AtomicInteger threadCount = new AtomicInteger();
+        dispatcher = Executors.newFixedThreadPool(dispatchThreads, runnable -> {
+            Thread thread = new Thread(runnable, "sse-dispatch-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Register a new subscriber. Throws IllegalStateException when the subscriber limit is reached.
+     */
+    public SseEmitter subscribe() {
+        if (subscribers.size() >= maxSubscribers) {
+            throw new IllegalStateException("Too many event subscribers");
+        }
+        SseEmitter emitter = createEmitter(timeout);
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(error -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        log.debug("Event subscriber added ({} total)", subscribers.size());
+        return emitter;
+    }
+
+    /**
+     * Queue an event for every subscriber. Never blocks on a client.
+     */
+    public void broadcast(ChangeEvent event) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        ChangeEvent sequenced = event.toBuilder()
+                .sequence(sequence.incrementAndGet())
+                .timestamp(event.getTimestamp() != null ? event.getTimestamp() : LocalDateTime.now())
+                .build();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(sequenced);
+            schedule(subscriber);
+        }
+    }
+
+    /**
+     * Keep idle connections open through proxies and detect clients that went away
+     */
+    @Scheduled(fixedRateString = "${app.events.heartbeat-ms:25000}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.offerHeartbeat()) {
+                schedule(subscriber);
+            }
+        }
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+        dispatcher.shutdownNow();
+    }
+
+    /**
+     * The emitter of a new subscriber; tests override it to stand in for a client
+     */
+    SseEmitter createEmitter(Duration timeout) {
+        return new SseEmitter(timeout.toMillis());
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.scheduled.compareAndSet(false, true)) {
+            try {
+                dispatcher.execute(() -> drain(subscriber));
+            } catch (RejectedExecutionException e) {
+                subscriber.scheduled.set(false);
+            }
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            ChangeEvent event;
+            while ((event = subscriber.poll()) != null) {
+                if (event == HEARTBEAT) {
+                    subscriber.emitter.send(SseEmitter.event().comment("heartbeat"));
+                } else {
+                    subscriber.emitter.send(SseEmitter.event()
+                            .id(Long.toString(event.getSequence()))
+                            .name(event.getType())
+                            .data(event, MediaType.APPLICATION_JSON));
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Dropping event subscriber: {}", e.getMessage());
+            subscribers.remove(subscriber);
+            subscriber.emitter.completeWithError(e);
+            return;
+        } finally {
+            subscriber.scheduled.set(false);
+        }
+        // An event queued after the last poll but before the flag was cleared
+        if (subscriber.hasPending()) {
+            schedule(subscriber);
+        }
+    }
+
+    private ChangeEvent resyncEvent() {
+        return ChangeEvent.builder()
+                .sequence(sequence.incrementAndGet())
+                .type(RESYNC)
+                .timestamp(LocalDateTime.now())
+                .build();
+    }
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final Queue<ChangeEvent> queue = new ArrayDeque<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        synchronized void offer(ChangeEvent event) {
+            if (queue.size() >= queueCapacity) {
+                // The client fell behind: it refetches instead of catching up
+                queue.clear();
+                queue.add(resyncEvent());
+            }
+            queue.add(event);
+        }
+
+        synchronized boolean offerHeartbeat() {
+            if (!queue.isEmpty()) {
+                return false;
+            }
+            queue.add(HEARTBEAT);
+            return true;
+        }
+
+        synchronized ChangeEvent poll() {
+            return queue.poll();
+        }
+
+        synchronized boolean hasPending() {
+            return !queue.isEmpty();
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.preptracker.service;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Writes stored images to the response without copying them through the heap.
+ * <p>
+ * When the connector supports it (Tomcat NIO does by default) the body is
+ * handed to the container as a sendfile request, so the kernel copies the
+ * file to the socket after the request thread has returned. Otherwise the
+ * file is sent with {@link FileChannel#transferTo}. Image names are random
+ * and files are never rewritten, so responses carry an immutable one-year
+ * Cache-Control, a strong ETag and Last-Modified, and support single byte
+ * ranges.
+ */
+@Slf4j
+@Component
+public class ImageDelivery {
+
+    // Request attributes of Tomcat's sendfile support (org.apache.catalina.Globals)
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private static final String CACHE_CONTROL =
+            CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable().getHeaderValue();
+
+    // Opened directly, a stored file gets no script, plugins or same-origin access
+    private static final String CONTENT_SECURITY_POLICY = "default-src 'none'; img-src 'self'; sandbox";
+
+    private static final String REVALIDATE = CacheControl.noCache().cachePublic().getHeaderValue();
+
+    /**
+     * Smaller bodies are written directly; a sendfile hand-off costs more than the copy
+     */
+    @Value("${app.images.sendfile-threshold:48KB}")
+    private DataSize sendfileThreshold;
+
+    public void serve(ImageService.ImageFile image, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        serve(image, request, response, true);
+    }
+
+    /**
+     * Serve an image whose URL may later resolve to a different file (a
+     * variant requested before it was generated). Such responses are
+     * revalidated with the ETag instead of being cached as immutable.
+     */
+    public void serve(ImageService.ImageFile image, HttpServletRequest request, HttpServletResponse response,
+                      boolean immutable) throws IOException {
+        String etag = "\"" + image.getFileName() + "-" + image.getSize() + "\"";
+        response.setHeader(HttpHeaders.CACHE_CONTROL, immutable ? CACHE_CONTROL : REVALIDATE);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (new ServletWebRequest(request, response).checkNotModified(etag, image.getLastModified())) {
+            return;
+        }
+        // Files stored before uploads were limited to raster types (an SVG, say)
+        // are only offered as downloads, never rendered in this origin
+        boolean inline = ImageService.isRasterType(image.getContentType());
+        response.setContentType(inline ? image.getContentType() : MediaType.APPLICATION_OCTET_STREAM_VALUE);
+        response.setHeader("X-Content-Type-Options", "nosniff");
+        response.setHeader("Content-Security-Policy", CONTENT_SECURITY_POLICY);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                (inline ? "inline" : "attachment") + "; filename=\"" + image.getFileName() + "\"");
+
+        long size = image.getSize();
+        long start = 0;
+        long end = size - 1;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        if (range != null && ifRangeMatches(request, etag, image.getLastModified())) {
+            List<HttpRange> ranges;
+            try {
+                ranges = HttpRange.parseRanges(range);
+            } catch (IllegalArgumentException e) {
+                ranges = List.of();
+            }
+            // Several ranges would need a multipart body; the whole file is sent instead
+            if (ranges.size() == 1) {
+                start = ranges.get(0).getRangeStart(size);
+                end = ranges.get(0).getRangeEnd(size);
+                if (start >= size || start > end) {
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                    response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                    return;
+                }
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size);
+            }
+        }
+        long length = end - start + 1;
+        response.setContentLengthLong(length);
+        if ("HEAD".equals(request.getMethod()) || length <= 0) {
+            return;
+        }
+
+        if (length >= sendfileThreshold.toBytes() && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            request.setAttribute(SENDFILE_FILENAME, image.getPath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            // Exclusive end
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+        transfer(image, start, length, response);
+    }
+
+    private void transfer(ImageService.ImageFile image, long start, long length, HttpServletResponse response)
+            throws IOException {
+        try (FileChannel file = FileChannel.open(image.getPath(), StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = length;
+            while (remaining > 0) {
+                long sent = file.transferTo(position, remaining, out);
+                if (sent <= 0) {
+                    break;
+                }
+                position += sent;
+                remaining -= sent;
+            }
+        } catch (IOException e) {
+            // Usually the client went away; the response is already committed
+            log.debug("Transfer of image {} aborted: {}", image.getFileName(), e.getMessage());
+        }
+    }
+
+    /**
+     * A Range request only applies when an If-Range validator still matches
+     */
+    private static boolean ifRangeMatches(HttpServletRequest request, String etag, long lastModified) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.equals(etag);
+        }
+        try {
+            long date = request.getDateHeader(HttpHeaders.IF_RANGE);
+            return date != -1 && lastModified / 1000 <= date / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
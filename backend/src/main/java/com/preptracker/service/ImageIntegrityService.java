@@ -0,0 +1,315 @@
+package com.preptracker.service;
+
+import com.preptracker.config.CacheConfig;
+import com.preptracker.dto.ImageIntegrityReport;
+import com.preptracker.model.ImageBlob;
+import com.preptracker.model.ImageVariant;
+import com.preptracker.repository.ImageAttachmentRepository;
+import com.preptracker.repository.ImageBlobRepository;
+import com.preptracker.repository.ImageVariantRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Background maintenance of the image store, on a single low-priority
+ * thread so request threads never wait for it.
+ * <p>
+ * At startup, files still in the flat upload directory are moved into
+ * their shard directories (see {@link ImageService#shardedPath}). Each file
+ * is hard-linked into place first and the image cache cleared before the
+ * flat name is removed, so requests keep finding it throughout.
+ * <p>
+ * The integrity scan runs on a schedule and on demand. It reports files
+ * nothing refers to and rows whose file is gone. In repair mode it deletes
+ * the orphan files, variant rows without a file, and attachments without
+ * a file; their blob references are released as for a normal delete.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ImageIntegrityService {
+
+    private static final int SAMPLE_LIMIT = 100;
+    private static final int BATCH_SIZE = 500;
+
+    private final ImageService imageService;
+    private final ImageAttachmentRepository imageAttachmentRepository;
+    private final ImageBlobRepository imageBlobRepository;
+    private final ImageVariantRepository imageVariantRepository;
+    private final CacheService cacheService;
+
+    @Value("${app.images.integrity.repair:false}")
+    private boolean scheduledRepair;
+
+    // Younger files may belong to an upload that has not saved its row yet
+    @Value("${app.images.integrity.min-age:10m}")
+    private Duration minAge;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "image-maintenance");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private volatile ImageIntegrityReport lastReport;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateOnStartup() {
+        executor.execute(() -> {
+            try {
+                migrateFlatFiles();
+            } catch (Exception e) {
+                log.error("Image store migration failed, unmigrated files are still served from the flat layout", e);
+            }
+        });
+    }
+
+    @Scheduled(cron = "${app.images.integrity.cron:0 45 4 * * *}")
+    public void scheduledScan() {
+        startScan(scheduledRepair);
+    }
+
+    /**
+     * Queue a scan. Returns false when one is already queued or running.
+     */
+    public boolean startScan(boolean repair) {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        lastReport = ImageIntegrityReport.builder()
+                .state(ImageIntegrityReport.State.RUNNING)
+                .repair(repair)
+                .startedAt(LocalDateTime.now())
+                .build();
+        try {
+            executor.execute(() -> {
+                try {
+                    lastReport = scan(repair);
+                } catch (Exception e) {
+                    log.error("Image integrity scan failed", e);
+                    lastReport.setState(ImageIntegrityReport.State.FAILED);
+                    lastReport.setError(e.getMessage());
+                    lastReport.setFinishedAt(LocalDateTime.now());
+                } finally {
+                    running.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            running.set(false);
+            return false;
+        }
+        return true;
+    }
+
+    public ImageIntegrityReport getLastReport() {
+        return lastReport;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void migrateFlatFiles() throws IOException {
+        Path root = imageService.getUploadPath();
+        List<Path> flatFiles = new ArrayList<>();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(root,
+                entry -> Files.isRegularFile(entry) && !entry.getFileName().toString().startsWith("."))) {
+            entries.forEach(flatFiles::add);
+        }
+        if (flatFiles.isEmpty()) {
+            return;
+        }
+        log.info("Moving {} images into the sharded layout", flatFiles.size());
+        long started = System.nanoTime();
+        int migrated = 0;
+        for (int from = 0; from < flatFiles.size(); from += BATCH_SIZE) {
+            migrated += migrateBatch(flatFiles.subList(from, Math.min(from + BATCH_SIZE, flatFiles.size())));
+        }
+        log.info("Moved {} images into the sharded layout in {} ms", migrated,
+                Duration.ofNanos(System.nanoTime() - started).toMillis());
+    }
+
+    private int migrateBatch(List<Path> flatFiles) {
+        List<Path> linked = new ArrayList<>();
+        for (Path flat : flatFiles) {
+            String fileName = flat.getFileName().toString();
+            Path target = imageService.shardedPath(fileName);
+            try {
+                Files.createDirectories(target.getParent());
+                if (!Files.exists(target)) {
+                    link(flat, target);
+                }
+                imageAttachmentRepository.updateFilePath(fileName, target.toString());
+                linked.add(flat);
+            } catch (IOException e) {
+                log.warn("Could not move {} into the sharded layout: {}", fileName, e.getMessage());
+            }
+        }
+        // Cached lookups may still point at the flat names
+        cacheService.clearCache(CacheConfig.IMAGES_CACHE);
+        for (Path flat : linked) {
+            try {
+                Files.deleteIfExists(flat);
+            } catch (IOException e) {
+                log.warn("Could not remove migrated file {}: {}", flat, e.getMessage());
+            }
+        }
+        return linked.size();
+    }
+
+    private static void link(Path flat, Path target) throws IOException {
+        try {
+            Files.createLink(target, flat);
+        } catch (UnsupportedOperationException | IOException e) {
+            Path temp = target.resolveSibling("." + target.getFileName() + ".migrate");
+            try {
+                Files.copy(flat, temp, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.COPY_ATTRIBUTES);
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        }
+    }
+
+    private ImageIntegrityReport scan(boolean repair) throws IOException {
+        ImageIntegrityReport report = lastReport;
+        long started = System.nanoTime();
+        List<String> orphanSamples = new ArrayList<>();
+        List<String> missingSamples = new ArrayList<>();
+
+        Set<String> known = new HashSet<>(imageAttachmentRepository.findAllFileNames());
+        known.addAll(imageBlobRepository.findAllFileNames());
+        known.addAll(imageVariantRepository.findAllFileNames());
+
+        // Files nothing refers to, including stale spool and temporary files
+        Path root = imageService.getUploadPath();
+        Path incoming = root.resolve(ImageService.INCOMING_DIR);
+        long cutoff = System.currentTimeMillis() - minAge.toMillis();
+        try (Stream<Path> paths = Files.walk(root)) {
+            Iterator<Path> files = paths.iterator();
+            while (files.hasNext()) {
+                Path file = files.next();
+                BasicFileAttributes attributes;
+                try {
+                    attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                } catch (NoSuchFileException e) {
+                    continue;
+                }
+                if (!attributes.isRegularFile()) {
+                    continue;
+                }
+                report.setFilesScanned(report.getFilesScanned() + 1);
+                String name = file.getFileName().toString();
+                boolean referenced = !file.startsWith(incoming) && !name.startsWith(".") && known.contains(name);
+                if (referenced || attributes.lastModifiedTime().toMillis() > cutoff) {
+                    continue;
+                }
+                report.setOrphanFiles(report.getOrphanFiles() + 1);
+                sample(orphanSamples, root.relativize(file).toString());
+                if (repair) {
+                    Files.deleteIfExists(file);
+                    report.setRepaired(report.getRepaired() + 1);
+                }
+            }
+        }
+
+        // Rows whose file is gone
+        List<String> brokenAttachments = new ArrayList<>();
+        forEachPage(imageAttachmentRepository::findAll, attachment -> {
+            if (!Files.exists(imageService.locate(attachment.getFileName()))) {
+                report.setMissingAttachmentFiles(report.getMissingAttachmentFiles() + 1);
+                sample(missingSamples, attachment.getId() + " " + attachment.getFileName());
+                brokenAttachments.add(attachment.getId());
+            }
+        });
+        List<ImageVariant> brokenVariants = new ArrayList<>();
+        forEachPage(imageVariantRepository::findAll, variant -> {
+            if (!Files.exists(imageService.locate(variant.getFileName()))) {
+                report.setMissingVariantFiles(report.getMissingVariantFiles() + 1);
+                brokenVariants.add(variant);
+            }
+        });
+        forEachPage(imageBlobRepository::findAll, (ImageBlob blob) -> {
+            if (blob.getRefCount() > 0 && !Files.exists(imageService.locate(blob.getFileName()))) {
+                report.setMissingBlobFiles(report.getMissingBlobFiles() + 1);
+            }
+        });
+
+        if (repair) {
+            // Dropping the attachments releases their blobs, which are then collected
+            for (String attachmentId : brokenAttachments) {
+                try {
+                    imageService.deleteImage(attachmentId);
+                    report.setRepaired(report.getRepaired() + 1);
+                } catch (RuntimeException e) {
+                    // Deleted by a request meanwhile
+                }
+            }
+            imageVariantRepository.deleteAll(brokenVariants);
+            report.setRepaired(report.getRepaired() + brokenVariants.size());
+            cacheService.clearCache(CacheConfig.IMAGES_CACHE);
+        }
+
+        report.setOrphanSamples(orphanSamples);
+        report.setMissingAttachmentSamples(missingSamples);
+        report.setState(ImageIntegrityReport.State.COMPLETED);
+        report.setFinishedAt(LocalDateTime.now());
+        report.setDurationMs(Duration.ofNanos(System.nanoTime() - started).toMillis());
+        log.info("Image integrity scan: {} files, {} orphans, {} attachments, {} variants and {} blobs without a file{}",
+                report.getFilesScanned(), report.getOrphanFiles(), report.getMissingAttachmentFiles(),
+                report.getMissingVariantFiles(), report.getMissingBlobFiles(),
+                repair ? ", " + report.getRepaired() + " repaired" : "");
+        return report;
+    }
+
+    private static <T> void forEachPage(Function<PageRequest, Page<T>> query, Consumer<T> action) {
+        PageRequest request = PageRequest.of(0, BATCH_SIZE, Sort.by("id"));
+        Page<T> page;
+        do {
+            page = query.apply(request);
+            page.forEach(action);
+            request = request.next();
+        } while (page.hasNext());
+    }
+
+    private static void sample(List<String> samples, String value) {
+        if (samples.size() < SAMPLE_LIMIT) {
+            samples.add(value);
+        }
+    }
+}
@@ -1,119 +1,585 @@
 package com.preptracker.service;
 
+import com.preptracker.config.CacheConfig;
 import com.preptracker.model.ImageAttachment;
+import com.preptracker.model.ImageBlob;
+import com.preptracker.model.ImageVariant;
 import com.preptracker.repository.ImageAttachmentRepository;
+import com.preptracker.repository.ImageBlobRepository;
+import com.preptracker.repository.ImageVariantRepository;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.multipart.MultipartFile;
 
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import java.io.IOException;
-import java.net.MalformedURLException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.Map;
+import java.util.Locale;
 import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
 
+@Slf4j
 @Service
 public class ImageService {
 
+    /**
+     * Subdirectory of the upload directory where multipart parts and streamed
+     * bodies are spooled, so moving them into place is a rename
+     */
+    public static final String INCOMING_DIR = ".incoming";
+
+    // Formats that cannot carry script, with the extension of their blob files;
+    // SVG and HTML could run it in this origin
+    private static final Map<String, String> RASTER_TYPES = Map.of(
+            "image/png", ".png",
+            "image/jpeg", ".jpg",
+            "image/gif", ".gif",
+            "image/webp", ".webp");
+
+    private static final Pattern HEX_PREFIX = Pattern.compile("[0-9a-fA-F]{4}");
+
     @Value("${app.upload.dir:./uploads}")
     private String uploadDir;
 
+    @Value("${app.images.blob-gc.grace:1h}")
+    private Duration blobGracePeriod;
+
+    @Value("${app.images.upload.threads:4}")
+    private int uploadThreads;
+
+    @Value("${app.images.upload.queue-capacity:64}")
+    private int uploadQueueCapacity;
+
+    @Value("${spring.servlet.multipart.max-file-size:10MB}")
+    private DataSize maxFileSize;
+
     private Path uploadPath;
 
+    private Path incomingPath;
+
+    private ThreadPoolExecutor uploadExecutor;
+
+    private final Object[] blobLocks = Stream.generate(Object::new).limit(64).toArray();
+
     @Autowired
     private ImageAttachmentRepository imageAttachmentRepository;
 
+    @Autowired
+    private ImageVariantRepository imageVariantRepository;
+
+    @Autowired
+    private ImageBlobRepository imageBlobRepository;
+
+    @Autowired
+    private CacheService cacheService;
+
+    @Autowired
+    private ImageVariantService imageVariantService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
     @PostConstruct
     public void init() {
         uploadPath = Paths.get(uploadDir).toAbsolutePath().normalize();
+        incomingPath = uploadPath.resolve(INCOMING_DIR);
         try {
-            Files.createDirectories(uploadPath);
+            Files.createDirectories(incomingPath);
         } catch (IOException e) {
             throw new RuntimeException("Could not create upload directory: " + uploadDir, e);
         }
+        AtomicInteger threadCount = new AtomicInteger();
+        // A full queue runs the job on the request thread, so uploads are never rejected
+        uploadExecutor = new ThreadPoolExecutor(uploadThreads, uploadThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(uploadQueueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "image-upload-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        uploadExecutor.shutdownNow();
     }
 
     public ImageAttachment uploadImage(MultipartFile file, String itemId) throws IOException {
-        // Validate file
-        if (file.isEmpty()) {
-            throw new IllegalArgumentException("File is empty");
+        return uploadImages(List.of(file), itemId).get(0);
+    }
+
+    /**
+     * Store several uploads concurrently on the upload pool and save their
+     * attachments in one batch. Either every file is attached or none is.
+     */
+    public List<ImageAttachment> uploadImages(List<MultipartFile> files, String itemId) throws IOException {
+        for (MultipartFile file : files) {
+            if (file.isEmpty()) {
+                throw new IllegalArgumentException("File is empty");
+            }
+            validateContentType(file.getContentType());
         }
 
-        String contentType = file.getContentType();
-        if (contentType == null || (!contentType.startsWith("image/") && !contentType.equals("image/gif"))) {
-            throw new IllegalArgumentException("Only image files (including GIFs) are allowed");
+        List<PendingUpload> pending = new ArrayList<>();
+        if (files.size() == 1) {
+            pending.add(store(files.get(0), itemId));
+            return saveAll(pending);
+        }
+        List<Future<PendingUpload>> futures = new ArrayList<>();
+        for (MultipartFile file : files) {
+            futures.add(uploadExecutor.submit(() -> store(file, itemId)));
         }
+        Throwable failure = null;
+        for (Future<PendingUpload> future : futures) {
+            try {
+                pending.add(future.get());
+            } catch (ExecutionException e) {
+                failure = failure != null ? failure : e.getCause();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failure = failure != null ? failure : new InterruptedIOException("Upload interrupted");
+            }
+        }
+        if (failure != null) {
+            if (failure instanceof IOException ioException) {
+                throw ioException;
+            }
+            if (failure instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IOException(failure);
+        }
+        return saveAll(pending);
+    }
 
-        // Generate unique filename
-        String originalFileName = file.getOriginalFilename();
-        String extension = "";
-        if (originalFileName != null && originalFileName.contains(".")) {
-            extension = originalFileName.substring(originalFileName.lastIndexOf("."));
+    /**
+     * Store a raw request body as an image. The body is hashed while it is
+     * written to the upload directory in a single pass, then renamed to its
+     * blob name, or dropped when the blob already exists.
+     */
+    public ImageAttachment uploadStream(InputStream body, String originalFileName, String contentType,
+                                        String itemId) throws IOException {
+        validateContentType(contentType);
+        MessageDigest digest = sha256Digest();
+        Path temp = incomingPath.resolve("stream-" + UUID.randomUUID() + ".upload");
+        try {
+            long size = 0;
+            try (ReadableByteChannel in = Channels.newChannel(body);
+                 FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+                while (in.read(buffer) != -1) {
+                    buffer.flip();
+                    size += buffer.remaining();
+                    if (size > maxFileSize.toBytes()) {
+                        throw new IllegalArgumentException("File exceeds " + maxFileSize);
+                    }
+                    digest.update(buffer.duplicate());
+                    while (buffer.hasRemaining()) {
+                        out.write(buffer);
+                    }
+                    buffer.clear();
+                }
+            }
+            if (size == 0) {
+                throw new IllegalArgumentException("File is empty");
+            }
+            String contentHash = HexFormat.of().formatHex(digest.digest());
+            PendingUpload upload = store(contentHash, originalFileName, contentType, size, itemId,
+                    target -> Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING,
+                            StandardCopyOption.ATOMIC_MOVE));
+            return saveAll(List.of(upload)).get(0);
+        } finally {
+            Files.deleteIfExists(temp);
         }
-        String fileName = UUID.randomUUID().toString() + extension;
+    }
+
+    private PendingUpload store(MultipartFile file, String itemId) throws IOException {
+        return store(sha256(file), file.getOriginalFilename(), file.getContentType(), file.getSize(), itemId,
+                target -> writeFile(file, target));
+    }
 
-        // Save file to disk
-        Path targetPath = uploadPath.resolve(fileName);
-        Files.copy(file.getInputStream(), targetPath, StandardCopyOption.REPLACE_EXISTING);
+    private PendingUpload store(String contentHash, String originalFileName, String contentType, long size,
+                                String itemId, BlobWriter writer) throws IOException {
+        // Name the file after its content so identical uploads share one blob; the
+        // extension comes from the validated type, never from the client's name
+        contentType = baseType(contentType);
+        StoredBlob stored = storeBlob(contentHash, contentHash + RASTER_TYPES.get(contentType), contentType, size,
+                writer);
+        Path targetPath = locate(stored.blob().getFileName());
 
-        // Save metadata to database
         ImageAttachment attachment = ImageAttachment.builder()
                 .itemId(itemId)
-                .fileName(fileName)
+                .fileName(stored.blob().getFileName())
                 .originalFileName(originalFileName)
                 .contentType(contentType)
-                .fileSize(file.getSize())
+                .fileSize(size)
                 .filePath(targetPath.toString())
+                .contentHash(contentHash)
                 .uploadedAt(LocalDateTime.now())
                 .build();
+        return new PendingUpload(attachment, stored.created());
+    }
+
+    /**
+     * Save metadata to database in one batch, together with the blob
+     * references it adds, then queue variants for new blobs
+     */
+    private List<ImageAttachment> saveAll(List<PendingUpload> pending) {
+        List<ImageAttachment> saved = transactionTemplate.execute(status -> {
+            for (PendingUpload upload : pending) {
+                String contentHash = upload.attachment().getContentHash();
+                if (imageBlobRepository.incrementRefCount(contentHash) == 0) {
+                    throw new IllegalStateException("Blob vanished: " + contentHash);
+                }
+            }
+            return imageAttachmentRepository.saveAll(pending.stream().map(PendingUpload::attachment).toList());
+        });
+        for (int i = 0; i < saved.size(); i++) {
+            if (pending.get(i).created()) {
+                imageVariantService.schedule(saved.get(i));
+            }
+        }
+        return saved;
+    }
+
+    private static void validateContentType(String contentType) {
+        if (!isRasterType(contentType)) {
+            throw new IllegalArgumentException("Only PNG, JPEG, GIF and WebP images are allowed");
+        }
+    }
+
+    /**
+     * Whether the content type is one of the raster image types that uploads
+     * are limited to and that are served inline
+     */
+    public static boolean isRasterType(String contentType) {
+        return contentType != null && RASTER_TYPES.containsKey(baseType(contentType));
+    }
+
+    private static String baseType(String contentType) {
+        int parameters = contentType.indexOf(';');
+        return (parameters >= 0 ? contentType.substring(0, parameters) : contentType).trim().toLowerCase(Locale.ROOT);
+    }
 
-        return imageAttachmentRepository.save(attachment);
+    /**
+     * Make sure a blob with this content exists, writing the file only when
+     * no blob has it yet (or its file has gone missing). The reference is
+     * added by {@link #saveAll} in the transaction that saves the attachment;
+     * until then the blob is kept from collection by restarting its grace
+     * period, and a new blob starts out unreferenced, so a failed upload
+     * leaves nothing the collector will not remove.
+     */
+    private StoredBlob storeBlob(String contentHash, String fileName, String contentType, long size,
+                                 BlobWriter writer) throws IOException {
+        synchronized (blobLock(contentHash)) {
+            ImageBlob blob = imageBlobRepository.findById(contentHash).orElse(null);
+            if (blob != null) {
+                imageBlobRepository.deferCollection(contentHash, LocalDateTime.now());
+                Path existing = locate(blob.getFileName());
+                if (!Files.exists(existing)) {
+                    log.warn("Blob file {} was missing, rewriting it", blob.getFileName());
+                    Files.createDirectories(existing.getParent());
+                    writer.write(existing);
+                }
+                return new StoredBlob(blob, false);
+            }
+            Path target = shardedPath(fileName);
+            Files.createDirectories(target.getParent());
+            writer.write(target);
+            LocalDateTime now = LocalDateTime.now();
+            blob = imageBlobRepository.save(ImageBlob.builder()
+                    .id(contentHash)
+                    .fileName(fileName)
+                    .contentType(contentType)
+                    .fileSize(size)
+                    .refCount(0)
+                    .createdAt(now)
+                    .unreferencedSince(now)
+                    .build());
+            return new StoredBlob(blob, true);
+        }
+    }
+
+    /**
+     * Move the upload into place under a temporary name first, so a reader
+     * never sees a partial file. Parts are spooled to the incoming directory
+     * on the same file system, so this is a rename rather than a copy.
+     */
+    private void writeFile(MultipartFile file, Path target) throws IOException {
+        Path temp = target.resolveSibling("." + target.getFileName() + ".upload");
+        try {
+            file.transferTo(temp.toFile());
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static String sha256(MultipartFile file) throws IOException {
+        MessageDigest digest = sha256Digest();
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream in = file.getInputStream()) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static MessageDigest sha256Digest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Object blobLock(String contentHash) {
+        return blobLocks[Math.floorMod(contentHash.hashCode(), blobLocks.length)];
+    }
+
+    /**
+     * Where a stored file lives: two levels of subdirectories named after the
+     * first four hex characters of the (content hash or UUID) file name, so
+     * no directory grows past a few thousand entries. Other names are
+     * sharded by a hash of the name.
+     */
+    public Path shardedPath(String fileName) {
+        String key = fileName.length() >= 4 && HEX_PREFIX.matcher(fileName).lookingAt()
+                ? fileName.toLowerCase(Locale.ROOT)
+                : HexFormat.of().formatHex(sha256Digest().digest(fileName.getBytes(StandardCharsets.UTF_8)));
+        return uploadPath.resolve(key.substring(0, 2)).resolve(key.substring(2, 4)).resolve(fileName);
+    }
+
+    /**
+     * The sharded path of a stored file, or its flat path in the upload
+     * directory while it has not been migrated yet
+     */
+    public Path locate(String fileName) {
+        Path sharded = shardedPath(fileName);
+        if (Files.exists(sharded)) {
+            return sharded;
+        }
+        Path flat = uploadPath.resolve(fileName);
+        return Files.exists(flat) ? flat : sharded;
+    }
+
+    public Path getUploadPath() {
+        return uploadPath;
+    }
+
+    /**
+     * Stored names are a single path segment and never hidden files
+     */
+    private static boolean isValidFileName(String fileName) {
+        return !fileName.isEmpty() && !fileName.startsWith(".")
+                && fileName.indexOf('/') < 0 && fileName.indexOf('\\') < 0;
     }
 
     public List<ImageAttachment> getImagesByItemId(String itemId) {
         return imageAttachmentRepository.findByItemIdOrderByUploadedAtAsc(itemId);
     }
 
-    public Resource loadImage(String fileName) throws MalformedURLException {
-        Path filePath = uploadPath.resolve(fileName).normalize();
-        Resource resource = new UrlResource(filePath.toUri());
-        
-        if (resource.exists() && resource.isReadable()) {
-            return resource;
-        } else {
-            throw new RuntimeException("Image not found: " + fileName);
+    /**
+     * Location, size and content type of a stored image, or null when there is
+     * no such file. The content type is the one recorded at upload; files
+     * without an attachment row fall back to their extension. Names are
+     * content hashes (random for older files) and files are never rewritten,
+     * so the result is cached.
+     */
+    @Cacheable(value = CacheConfig.IMAGES_CACHE, key = "#fileName", unless = "#result == null")
+    public ImageFile findImage(String fileName) throws IOException {
+        if (!isValidFileName(fileName)) {
+            return null;
+        }
+        Path filePath = locate(fileName);
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(filePath, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+        if (!attributes.isRegularFile()) {
+            return null;
+        }
+        String contentType = imageAttachmentRepository.findFirstByFileName(fileName)
+                .map(ImageAttachment::getContentType)
+                .orElseGet(() -> MediaTypeFactory.getMediaType(fileName)
+                        .orElse(MediaType.APPLICATION_OCTET_STREAM)
+                        .toString());
+        return new ImageFile(fileName, filePath, contentType, attributes.size(),
+                attributes.lastModifiedTime().toMillis());
+    }
+
+    /**
+     * A generated variant of a stored image, or null while it is still being
+     * generated or when the image has no such variant
+     */
+    @Cacheable(value = CacheConfig.IMAGES_CACHE, key = "#fileName + '@' + #size", unless = "#result == null")
+    public ImageFile findVariant(String fileName, ImageVariant.Size size) throws IOException {
+        ImageVariant variant = imageVariantRepository.findFirstBySourceFileNameAndSize(fileName, size).orElse(null);
+        if (variant == null) {
+            return null;
+        }
+        Path filePath = locate(variant.getFileName());
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(filePath, BasicFileAttributes.class);
+            return new ImageFile(variant.getFileName(), filePath, variant.getContentType(), attributes.size(),
+                    attributes.lastModifiedTime().toMillis());
+        } catch (NoSuchFileException e) {
+            return null;
         }
     }
 
+    @Transactional
+    @CacheEvict(value = CacheConfig.IMAGES_CACHE, allEntries = true)
     public void deleteImage(String imageId) throws IOException {
         ImageAttachment attachment = imageAttachmentRepository.findById(imageId)
                 .orElseThrow(() -> new RuntimeException("Image not found: " + imageId));
 
-        // Delete file from disk
-        Path filePath = Paths.get(attachment.getFilePath());
-        Files.deleteIfExists(filePath);
+        release(attachment);
 
         // Delete metadata from database
         imageAttachmentRepository.delete(attachment);
     }
 
+    @Transactional
+    @CacheEvict(value = CacheConfig.IMAGES_CACHE, allEntries = true)
     public void deleteImagesByItemId(String itemId) throws IOException {
         List<ImageAttachment> attachments = imageAttachmentRepository.findByItemIdOrderByUploadedAtAsc(itemId);
         
         for (ImageAttachment attachment : attachments) {
-            Path filePath = Paths.get(attachment.getFilePath());
-            Files.deleteIfExists(filePath);
+            release(attachment);
         }
         
         imageAttachmentRepository.deleteByItemId(itemId);
     }
-}
 
+    /**
+     * Delete the attachments of items that no longer exist, as left by a
+     * replace import. Returns the number deleted.
+     */
+    @Transactional
+    @CacheEvict(value = CacheConfig.IMAGES_CACHE, allEntries = true)
+    public int deleteImagesOfMissingItems() throws IOException {
+        List<ImageAttachment> attachments = imageAttachmentRepository.findWithoutItem();
+        for (ImageAttachment attachment : attachments) {
+            release(attachment);
+        }
+        imageAttachmentRepository.deleteAllInBatch(attachments);
+        return attachments.size();
+    }
+
+    /**
+     * Drop an attachment's claim on its file. Blobs are only unreferenced here
+     * and removed by {@link #collectGarbage()}; files stored before
+     * deduplication belong to a single attachment and are deleted directly.
+     */
+    private void release(ImageAttachment attachment) throws IOException {
+        if (attachment.getContentHash() != null) {
+            imageBlobRepository.decrementRefCount(attachment.getContentHash(), LocalDateTime.now());
+            return;
+        }
+        Path filePath = locate(attachment.getFileName());
+        Files.deleteIfExists(filePath);
+        imageVariantService.deleteVariants(filePath);
+    }
+
+    /**
+     * Delete blobs that have had no attachment for the grace period, along
+     * with their variants. The grace period keeps an undo or a re-upload of
+     * a just deleted image from rewriting the file.
+     */
+    @Scheduled(initialDelayString = "${app.images.blob-gc.interval-ms:3600000}",
+               fixedDelayString = "${app.images.blob-gc.interval-ms:3600000}")
+    public void collectGarbage() {
+        int removed = 0;
+        LocalDateTime cutoff = LocalDateTime.now().minus(blobGracePeriod);
+        for (String contentHash : imageBlobRepository.findUnreferencedIds(cutoff)) {
+            synchronized (blobLock(contentHash)) {
+                ImageBlob blob = imageBlobRepository.findById(contentHash).orElse(null);
+                // Skip blobs that gained a reference or had their grace period restarted since the query
+                if (blob == null || imageBlobRepository.deleteIfUnreferenced(contentHash, cutoff) == 0) {
+                    continue;
+                }
+                Path filePath = locate(blob.getFileName());
+                try {
+                    Files.deleteIfExists(filePath);
+                } catch (IOException e) {
+                    log.warn("Could not delete blob file {}: {}", filePath, e.getMessage());
+                }
+                imageVariantService.deleteVariants(filePath);
+                removed++;
+            }
+        }
+        if (removed > 0) {
+            cacheService.clearCache(CacheConfig.IMAGES_CACHE);
+            log.info("Deleted {} unreferenced image blobs", removed);
+        }
+    }
+
+    private record StoredBlob(ImageBlob blob, boolean created) {
+    }
+
+    private record PendingUpload(ImageAttachment attachment, boolean created) {
+    }
+
+    @FunctionalInterface
+    private interface BlobWriter {
+        void write(Path target) throws IOException;
+    }
+
+    /**
+     * A stored image file as served to clients
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class ImageFile {
+        private final String fileName;
+        private final Path path;
+        private final String contentType;
+        private final long size;
+        private final long lastModified;
+    }
+}
@@ -0,0 +1,267 @@
+package com.preptracker.service;
+
+import com.preptracker.model.ImageAttachment;
+import com.preptracker.model.ImageVariant;
+import com.preptracker.repository.ImageVariantRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generates the downscaled {@link ImageVariant}s of uploaded images on a
+ * small bounded worker pool, so uploads return as soon as the original is
+ * stored. Variants are written as WebP when an ImageIO WebP writer is on the
+ * classpath, otherwise as JPEG, or PNG for images with transparency.
+ * <p>
+ * GIFs are left alone (a still thumbnail would drop the animation), as are
+ * images already within a variant's size; those requests fall back to the
+ * original. When the queue is full the job is dropped and the original is
+ * served as well.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ImageVariantService {
+
+    private final ImageVariantRepository imageVariantRepository;
+
+    @Value("${app.images.variants.threads:2}")
+    private int threads;
+
+    @Value("${app.images.variants.queue-capacity:200}")
+    private int queueCapacity;
+
+    @Value("${app.images.variants.jpeg-quality:0.85}")
+    private float jpegQuality;
+
+    private ThreadPoolExecutor executor;
+
+    private String format;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "image-variant-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    // Resizing is background work; request threads come first
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                });
+        format = ImageIO.getImageWritersByFormatName("webp").hasNext() ? "webp" : null;
+        log.info("Image variants are written as {}", format != null ? "webp" : "jpeg/png");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Queue variant generation for a freshly stored image. Never blocks.
+     */
+    public void schedule(ImageAttachment attachment) {
+        if (attachment.getContentType() == null || attachment.getContentType().equals("image/gif")) {
+            return;
+        }
+        try {
+            executor.execute(() -> generate(attachment));
+        } catch (RejectedExecutionException e) {
+            log.warn("Variant queue is full, serving {} without variants", attachment.getFileName());
+        }
+    }
+
+    /**
+     * Remove the variant files and rows of a stored image
+     */
+    public void deleteVariants(Path source) {
+        List<ImageVariant> variants = imageVariantRepository.findBySourceFileName(source.getFileName().toString());
+        deleteFiles(variants.stream().map(variant -> source.resolveSibling(variant.getFileName())).toList());
+        imageVariantRepository.deleteAll(variants);
+    }
+
+    private void generate(ImageAttachment attachment) {
+        long started = System.nanoTime();
+        Path source = Paths.get(attachment.getFilePath());
+        List<Path> written = new ArrayList<>();
+        try {
+            BufferedImage image = read(source, ImageVariant.Size.MEDIUM.getMaxDimension());
+            if (image == null) {
+                log.debug("No ImageIO reader for {}, skipping variants", attachment.getFileName());
+                return;
+            }
+            for (ImageVariant.Size size : ImageVariant.Size.values()) {
+                ImageVariant variant = write(attachment, source, image, size);
+                if (variant != null) {
+                    written.add(source.resolveSibling(variant.getFileName()));
+                    imageVariantRepository.save(variant);
+                }
+            }
+            // The image may have been deleted while it was being resized
+            if (!written.isEmpty() && !Files.exists(source)) {
+                deleteVariants(source);
+                return;
+            }
+            log.debug("Generated {} variants of {} in {} ms", written.size(), attachment.getFileName(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        } catch (Exception e) {
+            log.warn("Could not generate variants of {}: {}", attachment.getFileName(), e.getMessage());
+            deleteFiles(written);
+        }
+    }
+
+    /**
+     * Decode the image, subsampling large sources so the decoded copy is no
+     * more than about twice the largest variant
+     */
+    private static BufferedImage read(Path source, int largestVariant) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(source.toFile())) {
+            if (input == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int longest = Math.max(reader.getWidth(0), reader.getHeight(0));
+                ImageReadParam param = reader.getDefaultReadParam();
+                int step = longest / (largestVariant * 2);
+                if (step > 1) {
+                    param.setSourceSubsampling(step, step, 0, 0);
+                }
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private ImageVariant write(ImageAttachment attachment, Path source, BufferedImage image,
+                               ImageVariant.Size size) throws IOException {
+        int longest = Math.max(image.getWidth(), image.getHeight());
+        if (longest <= size.getMaxDimension()) {
+            return null;
+        }
+        double scale = (double) size.getMaxDimension() / longest;
+        int width = Math.max(1, (int) Math.round(image.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(image.getHeight() * scale));
+        boolean alpha = image.getColorModel().getTransparency() != Transparency.OPAQUE;
+        BufferedImage scaled = scale(image, width, height, alpha);
+
+        String variantFormat = format != null ? format : alpha ? "png" : "jpeg";
+        String extension = variantFormat.equals("jpeg") ? "jpg" : variantFormat;
+        String fileName = baseName(attachment.getFileName()) + "-" + size.name().toLowerCase() + "." + extension;
+        Path target = source.resolveSibling(fileName);
+        // Written under a temporary name so a request never sees a partial file
+        Path temp = source.resolveSibling("." + fileName + ".tmp");
+        try {
+            encode(scaled, variantFormat, temp);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+
+        return ImageVariant.builder()
+                .attachmentId(attachment.getId())
+                .sourceFileName(attachment.getFileName())
+                .size(size)
+                .fileName(fileName)
+                .contentType("image/" + variantFormat)
+                .width(width)
+                .height(height)
+                .fileSize(Files.size(target))
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    /**
+     * Halve the image with bilinear filtering until one more step reaches the
+     * target; a single large bilinear step would skip most source pixels
+     */
+    private static BufferedImage scale(BufferedImage image, int width, int height, boolean alpha) {
+        int type = alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        BufferedImage current = image;
+        int currentWidth = image.getWidth();
+        int currentHeight = image.getHeight();
+        do {
+            currentWidth = Math.max(width, currentWidth / 2);
+            currentHeight = Math.max(height, currentHeight / 2);
+            BufferedImage next = new BufferedImage(currentWidth, currentHeight, type);
+            Graphics2D graphics = next.createGraphics();
+            try {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+                        RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                graphics.drawImage(current, 0, 0, currentWidth, currentHeight, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = next;
+        } while (currentWidth != width || currentHeight != height);
+        return current;
+    }
+
+    private void encode(BufferedImage image, String variantFormat, Path target) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName(variantFormat).next();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(target.toFile())) {
+            writer.setOutput(output);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            if (variantFormat.equals("jpeg")) {
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(jpegQuality);
+            }
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    private static String baseName(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        return dot > 0 ? fileName.substring(0, dot) : fileName;
+    }
+
+    private static void deleteFiles(List<Path> files) {
+        for (Path file : files) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.warn("Could not delete variant file {}: {}", file, e.getMessage());
+            }
+        }
+    }
+}
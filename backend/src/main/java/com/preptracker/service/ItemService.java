@@ -1,25 +1,21 @@
 package com.preptracker.service;
 
 import com.preptracker.config.CacheConfig;
+import com.preptracker.dto.MoveRequest;
 import com.preptracker.dto.ReorderRequest;
-import com.preptracker.model.ActivityLog;
 import com.preptracker.model.Item;
-import com.preptracker.model.Subtopic;
-import com.preptracker.model.Tab;
 import com.preptracker.repository.ActivityLogRepository;
 import com.preptracker.repository.ItemRepository;
-import com.preptracker.repository.SubtopicRepository;
-import com.preptracker.repository.TabRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
 
 @Slf4j
@@ -28,9 +24,14 @@ import java.util.List;
 public class ItemService {
     
     private final ItemRepository itemRepository;
-    private final TabRepository tabRepository;
-    private final SubtopicRepository subtopicRepository;
     private final ActivityLogRepository activityLogRepository;
+    private final ProgressCounters progressCounters;
+    private final CacheInvalidator cacheInvalidator;
+    private final SortOrderWriter sortOrderWriter;
+    private final ActivityRollupService activityRollupService;
+    private final ActivityArchiveService activityArchiveService;
+    private final ActivityWriter activityWriter;
+    private final ChangeEvents changeEvents;
     
     @Cacheable(value = CacheConfig.ITEMS_CACHE, key = "'all'")
     public List<Item> getAllItems() {
@@ -57,36 +58,27 @@ public class ItemService {
         return itemRepository.findBySubtopicIdOrderBySortOrderAsc(subtopicId);
     }
     
-    @Caching(evict = {
-            @CacheEvict(value = CacheConfig.ITEMS_CACHE, allEntries = true),
-            @CacheEvict(value = CacheConfig.TAB_DATA_CACHE, allEntries = true),
-            @CacheEvict(value = CacheConfig.SUBTOPICS_CACHE, allEntries = true),
-            @CacheEvict(value = CacheConfig.DASHBOARD_CACHE, allEntries = true)
-    })
+    @Transactional
     public Item createItem(Item item) {
         log.debug("Creating new item: {}", item.getTitle());
         item.setCreatedAt(LocalDateTime.now());
         item.setUpdatedAt(LocalDateTime.now());
         
         if (item.getSortOrder() == null) {
-            long count;
-            if (item.getSubtopicId() != null) {
-                count = itemRepository.countBySubtopicId(item.getSubtopicId());
-            } else {
-                count = itemRepository.countByTabId(item.getTabId());
-            }
-            item.setSortOrder((int) count);
+            Integer max = item.getSubtopicId() != null
+                    ? itemRepository.findMaxSortOrderBySubtopicId(item.getSubtopicId())
+                    : itemRepository.findMaxSortOrderByTabIdWithoutSubtopic(item.getTabId());
+            item.setSortOrder(SparseOrdering.append(max));
         }
         
-        return itemRepository.save(item);
+        Item saved = itemRepository.save(item);
+        AfterCommit.run(() -> progressCounters.itemAdded(saved));
+        cacheInvalidator.itemAdded(saved);
+        changeEvents.itemCreated(saved);
+        return saved;
     }
     
-    @Caching(evict = {
-            @CacheEvict(value = CacheConfig.ITEM_CACHE, key = "#id"),
-            @CacheEvict(value = CacheConfig.ITEMS_CACHE, allEntries = true),
-            @CacheEvict(value = CacheConfig.TAB_DATA_CACHE, allEntries = true),
-            @CacheEvict(value = CacheConfig.SUBTOPICS_CACHE, allEntries = true)
-    })
+    @Transactional
     public Item updateItem(String id, Item itemUpdates) {
         log.debug("Updating item: {}", id);
         Item existingItem = itemRepository.findById(id)
@@ -109,18 +101,13 @@ public class ItemService {
         }
         
         existingItem.setUpdatedAt(LocalDateTime.now());
-        return itemRepository.save(existingItem);
+        Item saved = itemRepository.save(existingItem);
+        cacheInvalidator.itemChanged(saved);
+        changeEvents.itemUpdated(saved);
+        return saved;
     }
     
     @Transactional
-    @Caching(evict = {
-            @CacheEvict(value = CacheConfig.ITEM_CACHE, key = "#id"),
-            @CacheEvict(value = CacheConfig.ITEMS_CACHE, allEntries = true),
-            @CacheEvict(value = CacheConfig.TAB_DATA_CACHE, allEntries = true),
-            @CacheEvict(value = CacheConfig.SUBTOPICS_CACHE, allEntries = true),
-            @CacheEvict(value = CacheConfig.DASHBOARD_CACHE, allEntries = true),
-            @CacheEvict(value = CacheConfig.ACTIVITY_CACHE, allEntries = true)
-    })
     public Item toggleItemCompletion(String id) {
         log.debug("Toggling completion for item: {}", id);
         Item item = itemRepository.findById(id)
@@ -131,70 +118,97 @@ public class ItemService {
         item.setUpdatedAt(LocalDateTime.now());
         
         if (!wasCompleted) {
-            // Item is being completed - log activity
-            item.setCompletedAt(LocalDateTime.now());
-            logItemCompletion(item);
+            // Item is being completed - activity is logged in the background after commit.
+            // Truncated to the column precision so the log timestamp copied from it compares equal.
+            item.setCompletedAt(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
         } else {
             // Item is being uncompleted
             item.setCompletedAt(null);
         }
         
-        return itemRepository.save(item);
-    }
-    
-    private void logItemCompletion(Item item) {
-        Tab tab = tabRepository.findById(item.getTabId()).orElse(null);
-        Subtopic subtopic = null;
-        if (item.getSubtopicId() != null) {
-            subtopic = subtopicRepository.findById(item.getSubtopicId()).orElse(null);
-        }
-        
-        ActivityLog log = ActivityLog.builder()
-                .date(LocalDate.now())
-                .timestamp(LocalDateTime.now())
-                .tabId(item.getTabId())
-                .tabName(tab != null ? tab.getName() : null)
-                .tabColor(tab != null ? tab.getColor() : null)
-                .subtopicId(item.getSubtopicId())
-                .subtopicName(subtopic != null ? subtopic.getName() : null)
-                .itemId(item.getId())
-                .itemTitle(item.getTitle())
-                .type(ActivityLog.ActivityType.TOPIC_COMPLETED)
-                .build();
-        
-        activityLogRepository.save(log);
+        Item saved = itemRepository.save(item);
+        AfterCommit.run(() -> {
+            progressCounters.completionChanged(saved, !wasCompleted);
+            if (!wasCompleted) {
+                activityWriter.itemCompleted(saved);
+            }
+        });
+        cacheInvalidator.itemChanged(saved);
+        changeEvents.itemToggled(saved);
+        return saved;
     }
     
     @Transactional
-    @Caching(evict = {
-            @CacheEvict(value = CacheConfig.ITEM_CACHE, key = "#id"),
-            @CacheEvict(value = CacheConfig.ITEMS_CACHE, allEntries = true),
-            @CacheEvict(value = CacheConfig.TAB_DATA_CACHE, allEntries = true),
-            @CacheEvict(value = CacheConfig.SUBTOPICS_CACHE, allEntries = true),
-            @CacheEvict(value = CacheConfig.DASHBOARD_CACHE, allEntries = true),
-            @CacheEvict(value = CacheConfig.ACTIVITY_CACHE, allEntries = true)
-    })
     public void deleteItem(String id) {
         log.debug("Deleting item: {}", id);
-        // Delete related activity logs
+        Item item = itemRepository.findById(id).orElse(null);
+        // Delete related activity logs and recount their days
+        List<LocalDate> activityDates = activityLogRepository.findDatesByItemId(id);
+        List<String> activityIds = activityLogRepository.findIdsByItemId(id);
         activityLogRepository.deleteByItemId(id);
+        // History already moved to the archive is hidden with a tombstone
+        List<LocalDate> days = new ArrayList<>(activityDates);
+        days.addAll(activityArchiveService.forgetItem(id,
+                item != null && item.getCreatedAt() != null ? item.getCreatedAt().toLocalDate() : null));
+        activityRollupService.rebuildDays(days);
         // Delete the item
-        itemRepository.deleteById(id);
+        if (item != null) {
+            itemRepository.delete(item);
+            AfterCommit.run(() -> progressCounters.itemRemoved(item));
+            cacheInvalidator.itemRemoved(item);
+            changeEvents.itemDeleted(item, activityIds);
+        }
+        cacheInvalidator.activityRemoved();
     }
     
+    /**
+     * Apply new sort orders with one batched UPDATE
+     */
     @Transactional
-    @Caching(evict = {
-            @CacheEvict(value = CacheConfig.ITEMS_CACHE, allEntries = true),
-            @CacheEvict(value = CacheConfig.TAB_DATA_CACHE, allEntries = true),
-            @CacheEvict(value = CacheConfig.SUBTOPICS_CACHE, allEntries = true)
-    })
     public void reorderItems(List<ReorderRequest> updates) {
         log.debug("Reordering {} items", updates.size());
-        for (ReorderRequest update : updates) {
-            itemRepository.findById(update.getId()).ifPresent(item -> {
-                item.setSortOrder(update.getSortOrder());
-                itemRepository.save(item);
-            });
+        if (updates.isEmpty()) {
+            return;
         }
+        sortOrderWriter.updateItems(updates);
+        List<String> itemIds = updates.stream().map(ReorderRequest::getId).toList();
+        cacheInvalidator.itemsReordered(itemIds, itemRepository.findScopesByIdIn(itemIds));
+        changeEvents.itemsReordered(updates);
+    }
+    
+    /**
+     * Move one item within its list. Takes the midpoint between the new
+     * neighbours, which writes a single row; the list is renumbered only
+     * when there is no room left between them.
+     */
+    @Transactional
+    public Item moveItem(String id, MoveRequest move) {
+        log.debug("Moving item {} after {}", id, move.getAfterId());
+        Item item = itemRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Item not found with id: " + id));
+        List<ReorderRequest> siblings = item.getSubtopicId() != null
+                ? itemRepository.findSortOrdersBySubtopicId(item.getSubtopicId())
+                : itemRepository.findSortOrdersByTabIdWithoutSubtopic(item.getTabId());
+        siblings.removeIf(sibling -> id.equals(sibling.getId()));
+        int position = SparseOrdering.positionAfter(siblings, move.getAfterId());
+        
+        Integer sortOrder = SparseOrdering.between(siblings, position);
+        if (sortOrder != null) {
+            item.setSortOrder(sortOrder);
+            item.setUpdatedAt(LocalDateTime.now());
+            Item saved = itemRepository.save(item);
+            cacheInvalidator.itemChanged(saved);
+            changeEvents.itemUpdated(saved);
+            return saved;
+        }
+        
+        List<String> itemIds = new ArrayList<>(siblings.stream().map(ReorderRequest::getId).toList());
+        itemIds.add(position, id);
+        List<ReorderRequest> updates = SparseOrdering.spread(itemIds);
+        sortOrderWriter.updateItems(updates);
+        item.setSortOrder(updates.get(position).getSortOrder());
+        cacheInvalidator.itemsReordered(itemIds, itemRepository.findScopesByIdIn(List.of(id)));
+        changeEvents.itemsReordered(updates);
+        return item;
     }
 }
@@ -0,0 +1,228 @@
+package com.preptracker.service;
+
+import com.preptracker.model.Item;
+import com.preptracker.repository.ItemRepository.ProgressCount;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory total/completed item counters per subtopic, per tab and overall.
+ * Seeded from the database once the application is ready, kept current by
+ * deltas from item mutations and periodically reconciled against the database.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProgressCounters {
+
+    private final DashboardAggregator dashboardAggregator;
+
+    private final Map<String, Counter> tabCounters = new ConcurrentHashMap<>();
+    private final Map<String, Counter> subtopicCounters = new ConcurrentHashMap<>();
+    private final Counter globalCounter = new Counter();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        int drift = synchronize();
+        log.info("Progress counters seeded for {} tabs and {} subtopics ({} adjusted)",
+                tabCounters.size(), subtopicCounters.size(), drift);
+    }
+
+    /**
+     * Compare the counters against the database and repair any drift
+     */
+    @Scheduled(initialDelayString = "${app.progress.reconcile-interval-ms:300000}",
+               fixedDelayString = "${app.progress.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        int drift = synchronize();
+        if (drift > 0) {
+            log.warn("Progress counter reconciliation repaired {} counters", drift);
+        } else {
+            log.debug("Progress counters are consistent with the database");
+        }
+    }
+
+    public Progress tab(String tabId) {
+        return snapshot(tabCounters.get(tabId));
+    }
+
+    public Progress subtopic(String subtopicId) {
+        return snapshot(subtopicCounters.get(subtopicId));
+    }
+
+    public Progress global() {
+        return globalCounter.snapshot();
+    }
+
+    public void itemAdded(Item item) {
+        apply(item, 1, completedValue(item));
+    }
+
+    public void itemRemoved(Item item) {
+        apply(item, -1, -completedValue(item));
+    }
+
+    public void completionChanged(Item item, boolean completed) {
+        apply(item, 0, completed ? 1 : -1);
+    }
+
+    public void subtopicRemoved(String tabId, String subtopicId) {
+        Counter removed = subtopicCounters.remove(subtopicId);
+        if (removed == null) {
+            return;
+        }
+        Progress progress = removed.snapshot();
+        counter(tabCounters, tabId).add(-progress.getTotal(), -progress.getCompleted());
+        globalCounter.add(-progress.getTotal(), -progress.getCompleted());
+    }
+
+    public void tabRemoved(String tabId, Collection<String> subtopicIds) {
+        subtopicIds.forEach(subtopicCounters::remove);
+        Counter removed = tabCounters.remove(tabId);
+        if (removed != null) {
+            Progress progress = removed.snapshot();
+            globalCounter.add(-progress.getTotal(), -progress.getCompleted());
+        }
+    }
+
+    private void apply(Item item, long totalDelta, long completedDelta) {
+        if (item.getTabId() != null) {
+            counter(tabCounters, item.getTabId()).add(totalDelta, completedDelta);
+        }
+        if (item.getSubtopicId() != null) {
+            counter(subtopicCounters, item.getSubtopicId()).add(totalDelta, completedDelta);
+        }
+        globalCounter.add(totalDelta, completedDelta);
+    }
+
+    /**
+     * Repair counters that differ from the database. The value each counter
+     * held before the query is remembered and the repair is applied with a
+     * compare-and-set against it, so a delta that lands while the query runs
+     * is never overwritten; that counter is left for the next reconciliation.
+     */
+    private int synchronize() {
+        Map<String, Long> tabsBefore = values(tabCounters);
+        Map<String, Long> subtopicsBefore = values(subtopicCounters);
+        long globalBefore = globalCounter.value();
+
+        int drift = 0;
+        drift += synchronize(tabCounters, tabsBefore, dashboardAggregator.countItemsByTab());
+        drift += synchronize(subtopicCounters, subtopicsBefore, dashboardAggregator.countItemsBySubtopic());
+
+        long total = 0;
+        long completed = 0;
+        for (Counter counter : tabCounters.values()) {
+            Progress progress = counter.snapshot();
+            total += progress.getTotal();
+            completed += progress.getCompleted();
+        }
+        if (globalCounter.repair(globalBefore, total, completed)) {
+            drift++;
+        }
+        return drift;
+    }
+
+    private int synchronize(Map<String, Counter> counters, Map<String, Long> before,
+                            Map<String, ProgressCount> expected) {
+        int drift = 0;
+        for (Map.Entry<String, ProgressCount> entry : expected.entrySet()) {
+            ProgressCount row = entry.getValue();
+            long total = row.getTotal() != null ? row.getTotal() : 0;
+            long completed = row.getCompleted() != null ? row.getCompleted() : 0;
+            if (counter(counters, entry.getKey()).repair(before.getOrDefault(entry.getKey(), 0L), total, completed)) {
+                drift++;
+            }
+        }
+        for (Map.Entry<String, Long> entry : before.entrySet()) {
+            if (expected.containsKey(entry.getKey())) {
+                continue;
+            }
+            Counter counter = counters.get(entry.getKey());
+            if (counter == null) {
+                continue;
+            }
+            if (counter.repair(entry.getValue(), 0, 0)) {
+                drift++;
+            }
+            if (counter.value() == 0) {
+                counters.remove(entry.getKey(), counter);
+            }
+        }
+        return drift;
+    }
+
+    private static Map<String, Long> values(Map<String, Counter> counters) {
+        Map<String, Long> values = new HashMap<>();
+        counters.forEach((key, counter) -> values.put(key, counter.value()));
+        return values;
+    }
+
+    private static Counter counter(Map<String, Counter> counters, String key) {
+        return counters.computeIfAbsent(key, k -> new Counter());
+    }
+
+    private static Progress snapshot(Counter counter) {
+        return counter != null ? counter.snapshot() : new Progress(0, 0);
+    }
+
+    private static long completedValue(Item item) {
+        return Boolean.TRUE.equals(item.getCompleted()) ? 1 : 0;
+    }
+
+    /**
+     * Total and completed counts packed into one long so that both are
+     * updated and read atomically.
+     */
+    private static final class Counter {
+
+        private static final long TOTAL_UNIT = 1L << 32;
+
+        private final AtomicLong packed = new AtomicLong();
+
+        void add(long totalDelta, long completedDelta) {
+            packed.addAndGet(totalDelta * TOTAL_UNIT + completedDelta);
+        }
+
+        long value() {
+            return packed.get();
+        }
+
+        /**
+         * Set the counter to the given counts if it still holds the value
+         * seen before they were read. Returns whether it was changed.
+         */
+        boolean repair(long before, long total, long completed) {
+            long value = total * TOTAL_UNIT + completed;
+            return value != before && packed.compareAndSet(before, value);
+        }
+
+        Progress snapshot() {
+            long value = packed.get();
+            return new Progress(Math.floorDiv(value, TOTAL_UNIT), Math.floorMod(value, TOTAL_UNIT));
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Progress {
+        private final long total;
+        private final long completed;
+
+        public int percent() {
+            return DashboardAggregator.percent(completed, total);
+        }
+    }
+}
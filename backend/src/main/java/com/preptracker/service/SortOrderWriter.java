@@ -0,0 +1,44 @@
+package com.preptracker.service;
+
+import com.preptracker.dto.ReorderRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Types;
+import java.util.List;
+
+/**
+ * Applies sort orders with one JDBC batch per list instead of a load and a
+ * save per row. Callers are responsible for cache invalidation.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SortOrderWriter {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void updateItems(List<ReorderRequest> updates) {
+        update("items", updates);
+    }
+
+    public void updateSubtopics(List<ReorderRequest> updates) {
+        update("subtopics", updates);
+    }
+
+    private void update(String table, List<ReorderRequest> updates) {
+        if (updates.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate("UPDATE " + table + " SET sort_order = ? WHERE id = ?", updates, BATCH_SIZE,
+                (statement, update) -> {
+                    statement.setObject(1, update.getSortOrder(), Types.INTEGER);
+                    statement.setString(2, update.getId());
+                });
+        log.debug("Updated sort order of {} rows in {}", updates.size(), table);
+    }
+}
@@ -0,0 +1,80 @@
+package com.preptracker.service;
+
+import com.preptracker.dto.ReorderRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Gap-based sort orders. New elements are appended {@link #GAP} after the
+ * last one and a moved element takes the midpoint between its new
+ * neighbours, so a move writes a single row until a gap is used up and the
+ * list has to be renumbered.
+ */
+final class SparseOrdering {
+
+    static final int GAP = 1024;
+
+    private SparseOrdering() {
+    }
+
+    /**
+     * Sort order for an element appended after the current maximum
+     */
+    static int append(Integer max) {
+        if (max == null) {
+            return 0;
+        }
+        return max <= Integer.MAX_VALUE - GAP ? max + GAP : max;
+    }
+
+    /**
+     * Position in the siblings (moved element excluded) right after afterId; 0 when afterId is null
+     */
+    static int positionAfter(List<ReorderRequest> siblings, String afterId) {
+        if (afterId == null) {
+            return 0;
+        }
+        for (int i = 0; i < siblings.size(); i++) {
+            if (afterId.equals(siblings.get(i).getId())) {
+                return i + 1;
+            }
+        }
+        throw new RuntimeException("Sibling not found with id: " + afterId);
+    }
+
+    /**
+     * Sort order strictly between the neighbours around the position, or null when there is no room
+     */
+    static Integer between(List<ReorderRequest> siblings, int position) {
+        boolean hasPrevious = position > 0;
+        boolean hasNext = position < siblings.size();
+        Integer previous = hasPrevious ? siblings.get(position - 1).getSortOrder() : null;
+        Integer next = hasNext ? siblings.get(position).getSortOrder() : null;
+        if ((hasPrevious && previous == null) || (hasNext && next == null)) {
+            return null;
+        }
+        if (!hasPrevious && !hasNext) {
+            return 0;
+        }
+        if (!hasPrevious) {
+            return next >= Integer.MIN_VALUE + GAP ? next - GAP : null;
+        }
+        if (!hasNext) {
+            return previous <= Integer.MAX_VALUE - GAP ? previous + GAP : null;
+        }
+        long room = (long) next - previous;
+        return room > 1 ? (int) (previous + room / 2) : null;
+    }
+
+    /**
+     * Fresh evenly spaced sort orders for the ids in list order
+     */
+    static List<ReorderRequest> spread(List<String> ids) {
+        List<ReorderRequest> updates = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            updates.add(new ReorderRequest(ids.get(i), i * GAP));
+        }
+        return updates;
+    }
+}
@@ -1,6 +1,7 @@
 package com.preptracker.service;
 
 import com.preptracker.config.CacheConfig;
+import com.preptracker.dto.MoveRequest;
 import com.preptracker.dto.ReorderRequest;
 import com.preptracker.dto.SubtopicWithItems;
 import com.preptracker.model.Item;
@@ -9,14 +10,12 @@ import com.preptracker.repository.ItemRepository;
 import com.preptracker.repository.SubtopicRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -25,6 +24,11 @@ public class SubtopicService {
     
     private final SubtopicRepository subtopicRepository;
     private final ItemRepository itemRepository;
+    private final TabTreeLoader tabTreeLoader;
+    private final ProgressCounters progressCounters;
+    private final CacheInvalidator cacheInvalidator;
+    private final SortOrderWriter sortOrderWriter;
+    private final ChangeEvents changeEvents;
     
     @Cacheable(value = CacheConfig.SUBTOPICS_CACHE, key = "#tabId")
     public List<Subtopic> getSubtopicsByTabId(String tabId) {
@@ -46,35 +50,22 @@ public class SubtopicService {
     }
     
     public List<SubtopicWithItems> getSubtopicsWithItemsByTabId(String tabId) {
-        List<Subtopic> subtopics = getSubtopicsByTabId(tabId);
-        return subtopics.stream()
-                .map(subtopic -> {
-                    List<Item> items = itemRepository.findBySubtopicIdOrderBySortOrderAsc(subtopic.getId());
-                    return SubtopicWithItems.from(subtopic, items);
-                })
-                .collect(Collectors.toList());
+        return tabTreeLoader.loadSubtopics(tabId);
     }
     
-    @Caching(evict = {
-            @CacheEvict(value = CacheConfig.SUBTOPICS_CACHE, allEntries = true),
-            @CacheEvict(value = CacheConfig.TAB_DATA_CACHE, allEntries = true),
-            @CacheEvict(value = CacheConfig.DASHBOARD_CACHE, allEntries = true)
-    })
+    @Transactional
     public Subtopic createSubtopic(Subtopic subtopic) {
         log.debug("Creating subtopic: {}", subtopic.getName());
         if (subtopic.getSortOrder() == null) {
-            long count = subtopicRepository.countByTabId(subtopic.getTabId());
-            subtopic.setSortOrder((int) count);
+            subtopic.setSortOrder(SparseOrdering.append(subtopicRepository.findMaxSortOrderByTabId(subtopic.getTabId())));
         }
-        return subtopicRepository.save(subtopic);
+        Subtopic saved = subtopicRepository.save(subtopic);
+        cacheInvalidator.subtopicAdded(saved);
+        changeEvents.subtopicCreated(saved);
+        return saved;
     }
     
-    @Caching(evict = {
-            @CacheEvict(value = CacheConfig.SUBTOPIC_CACHE, key = "#id"),
-            @CacheEvict(value = CacheConfig.SUBTOPICS_CACHE, allEntries = true),
-            @CacheEvict(value = CacheConfig.TAB_DATA_CACHE, allEntries = true),
-            @CacheEvict(value = CacheConfig.DASHBOARD_CACHE, allEntries = true)
-    })
+    @Transactional
     public Subtopic updateSubtopic(String id, Subtopic subtopicUpdates) {
         log.debug("Updating subtopic: {}", id);
         Subtopic existingSubtopic = subtopicRepository.findById(id)
@@ -90,43 +81,76 @@ public class SubtopicService {
             existingSubtopic.setSortOrder(subtopicUpdates.getSortOrder());
         }
         
-        return subtopicRepository.save(existingSubtopic);
+        Subtopic saved = subtopicRepository.save(existingSubtopic);
+        cacheInvalidator.subtopicChanged(saved);
+        changeEvents.subtopicUpdated(saved);
+        return saved;
     }
     
     @Transactional
-    @Caching(evict = {
-            @CacheEvict(value = CacheConfig.SUBTOPIC_CACHE, key = "#id"),
-            @CacheEvict(value = CacheConfig.SUBTOPICS_CACHE, allEntries = true),
-            @CacheEvict(value = CacheConfig.ITEMS_CACHE, allEntries = true),
-            @CacheEvict(value = CacheConfig.TAB_DATA_CACHE, allEntries = true),
-            @CacheEvict(value = CacheConfig.DASHBOARD_CACHE, allEntries = true)
-    })
     public void deleteSubtopic(String id) {
         log.debug("Deleting subtopic: {}", id);
+        Subtopic subtopic = subtopicRepository.findById(id).orElse(null);
+        List<String> itemIds = itemRepository.findIdsBySubtopicId(id);
         // Delete all items under this subtopic
         itemRepository.deleteBySubtopicId(id);
         // Delete the subtopic
         subtopicRepository.deleteById(id);
+        if (subtopic != null) {
+            AfterCommit.run(() -> progressCounters.subtopicRemoved(subtopic.getTabId(), id));
+            cacheInvalidator.subtopicRemoved(subtopic, itemIds);
+            changeEvents.subtopicDeleted(subtopic, itemIds);
+        }
     }
     
     public int calculateSubtopicProgress(String subtopicId) {
-        long total = itemRepository.countBySubtopicId(subtopicId);
-        long completed = itemRepository.countBySubtopicIdAndCompletedTrue(subtopicId);
-        return total > 0 ? (int) (completed * 100 / total) : 0;
+        return progressCounters.subtopic(subtopicId).percent();
     }
     
+    /**
+     * Apply new sort orders with one batched UPDATE
+     */
     @Transactional
-    @Caching(evict = {
-            @CacheEvict(value = CacheConfig.SUBTOPICS_CACHE, allEntries = true),
-            @CacheEvict(value = CacheConfig.TAB_DATA_CACHE, allEntries = true)
-    })
     public void reorderSubtopics(List<ReorderRequest> updates) {
         log.debug("Reordering {} subtopics", updates.size());
-        for (ReorderRequest update : updates) {
-            subtopicRepository.findById(update.getId()).ifPresent(subtopic -> {
-                subtopic.setSortOrder(update.getSortOrder());
-                subtopicRepository.save(subtopic);
-            });
+        if (updates.isEmpty()) {
+            return;
+        }
+        sortOrderWriter.updateSubtopics(updates);
+        List<String> subtopicIds = updates.stream().map(ReorderRequest::getId).toList();
+        cacheInvalidator.subtopicsReordered(subtopicIds, subtopicRepository.findTabIdsByIdIn(subtopicIds));
+        changeEvents.subtopicsReordered(updates);
+    }
+    
+    /**
+     * Move one subtopic within its tab, writing a single row unless the
+     * tab's subtopics have to be renumbered
+     */
+    @Transactional
+    public Subtopic moveSubtopic(String id, MoveRequest move) {
+        log.debug("Moving subtopic {} after {}", id, move.getAfterId());
+        Subtopic subtopic = subtopicRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Subtopic not found with id: " + id));
+        List<ReorderRequest> siblings = subtopicRepository.findSortOrdersByTabId(subtopic.getTabId());
+        siblings.removeIf(sibling -> id.equals(sibling.getId()));
+        int position = SparseOrdering.positionAfter(siblings, move.getAfterId());
+        
+        Integer sortOrder = SparseOrdering.between(siblings, position);
+        if (sortOrder != null) {
+            subtopic.setSortOrder(sortOrder);
+            Subtopic saved = subtopicRepository.save(subtopic);
+            cacheInvalidator.subtopicChanged(saved);
+            changeEvents.subtopicUpdated(saved);
+            return saved;
         }
+        
+        List<String> subtopicIds = new ArrayList<>(siblings.stream().map(ReorderRequest::getId).toList());
+        subtopicIds.add(position, id);
+        List<ReorderRequest> updates = SparseOrdering.spread(subtopicIds);
+        sortOrderWriter.updateSubtopics(updates);
+        subtopic.setSortOrder(updates.get(position).getSortOrder());
+        cacheInvalidator.subtopicsReordered(subtopicIds, List.of(subtopic.getTabId()));
+        changeEvents.subtopicsReordered(updates);
+        return subtopic;
     }
 }
@@ -0,0 +1,124 @@
+package com.preptracker.service;
+
+import com.preptracker.dto.SyncResponse;
+import com.preptracker.model.ChangeLogEntry;
+import com.preptracker.model.ChangeLogEntry.EntityType;
+import com.preptracker.model.ChangeLogEntry.Operation;
+import com.preptracker.repository.ActivityLogRepository;
+import com.preptracker.repository.ApplicationRepository;
+import com.preptracker.repository.ChecklistItemRepository;
+import com.preptracker.repository.ItemRepository;
+import com.preptracker.repository.SubtopicRepository;
+import com.preptracker.repository.TabRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds delta sync responses from the change log. The work done is
+ * proportional to the number of changes since the client's version: one
+ * range read of the change log plus one lookup by id per entity type.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SyncService {
+    
+    private final ChangeTracker changeTracker;
+    private final TabRepository tabRepository;
+    private final SubtopicRepository subtopicRepository;
+    private final ItemRepository itemRepository;
+    private final ChecklistItemRepository checklistItemRepository;
+    private final ApplicationRepository applicationRepository;
+    private final ActivityLogRepository activityLogRepository;
+    
+    @Value("${app.sync.max-changes:5000}")
+    private int maxChanges;
+    
+    /**
+     * Changes after the given version, or a full resync when the client has no
+     * version, is behind the pruned history, is too far behind for a delta or
+     * missed a bulk import. Version 0 always gets a full resync: rows written
+     * before the change log existed, such as the sample data, were never logged.
+     */
+    public SyncResponse changesSince(Long since) {
+        long version = changeTracker.watermark();
+        if (since == null || since < Math.max(changeTracker.getPrunedThrough(), 1) || since > version) {
+            return fullResync(version);
+        }
+        
+        List<ChangeLogEntry> entries = changeTracker.entries(since, version, maxChanges + 1);
+        if (entries.size() > maxChanges
+                || entries.stream().anyMatch(entry -> ChangeTracker.ALL.equals(entry.getEntityId()))) {
+            return fullResync(version);
+        }
+        
+        // Collapse to the last operation per row
+        Map<EntityType, Map<String, Operation>> latest = new EnumMap<>(EntityType.class);
+        for (ChangeLogEntry entry : entries) {
+            latest.computeIfAbsent(entry.getEntityType(), type -> new LinkedHashMap<>())
+                    .put(entry.getEntityId(), entry.getOperation());
+        }
+        log.debug("Sync since {} up to {}: {} entries for {} types", since, version, entries.size(), latest.size());
+        
+        return SyncResponse.builder()
+                .version(version)
+                .changes(entries.size())
+                .tabs(upserted(latest, EntityType.TAB, tabRepository))
+                .subtopics(upserted(latest, EntityType.SUBTOPIC, subtopicRepository))
+                .items(upserted(latest, EntityType.ITEM, itemRepository))
+                .checklist(upserted(latest, EntityType.CHECKLIST, checklistItemRepository))
+                .applications(upserted(latest, EntityType.APPLICATION, applicationRepository))
+                .activityLog(upserted(latest, EntityType.ACTIVITY, activityLogRepository))
+                .deleted(SyncResponse.Deleted.builder()
+                        .tabs(deleted(latest, EntityType.TAB))
+                        .subtopics(deleted(latest, EntityType.SUBTOPIC))
+                        .items(deleted(latest, EntityType.ITEM))
+                        .checklist(deleted(latest, EntityType.CHECKLIST))
+                        .applications(deleted(latest, EntityType.APPLICATION))
+                        .activityLog(deleted(latest, EntityType.ACTIVITY))
+                        .build())
+                .build();
+    }
+    
+    public long currentVersion() {
+        return changeTracker.watermark();
+    }
+    
+    private static SyncResponse fullResync(long version) {
+        return SyncResponse.builder().version(version).fullResync(true).build();
+    }
+    
+    /**
+     * Current state of the rows whose last change is an upsert. Rows deleted
+     * after the watermark are missing here and arrive as deletes next time.
+     */
+    private static <T> List<T> upserted(Map<EntityType, Map<String, Operation>> latest, EntityType type,
+                                        JpaRepository<T, String> repository) {
+        List<String> ids = idsWith(latest, type, Operation.UPSERT);
+        return ids.isEmpty() ? List.of() : repository.findAllById(ids);
+    }
+    
+    private static List<String> deleted(Map<EntityType, Map<String, Operation>> latest, EntityType type) {
+        return idsWith(latest, type, Operation.DELETE);
+    }
+    
+    private static List<String> idsWith(Map<EntityType, Map<String, Operation>> latest, EntityType type,
+                                        Operation operation) {
+        List<String> ids = new ArrayList<>();
+        latest.getOrDefault(type, Map.of()).forEach((id, op) -> {
+            if (op == operation) {
+                ids.add(id);
+            }
+        });
+        return ids;
+    }
+}
@@ -0,0 +1,176 @@
+package com.preptracker.service;
+
+import com.preptracker.config.CacheConfig;
+import com.preptracker.dto.SubtopicWithItems;
+import com.preptracker.dto.TabWithData;
+import com.preptracker.model.Item;
+import com.preptracker.model.Subtopic;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * Write-through patching of cached {@link TabWithData} snapshots.
+ * Instead of evicting a tab's tree when one item or subtopic changes, a new
+ * snapshot is built with the changed element swapped in, then atomically put
+ * back in place of the old one. Subtopic progress is taken from
+ * {@link ProgressCounters}; tab progress is recounted from the patched tree
+ * with {@link TabWithData#progressOf}, the rule a fresh load uses, since the
+ * tab counters also count items outside the tree. Cached snapshots are never
+ * mutated, so readers always see a complete tree.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TabDataPatcher {
+
+    private static final Comparator<Integer> SORT_ORDER = Comparator.nullsFirst(Comparator.naturalOrder());
+
+    private final CacheService cacheService;
+    private final ProgressCounters progressCounters;
+
+    /**
+     * Swap an updated item into the cached trees of its tab.
+     * Returns false when the trees could not be patched and must be evicted instead.
+     */
+    public boolean itemUpdated(Item item) {
+        return patch(item.getTabId(), tab -> withItem(tab, item));
+    }
+
+    /**
+     * Swap updated subtopic fields into the cached trees of its tab.
+     * Returns false when the trees could not be patched and must be evicted instead.
+     */
+    public boolean subtopicUpdated(Subtopic subtopic) {
+        return patch(subtopic.getTabId(), tab -> withSubtopic(tab, subtopic));
+    }
+
+    @SuppressWarnings("unchecked")
+    private boolean patch(String tabId, UnaryOperator<TabWithData> patcher) {
+        com.github.benmanes.caffeine.cache.Cache<Object, Object> cache = cacheService.nativeCache(CacheConfig.TAB_DATA_CACHE);
+        if (tabId == null || cache == null) {
+            return false;
+        }
+        Map<Object, Object> entries = cache.asMap();
+
+        // A null result from the remapping function removes the entry, which
+        // turns a snapshot that no longer matches into a plain eviction
+        entries.computeIfPresent(tabId, (key, value) ->
+                value instanceof TabWithData ? patcher.apply((TabWithData) value) : null);
+        entries.computeIfPresent(CacheInvalidator.ALL_WITH_DATA_KEY, (key, value) ->
+                value instanceof List ? patchList((List<Object>) value, tabId, patcher) : null);
+        return true;
+    }
+
+    private List<Object> patchList(List<Object> tabs, String tabId, UnaryOperator<TabWithData> patcher) {
+        List<Object> patched = new ArrayList<>(tabs);
+        for (int i = 0; i < patched.size(); i++) {
+            if (patched.get(i) instanceof TabWithData tab && tabId.equals(tab.getId())) {
+                TabWithData replacement = patcher.apply(tab);
+                if (replacement == null) {
+                    return null;
+                }
+                patched.set(i, replacement);
+                return patched;
+            }
+        }
+        return null;
+    }
+
+    private TabWithData withItem(TabWithData tab, Item item) {
+        if (tab.getItems() != null && item.getSubtopicId() == null) {
+            List<Item> items = replace(tab.getItems(), item, Item::getId, Item::getSortOrder);
+            if (items == null) {
+                return null;
+            }
+            return tab.toBuilder()
+                    .items(items)
+                    .progress(TabWithData.progressOf(tab.getHasSubtopics(), items, tab.getSubtopics()))
+                    .build();
+        }
+        if (tab.getSubtopics() != null && item.getSubtopicId() != null) {
+            List<SubtopicWithItems> subtopics = new ArrayList<>(tab.getSubtopics());
+            for (int i = 0; i < subtopics.size(); i++) {
+                SubtopicWithItems subtopic = subtopics.get(i);
+                if (!item.getSubtopicId().equals(subtopic.getId())) {
+                    continue;
+                }
+                List<Item> items = replace(subtopic.getItems(), item, Item::getId, Item::getSortOrder);
+                if (items == null) {
+                    return null;
+                }
+                subtopics.set(i, subtopic.toBuilder()
+                        .items(items)
+                        .progress(progressCounters.subtopic(subtopic.getId()).percent())
+                        .build());
+                return tab.toBuilder()
+                        .subtopics(subtopics)
+                        .progress(TabWithData.progressOf(tab.getHasSubtopics(), tab.getItems(), subtopics))
+                        .build();
+            }
+        }
+        return null;
+    }
+
+    private TabWithData withSubtopic(TabWithData tab, Subtopic subtopic) {
+        if (tab.getSubtopics() == null) {
+            return null;
+        }
+        SubtopicWithItems current = tab.getSubtopics().stream()
+                .filter(s -> subtopic.getId().equals(s.getId()))
+                .findFirst()
+                .orElse(null);
+        if (current == null) {
+            return null;
+        }
+        SubtopicWithItems updated = current.toBuilder()
+                .name(subtopic.getName())
+                .color(subtopic.getColor())
+                .sortOrder(subtopic.getSortOrder())
+                .build();
+        List<SubtopicWithItems> subtopics =
+                replace(tab.getSubtopics(), updated, SubtopicWithItems::getId, SubtopicWithItems::getSortOrder);
+        return tab.toBuilder().subtopics(subtopics).build();
+    }
+
+    /**
+     * Copy of the list with the element sharing the replacement's id swapped out,
+     * re-sorted if its sort order changed. Returns null when the element is absent
+     * or the cached copy is newer than the replacement.
+     */
+    private <T> List<T> replace(List<T> list, T replacement, Function<T, String> id, Function<T, Integer> sortOrder) {
+        String replacementId = id.apply(replacement);
+        List<T> copy = new ArrayList<>(list);
+        for (int i = 0; i < copy.size(); i++) {
+            T current = copy.get(i);
+            if (!Objects.equals(id.apply(current), replacementId)) {
+                continue;
+            }
+            if (current instanceof Item cachedItem && isNewer(cachedItem, (Item) replacement)) {
+                return list;
+            }
+            copy.set(i, replacement);
+            if (!Objects.equals(sortOrder.apply(current), sortOrder.apply(replacement))) {
+                copy.sort(Comparator.comparing(sortOrder, SORT_ORDER));
+            }
+            return copy;
+        }
+        return null;
+    }
+
+    /**
+     * Patches of concurrent writes may run out of commit order; keep the later state
+     */
+    private boolean isNewer(Item cached, Item incoming) {
+        return cached.getUpdatedAt() != null && incoming.getUpdatedAt() != null
+                && cached.getUpdatedAt().isAfter(incoming.getUpdatedAt());
+    }
+}
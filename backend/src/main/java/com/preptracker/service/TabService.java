@@ -1,9 +1,8 @@
 package com.preptracker.service;
 
 import com.preptracker.config.CacheConfig;
-import com.preptracker.dto.SubtopicWithItems;
+import com.preptracker.config.CacheReloader;
 import com.preptracker.dto.TabWithData;
-import com.preptracker.model.Item;
 import com.preptracker.model.Subtopic;
 import com.preptracker.model.Tab;
 import com.preptracker.repository.ItemRepository;
@@ -11,9 +10,7 @@ import com.preptracker.repository.SubtopicRepository;
 import com.preptracker.repository.TabRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -23,12 +20,16 @@ import java.util.stream.Collectors;
 @Slf4j
 @Service
 @RequiredArgsConstructor
-public class TabService {
+public class TabService implements CacheReloader {
     
     private final TabRepository tabRepository;
     private final SubtopicRepository subtopicRepository;
     private final ItemRepository itemRepository;
     private final CacheService cacheService;
+    private final TabTreeLoader tabTreeLoader;
+    private final ProgressCounters progressCounters;
+    private final CacheInvalidator cacheInvalidator;
+    private final ChangeEvents changeEvents;
     
     @Cacheable(value = CacheConfig.TABS_CACHE, key = "'all'")
     public List<Tab> getAllTabs() {
@@ -43,69 +44,40 @@ public class TabService {
                 .orElseThrow(() -> new RuntimeException("Tab not found with id: " + id));
     }
     
-    @Cacheable(value = CacheConfig.TAB_DATA_CACHE, key = "#tabId")
+    /**
+     * Concurrent misses for the same tab share one load (sync = true)
+     */
+    @Cacheable(value = CacheConfig.TAB_DATA_CACHE, key = "#tabId", sync = true)
     public TabWithData getTabWithData(String tabId) {
         log.debug("Fetching tab with data: {}", tabId);
         Tab tab = getTabById(tabId);
-        
-        if (Boolean.TRUE.equals(tab.getHasSubtopics())) {
-            List<Subtopic> subtopics = subtopicRepository.findByTabIdOrderBySortOrderAsc(tabId);
-            List<SubtopicWithItems> subtopicsWithItems = subtopics.stream()
-                    .map(subtopic -> {
-                        List<Item> items = itemRepository.findBySubtopicIdOrderBySortOrderAsc(subtopic.getId());
-                        return SubtopicWithItems.from(subtopic, items);
-                    })
-                    .collect(Collectors.toList());
-            return TabWithData.from(tab, null, subtopicsWithItems);
-        } else {
-            List<Item> items = itemRepository.findByTabIdAndSubtopicIdIsNullOrderBySortOrderAsc(tabId);
-            return TabWithData.from(tab, items, null);
-        }
+        return tabTreeLoader.loadTab(tab);
     }
     
-    @Cacheable(value = CacheConfig.TAB_DATA_CACHE, key = "'allWithData'")
+    /**
+     * Concurrent misses share one load (sync = true); once the entry is older than
+     * the refresh interval it keeps being served while {@link TabTreeLoader} reloads it
+     */
+    @Cacheable(value = CacheConfig.TAB_DATA_CACHE, key = "'allWithData'", sync = true)
     public List<TabWithData> getAllTabsWithData() {
         log.debug("Fetching all tabs with data from database");
-        List<Tab> tabs = tabRepository.findAllByOrderBySortOrderAsc();
-        return tabs.stream()
-                .map(tab -> {
-                    if (Boolean.TRUE.equals(tab.getHasSubtopics())) {
-                        List<Subtopic> subtopics = subtopicRepository.findByTabIdOrderBySortOrderAsc(tab.getId());
-                        List<SubtopicWithItems> subtopicsWithItems = subtopics.stream()
-                                .map(subtopic -> {
-                                    List<Item> items = itemRepository.findBySubtopicIdOrderBySortOrderAsc(subtopic.getId());
-                                    return SubtopicWithItems.from(subtopic, items);
-                                })
-                                .collect(Collectors.toList());
-                        return TabWithData.from(tab, null, subtopicsWithItems);
-                    } else {
-                        List<Item> items = itemRepository.findByTabIdAndSubtopicIdIsNullOrderBySortOrderAsc(tab.getId());
-                        return TabWithData.from(tab, items, null);
-                    }
-                })
-                .collect(Collectors.toList());
+        return tabTreeLoader.loadAll();
     }
     
-    @Caching(evict = {
-            @CacheEvict(value = CacheConfig.TABS_CACHE, allEntries = true),
-            @CacheEvict(value = CacheConfig.TAB_DATA_CACHE, allEntries = true),
-            @CacheEvict(value = CacheConfig.DASHBOARD_CACHE, allEntries = true)
-    })
+    @Transactional
     public Tab createTab(Tab tab) {
         log.debug("Creating new tab: {}", tab.getName());
         if (tab.getSortOrder() == null) {
             long count = tabRepository.count();
             tab.setSortOrder((int) count);
         }
-        return tabRepository.save(tab);
+        Tab saved = tabRepository.save(tab);
+        cacheInvalidator.tabAdded();
+        changeEvents.tabCreated(saved);
+        return saved;
     }
     
-    @Caching(evict = {
-            @CacheEvict(value = CacheConfig.TAB_CACHE, key = "#id"),
-            @CacheEvict(value = CacheConfig.TABS_CACHE, allEntries = true),
-            @CacheEvict(value = CacheConfig.TAB_DATA_CACHE, allEntries = true),
-            @CacheEvict(value = CacheConfig.DASHBOARD_CACHE, allEntries = true)
-    })
+    @Transactional
     public Tab updateTab(String id, Tab tabUpdates) {
         log.debug("Updating tab: {}", id);
         Tab existingTab = tabRepository.findById(id)
@@ -127,45 +99,57 @@ public class TabService {
             existingTab.setSortOrder(tabUpdates.getSortOrder());
         }
         
-        return tabRepository.save(existingTab);
+        Tab saved = tabRepository.save(existingTab);
+        cacheInvalidator.tabChanged(id);
+        changeEvents.tabUpdated(saved);
+        return saved;
     }
     
     @Transactional
-    @Caching(evict = {
-            @CacheEvict(value = CacheConfig.TAB_CACHE, key = "#id"),
-            @CacheEvict(value = CacheConfig.TABS_CACHE, allEntries = true),
-            @CacheEvict(value = CacheConfig.TAB_DATA_CACHE, allEntries = true),
-            @CacheEvict(value = CacheConfig.SUBTOPICS_CACHE, allEntries = true),
-            @CacheEvict(value = CacheConfig.ITEMS_CACHE, allEntries = true),
-            @CacheEvict(value = CacheConfig.DASHBOARD_CACHE, allEntries = true)
-    })
     public void deleteTab(String id) {
         log.debug("Deleting tab: {}", id);
+        List<String> subtopicIds = subtopicRepository.findByTabIdOrderBySortOrderAsc(id)
+                .stream()
+                .map(Subtopic::getId)
+                .collect(Collectors.toList());
+        List<String> itemIds = itemRepository.findIdsByTabId(id);
         // Delete all items under this tab
         itemRepository.deleteByTabId(id);
         // Delete all subtopics under this tab
         subtopicRepository.deleteByTabId(id);
         // Delete the tab
         tabRepository.deleteById(id);
+        AfterCommit.run(() -> progressCounters.tabRemoved(id, subtopicIds));
+        cacheInvalidator.tabRemoved(id, subtopicIds, itemIds);
+        changeEvents.tabDeleted(id, subtopicIds, itemIds);
     }
     
-    public int calculateTabProgress(String tabId) {
-        Tab tab = getTabById(tabId);
-        
-        if (Boolean.TRUE.equals(tab.getHasSubtopics())) {
-            List<Subtopic> subtopics = subtopicRepository.findByTabIdOrderBySortOrderAsc(tabId);
-            int total = 0;
-            int completed = 0;
-            for (Subtopic subtopic : subtopics) {
-                total += itemRepository.countBySubtopicId(subtopic.getId());
-                completed += itemRepository.countBySubtopicIdAndCompletedTrue(subtopic.getId());
-            }
-            return total > 0 ? (completed * 100 / total) : 0;
-        } else {
-            long total = itemRepository.countByTabId(tabId);
-            long completed = itemRepository.countByTabIdAndCompletedTrue(tabId);
-            return total > 0 ? (int) (completed * 100 / total) : 0;
+    @Override
+    public String cacheName() {
+        return CacheConfig.TABS_CACHE;
+    }
+    
+    /**
+     * Fresh value for a tabs cache key; self-invocation bypasses the cache
+     */
+    @Override
+    public Object reload(Object key) {
+        if (CacheInvalidator.ALL_KEY.equals(key)) {
+            return getAllTabs();
         }
+        if (CacheInvalidator.WITH_SUBTOPICS_KEY.equals(key)) {
+            return getTabIdsWithSubtopics();
+        }
+        return null;
+    }
+    
+    @Override
+    public List<Object> warmKeys() {
+        return List.of(CacheInvalidator.ALL_KEY, CacheInvalidator.WITH_SUBTOPICS_KEY);
+    }
+    
+    public int calculateTabProgress(String tabId) {
+        return progressCounters.tab(tabId).percent();
     }
     
     @Cacheable(value = CacheConfig.TABS_CACHE, key = "'withSubtopics'")
@@ -0,0 +1,152 @@
+package com.preptracker.service;
+
+import com.preptracker.config.CacheConfig;
+import com.preptracker.config.CacheReloader;
+import com.preptracker.dto.SubtopicWithItems;
+import com.preptracker.dto.TabWithData;
+import com.preptracker.model.Item;
+import com.preptracker.model.Subtopic;
+import com.preptracker.model.Tab;
+import com.preptracker.repository.ItemRepository;
+import com.preptracker.repository.SubtopicRepository;
+import com.preptracker.repository.TabRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Assembles the tab -> subtopic -> item tree with a fixed number of queries.
+ * Rows are fetched set-wise and grouped in memory instead of issuing one
+ * query per tab and per subtopic.
+ * <p>
+ * Also reloads {@code tabData} entries in the background once they pass the
+ * cache's refresh-after-write interval, so readers keep getting the previous
+ * tree instead of waiting on a rebuild.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TabTreeLoader implements CacheReloader {
+
+    private final TabRepository tabRepository;
+    private final SubtopicRepository subtopicRepository;
+    private final ItemRepository itemRepository;
+
+    /**
+     * Load every tab with its data (3 queries regardless of size)
+     */
+    public List<TabWithData> loadAll() {
+        List<Tab> tabs = tabRepository.findAllByOrderBySortOrderAsc();
+        List<Subtopic> subtopics = subtopicRepository.findAllByOrderBySortOrderAsc();
+        List<Item> items = itemRepository.findAllByOrderBySortOrderAsc();
+        log.debug("Assembling {} tabs, {} subtopics, {} items", tabs.size(), subtopics.size(), items.size());
+
+        Map<String, List<Subtopic>> subtopicsByTab = groupBy(subtopics, Subtopic::getTabId);
+        Map<String, List<Item>> itemsBySubtopic = new HashMap<>();
+        Map<String, List<Item>> flatItemsByTab = new HashMap<>();
+        for (Item item : items) {
+            if (item.getSubtopicId() != null) {
+                itemsBySubtopic.computeIfAbsent(item.getSubtopicId(), k -> new ArrayList<>()).add(item);
+            } else if (item.getTabId() != null) {
+                flatItemsByTab.computeIfAbsent(item.getTabId(), k -> new ArrayList<>()).add(item);
+            }
+        }
+
+        return tabs.stream()
+                .map(tab -> assemble(tab,
+                        subtopicsByTab.getOrDefault(tab.getId(), Collections.emptyList()),
+                        itemsBySubtopic,
+                        flatItemsByTab.getOrDefault(tab.getId(), Collections.emptyList())))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public String cacheName() {
+        return CacheConfig.TAB_DATA_CACHE;
+    }
+
+    /**
+     * Rebuild a stale {@code tabData} entry; null drops the entry of a deleted tab
+     */
+    @Override
+    public Object reload(Object key) {
+        if (CacheInvalidator.ALL_WITH_DATA_KEY.equals(key)) {
+            return loadAll();
+        }
+        return tabRepository.findById(String.valueOf(key))
+                .map(this::loadTab)
+                .orElse(null);
+    }
+
+    /**
+     * The combined tree plus every tab's own tree
+     */
+    @Override
+    public List<Object> warmKeys() {
+        List<Object> keys = new ArrayList<>();
+        keys.add(CacheInvalidator.ALL_WITH_DATA_KEY);
+        tabRepository.findAllByOrderBySortOrderAsc().forEach(tab -> keys.add(tab.getId()));
+        return keys;
+    }
+
+    /**
+     * Load a single tab with its data (at most 2 queries beyond the tab itself)
+     */
+    public TabWithData loadTab(Tab tab) {
+        if (Boolean.TRUE.equals(tab.getHasSubtopics())) {
+            return TabWithData.from(tab, null, loadSubtopics(tab.getId()));
+        }
+        List<Item> items = itemRepository.findByTabIdAndSubtopicIdIsNullOrderBySortOrderAsc(tab.getId());
+        return TabWithData.from(tab, items, null);
+    }
+
+    /**
+     * Load the subtopics of a tab with their items (2 queries)
+     */
+    public List<SubtopicWithItems> loadSubtopics(String tabId) {
+        List<Subtopic> subtopics = subtopicRepository.findByTabIdOrderBySortOrderAsc(tabId);
+        if (subtopics.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<String> subtopicIds = subtopics.stream()
+                .map(Subtopic::getId)
+                .collect(Collectors.toList());
+        Map<String, List<Item>> itemsBySubtopic =
+                groupBy(itemRepository.findBySubtopicIdInOrderBySortOrderAsc(subtopicIds), Item::getSubtopicId);
+        return withItems(subtopics, itemsBySubtopic);
+    }
+
+    private TabWithData assemble(Tab tab, List<Subtopic> subtopics,
+                                 Map<String, List<Item>> itemsBySubtopic, List<Item> flatItems) {
+        if (Boolean.TRUE.equals(tab.getHasSubtopics())) {
+            return TabWithData.from(tab, null, withItems(subtopics, itemsBySubtopic));
+        }
+        return TabWithData.from(tab, new ArrayList<>(flatItems), null);
+    }
+
+    private List<SubtopicWithItems> withItems(List<Subtopic> subtopics, Map<String, List<Item>> itemsBySubtopic) {
+        return subtopics.stream()
+                .map(subtopic -> SubtopicWithItems.from(subtopic,
+                        new ArrayList<>(itemsBySubtopic.getOrDefault(subtopic.getId(), Collections.emptyList()))))
+                .collect(Collectors.toList());
+    }
+
+    private static <T> Map<String, List<T>> groupBy(List<T> rows, Function<T, String> key) {
+        Map<String, List<T>> grouped = new HashMap<>();
+        for (T row : rows) {
+            String k = key.apply(row);
+            if (k != null) {
+                grouped.computeIfAbsent(k, x -> new ArrayList<>()).add(row);
+            }
+        }
+        return grouped;
+    }
+}
@@ -0,0 +1,131 @@
+package com.preptracker.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.preptracker.model.ActivityLog;
+import com.preptracker.repository.ActivityLogRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ActivityLogControllerTest {
+
+    private static final int ROWS = 1000;
+    private static final int LIMIT = 100;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ActivityLogRepository activityLogRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final LocalDateTime base = LocalDateTime.of(2026, 3, 1, 12, 0);
+
+    @BeforeEach
+    void setUp() {
+        activityLogRepository.deleteAll();
+        List<ActivityLog> rows = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            // Ten rows per timestamp, so pages break inside runs of ties
+            rows.add(activity(base.minusMinutes(i / 10)));
+        }
+        activityLogRepository.saveAll(rows);
+    }
+
+    @Test
+    void pagesCoverEveryRowOnceAtOneQueryEach() throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        List<String> ids = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            statistics.clear();
+            JsonNode page = page(cursor);
+            assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+            assertThat(page.get("items").size()).isEqualTo(LIMIT);
+            page.get("items").forEach(item -> ids.add(item.get("id").asText()));
+            cursor = page.hasNonNull("nextCursor") ? page.get("nextCursor").asText() : null;
+            pages++;
+        } while (cursor != null);
+
+        assertThat(pages).isEqualTo(ROWS / LIMIT);
+        assertThat(ids).doesNotHaveDuplicates().hasSize(ROWS);
+        List<ActivityLog> expected = activityLogRepository.findAllByOrderByTimestampDescIdDesc();
+        assertThat(ids).containsExactlyElementsOf(expected.stream().map(ActivityLog::getId).toList());
+    }
+
+    @Test
+    void newerRowsDoNotShiftLaterPages() throws Exception {
+        JsonNode first = page(null);
+        activityLogRepository.save(activity(base.plusMinutes(5)));
+
+        JsonNode second = page(first.get("nextCursor").asText());
+
+        List<ActivityLog> expected = activityLogRepository.findAll().stream()
+                .filter(row -> !row.getTimestamp().isAfter(base))
+                .sorted(Comparator.comparing(ActivityLog::getTimestamp).thenComparing(ActivityLog::getId).reversed())
+                .toList();
+        assertThat(second.get("items").get(0).get("id").asText()).isEqualTo(expected.get(LIMIT).getId());
+    }
+
+    @Test
+    void malformedCursorIsRejected() throws Exception {
+        mockMvc.perform(get("/api/activity/page").param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void unboundedListPointsToThePages() throws Exception {
+        mockMvc.perform(get("/api/activity"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Deprecation", "true"))
+                .andExpect(header().string("Link", "</api/activity/page>; rel=\"successor-version\""));
+    }
+
+    private JsonNode page(String cursor) throws Exception {
+        MockHttpServletRequestBuilder request = get("/api/activity/page").param("limit", String.valueOf(LIMIT));
+        if (cursor != null) {
+            request.param("cursor", cursor);
+        }
+        String body = mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+
+    private static ActivityLog activity(LocalDateTime timestamp) {
+        return ActivityLog.builder()
+                .itemId("item-1")
+                .itemTitle("Item")
+                .date(timestamp.toLocalDate())
+                .timestamp(timestamp)
+                .build();
+    }
+}
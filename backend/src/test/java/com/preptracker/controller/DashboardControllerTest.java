@@ -0,0 +1,116 @@
+package com.preptracker.controller;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.preptracker.config.CacheConfig;
+import com.preptracker.model.ActivityLog;
+import com.preptracker.model.Application;
+import com.preptracker.model.ChecklistItem;
+import com.preptracker.model.Tab;
+import com.preptracker.repository.ActivityLogRepository;
+import com.preptracker.repository.ApplicationRepository;
+import com.preptracker.repository.ChecklistItemRepository;
+import com.preptracker.repository.TabRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class DashboardControllerTest {
+
+    // More than one export page of each kind, with ties and missing sort keys
+    private static final int ROWS = 1100;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ChecklistItemRepository checklistItemRepository;
+
+    @Autowired
+    private ApplicationRepository applicationRepository;
+
+    @Autowired
+    private ActivityLogRepository activityLogRepository;
+
+    @Autowired
+    private TabRepository tabRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Test
+    void streamedExportMatchesInMemoryExport() throws Exception {
+        List<ChecklistItem> checklist = new ArrayList<>();
+        List<Application> applications = new ArrayList<>();
+        List<ActivityLog> activity = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.of(2026, 1, 15, 12, 0);
+        for (int i = 0; i < ROWS; i++) {
+            checklist.add(ChecklistItem.builder()
+                    .text("Check " + i)
+                    .sortOrder(i % 10 == 0 ? null : i % 7)
+                    .build());
+            applications.add(Application.builder()
+                    .company("Company " + i)
+                    .role("Role")
+                    .date(i % 10 == 0 ? null : LocalDate.of(2026, 1, 1).plusDays(i % 5))
+                    .build());
+            activity.add(ActivityLog.builder()
+                    .itemId("item-" + i)
+                    .itemTitle("Item")
+                    .date(now.toLocalDate())
+                    .timestamp(i % 10 == 0 ? null : now.minusMinutes(i % 3))
+                    .build());
+        }
+        checklistItemRepository.saveAll(checklist);
+        applicationRepository.saveAll(applications);
+        activityLogRepository.saveAll(activity);
+
+        byte[] inMemory = mockMvc.perform(get("/api/dashboard/export"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+        MvcResult started = mockMvc.perform(get("/api/dashboard/export/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        byte[] streamed = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertThat(streamed).hasSizeGreaterThan(ROWS);
+        assertThat(streamed).isEqualTo(inMemory);
+    }
+
+    @Test
+    void streamedExportLeavesTabDataCacheAlone() throws Exception {
+        Tab tab = tabRepository.findAllByOrderBySortOrderAsc().get(0);
+        // The native cache, since a lookup through Spring's cache would load the entry
+        @SuppressWarnings("unchecked")
+        Cache<Object, Object> tabData =
+                (Cache<Object, Object>) cacheManager.getCache(CacheConfig.TAB_DATA_CACHE).getNativeCache();
+        tabData.invalidateAll();
+
+        MvcResult started = mockMvc.perform(get("/api/dashboard/export/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(started)).andExpect(status().isOk());
+
+        assertThat(tabData.getIfPresent(tab.getId())).isNull();
+    }
+}
@@ -0,0 +1,221 @@
+package com.preptracker.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.preptracker.model.ImageAttachment;
+import com.preptracker.repository.ImageAttachmentRepository;
+import com.preptracker.repository.ImageBlobRepository;
+import com.preptracker.service.ImageService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMultipartHttpServletRequestBuilder;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ImageControllerTest {
+
+    private static final int MULTI_UPLOAD_FILES = 20;
+
+    private static final String SVG = "<svg xmlns=\"http://www.w3.org/2000/svg\"><script>alert(1)</script></svg>";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ImageService imageService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ImageAttachmentRepository imageAttachmentRepository;
+
+    @Autowired
+    private ImageBlobRepository imageBlobRepository;
+
+    @Test
+    void rejectsUploadsThatAreNotRasterImages() throws Exception {
+        MockMultipartFile svg = new MockMultipartFile("file", "x.svg", "image/svg+xml",
+                SVG.getBytes(StandardCharsets.UTF_8));
+
+        mockMvc.perform(multipart("/api/images/upload").file(svg).param("itemId", "item-1"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void servesUploadedImageWithCachingAndRanges() throws Exception {
+        byte[] png = png(16, 16);
+        String fileName = upload(png, "image/png");
+
+        MvcResult full = mockMvc.perform(get("/api/images/" + fileName))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("image/png"))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=31536000, public, immutable"))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + fileName + "\""))
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andExpect(header().exists("Content-Security-Policy"))
+                .andReturn();
+        assertThat(full.getResponse().getContentAsByteArray()).isEqualTo(png);
+
+        String etag = full.getResponse().getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(get("/api/images/" + fileName).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        MvcResult partial = mockMvc.perform(get("/api/images/" + fileName).header(HttpHeaders.RANGE, "bytes=0-9"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 0-9/" + png.length))
+                .andReturn();
+        assertThat(partial.getResponse().getContentAsByteArray()).isEqualTo(Arrays.copyOf(png, 10));
+    }
+
+    @Test
+    void identicalUploadsShareOneFile() throws Exception {
+        byte[] png = png(8, 8);
+
+        assertThat(upload(png, "image/png")).isEqualTo(upload(png, "image/png"));
+    }
+
+    @Test
+    void blobNameIgnoresTheClientFileName() throws Exception {
+        byte[] png = png(12, 12);
+
+        MvcResult result = mockMvc.perform(post("/api/images/upload-stream")
+                        .param("itemId", "item-1")
+                        .param("fileName", "x./../../../escaped")
+                        .contentType("image/png")
+                        .content(png))
+                .andExpect(status().isOk())
+                .andReturn();
+        String fileName = objectMapper.readTree(result.getResponse().getContentAsString()).get("fileName").asText();
+
+        assertThat(fileName).matches("[0-9a-f]{64}\\.png");
+        mockMvc.perform(get("/api/images/" + fileName)).andExpect(status().isOk());
+    }
+
+    @Test
+    void blobReferencesFollowAttachments() throws Exception {
+        byte[] png = png(10, 10);
+        String fileName = upload(png, "image/png");
+        upload(png, "image/png");
+        String contentHash = fileName.substring(0, fileName.indexOf('.'));
+        assertThat(imageBlobRepository.findById(contentHash).orElseThrow().getRefCount()).isEqualTo(2);
+
+        ImageAttachment attachment = imageAttachmentRepository.findFirstByFileName(fileName).orElseThrow();
+        mockMvc.perform(delete("/api/images/" + attachment.getId())).andExpect(status().isOk());
+
+        assertThat(imageBlobRepository.findById(contentHash).orElseThrow().getRefCount()).isEqualTo(1);
+    }
+
+    @Test
+    void legacyNonRasterFilesAreOnlyDownloaded() throws Exception {
+        Files.writeString(imageService.getUploadPath().resolve("legacy.svg"), SVG);
+
+        mockMvc.perform(get("/api/images/legacy.svg"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/octet-stream"))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"legacy.svg\""))
+                .andExpect(header().string("X-Content-Type-Options", "nosniff"));
+    }
+
+    @Test
+    void multiUploadStoresEveryFileInOneRequest() throws Exception {
+        String itemId = "multi-" + System.nanoTime();
+        List<byte[]> images = new ArrayList<>();
+        MockMultipartHttpServletRequestBuilder request = multipart("/api/images/upload-multiple");
+        for (int i = 0; i < MULTI_UPLOAD_FILES; i++) {
+            byte[] png = noise(128, i);
+            images.add(png);
+            request.file(new MockMultipartFile("files", "image-" + i + ".png", "image/png", png));
+        }
+
+        MvcResult result = mockMvc.perform(request.param("itemId", itemId))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        JsonNode attachments = objectMapper.readTree(result.getResponse().getContentAsString());
+        assertThat(attachments).hasSize(MULTI_UPLOAD_FILES);
+        assertThat(imageAttachmentRepository.findByItemIdOrderByUploadedAtAsc(itemId)).hasSize(MULTI_UPLOAD_FILES);
+        for (int i = 0; i < MULTI_UPLOAD_FILES; i++) {
+            MvcResult served = mockMvc.perform(get("/api/images/" + attachments.get(i).get("fileName").asText()))
+                    .andExpect(status().isOk())
+                    .andReturn();
+            assertThat(served.getResponse().getContentAsByteArray()).isEqualTo(images.get(i));
+        }
+    }
+
+    @Test
+    void multiUploadWithARejectedFileSavesNothing() throws Exception {
+        String itemId = "rejected-" + System.nanoTime();
+        byte[] png = noise(32, 99);
+        String fileName = upload(png, "image/png");
+        String contentHash = fileName.substring(0, fileName.indexOf('.'));
+        int references = imageBlobRepository.findById(contentHash).orElseThrow().getRefCount();
+
+        mockMvc.perform(multipart("/api/images/upload-multiple")
+                        .file(new MockMultipartFile("files", "ok.png", "image/png", png))
+                        .file(new MockMultipartFile("files", "x.svg", "image/svg+xml", SVG.getBytes(StandardCharsets.UTF_8)))
+                        .param("itemId", itemId))
+                .andExpect(status().isBadRequest());
+
+        assertThat(imageAttachmentRepository.findByItemIdOrderByUploadedAtAsc(itemId)).isEmpty();
+        assertThat(imageBlobRepository.findById(contentHash).orElseThrow().getRefCount()).isEqualTo(references);
+    }
+
+    private String upload(byte[] bytes, String contentType) throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "image.png", contentType, bytes);
+        MvcResult result = mockMvc.perform(multipart("/api/images/upload").file(file).param("itemId", "item-1"))
+                .andExpect(status().isOk())
+                .andReturn();
+        JsonNode attachment = objectMapper.readTree(result.getResponse().getContentAsString());
+        return attachment.get("fileName").asText();
+    }
+
+    private static byte[] noise(int size, long seed) throws IOException {
+        Random random = new Random(seed);
+        BufferedImage image = new BufferedImage(size, size, BufferedImage.TYPE_INT_RGB);
+        for (int x = 0; x < size; x++) {
+            for (int y = 0; y < size; y++) {
+                image.setRGB(x, y, random.nextInt(0x1000000));
+            }
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", bytes);
+        return bytes.toByteArray();
+    }
+
+    private static byte[] png(int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        image.setRGB(width / 2, height / 2, 0xff8800 + width);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", bytes);
+        return bytes.toByteArray();
+    }
+}
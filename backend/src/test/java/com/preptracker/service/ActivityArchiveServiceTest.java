@@ -0,0 +1,173 @@
+package com.preptracker.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.preptracker.model.ActivityLog;
+import com.preptracker.model.Item;
+import com.preptracker.model.Tab;
+import com.preptracker.repository.ActivityLogRepository;
+import com.preptracker.repository.ItemRepository;
+import com.preptracker.repository.TabRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ActivityArchiveServiceTest {
+
+    @Autowired
+    private ActivityArchiveService activityArchiveService;
+
+    @Autowired
+    private ActivityLogService activityLogService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private ActivityLogRepository activityLogRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private TabRepository tabRepository;
+
+    @Autowired
+    private CacheService cacheService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.activity.retention.archive-dir}")
+    private String archiveDir;
+
+    private final LocalDate archivedDate = LocalDate.now().minusYears(3);
+
+    @BeforeEach
+    void setUp() {
+        activityArchiveService.clear();
+        activityLogRepository.deleteAll();
+    }
+
+    @Test
+    void deletedArchivedActivityIsNoLongerRead() {
+        ActivityLog kept = activityLogRepository.save(activity("item-1", archivedDate));
+        ActivityLog deleted = activityLogRepository.save(activity("item-1", archivedDate));
+        assertThat(activityArchiveService.archive()).isEqualTo(2);
+
+        activityLogService.deleteActivityLog(deleted.getId());
+
+        assertThat(activityArchiveService.readAll()).extracting(ActivityLog::getId).containsExactly(kept.getId());
+        assertThat(activityArchiveService.read(archivedDate, archivedDate))
+                .extracting(ActivityLog::getId).containsExactly(kept.getId());
+    }
+
+    @Test
+    void deletingItemHidesItsArchivedActivity() {
+        Tab tab = tabRepository.save(Tab.builder().name("Archive test").sortOrder(100).build());
+        Item item = itemRepository.save(Item.builder()
+                .title("Old item")
+                .tabId(tab.getId())
+                .createdAt(archivedDate.minusMonths(1).atStartOfDay())
+                .build());
+        activityLogRepository.save(activity(item.getId(), archivedDate));
+        ActivityLog other = activityLogRepository.save(activity("other-item", archivedDate));
+        activityArchiveService.archive();
+
+        itemService.deleteItem(item.getId());
+
+        assertThat(activityArchiveService.readAll()).extracting(ActivityLog::getId).containsExactly(other.getId());
+    }
+
+    @Test
+    void archivedActivityIsStillListed() {
+        Tab tab = tabRepository.save(Tab.builder().name("Listed").sortOrder(101).build());
+        ActivityLog archived = activity("item-1", archivedDate);
+        archived.setTabId(tab.getId());
+        archived = activityLogRepository.save(archived);
+        ActivityLog recent = activity("item-1", LocalDate.now());
+        recent.setTabId(tab.getId());
+        recent = activityLogRepository.save(recent);
+        ActivityLog otherTab = activityLogRepository.save(activity("item-2", archivedDate.minusDays(1)));
+        assertThat(activityArchiveService.archive()).isEqualTo(2);
+        cacheService.clearAllCaches();
+
+        assertThat(activityLogService.getAllActivityLogs()).extracting(ActivityLog::getId)
+                .containsExactly(recent.getId(), archived.getId(), otherTab.getId());
+        assertThat(activityLogService.getActivityLogsByTabId(tab.getId())).extracting(ActivityLog::getId)
+                .containsExactly(recent.getId(), archived.getId());
+    }
+
+    @Test
+    void tornMemberIsCutOutAtStartup() throws IOException {
+        ActivityLog before = activity("item-1", archivedDate);
+        before.setId("before");
+        ActivityLog torn = activity("item-1", archivedDate);
+        torn.setId("torn");
+        ActivityLog after = activity("item-1", archivedDate);
+        after.setId("after");
+
+        byte[] tornMember = member(torn);
+        Path segment = Paths.get(archiveDir).toAbsolutePath()
+                .resolve("activity-" + YearMonth.from(archivedDate) + ".jsonl.gz");
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        content.write(member(before));
+        content.write(Arrays.copyOf(tornMember, tornMember.length / 2));
+        content.write(member(after));
+        Files.write(segment, content.toByteArray());
+
+        activityArchiveService.init();
+
+        List<ActivityLog> rows = activityArchiveService.readAll();
+        assertThat(rows).extracting(ActivityLog::getId).containsExactlyInAnyOrder("before", "after");
+    }
+
+    @Test
+    void appendsAfterRepairAreReadable() throws IOException {
+        Path segment = Paths.get(archiveDir).toAbsolutePath()
+                .resolve("activity-" + YearMonth.from(archivedDate) + ".jsonl.gz");
+        byte[] tornMember = member(activity("item-1", archivedDate));
+        Files.write(segment, Arrays.copyOf(tornMember, tornMember.length / 2));
+        activityArchiveService.init();
+
+        ActivityLog archived = activityLogRepository.save(activity("item-1", archivedDate));
+        activityArchiveService.archive();
+
+        assertThat(activityArchiveService.readAll()).extracting(ActivityLog::getId).containsExactly(archived.getId());
+    }
+
+    private ActivityLog activity(String itemId, LocalDate date) {
+        return ActivityLog.builder()
+                .itemId(itemId)
+                .itemTitle("Item")
+                .date(date)
+                .timestamp(date.atTime(12, 0))
+                .build();
+    }
+
+    private byte[] member(ActivityLog row) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            gzip.write((objectMapper.writeValueAsString(row) + "\n").getBytes(StandardCharsets.UTF_8));
+        }
+        return bytes.toByteArray();
+    }
+}
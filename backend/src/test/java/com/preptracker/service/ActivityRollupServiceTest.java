@@ -0,0 +1,109 @@
+package com.preptracker.service;
+
+import com.preptracker.model.ActivityDailyRollup;
+import com.preptracker.repository.ActivityDailyRollupRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+class ActivityRollupServiceTest {
+
+    @Autowired
+    private ActivityRollupService activityRollupService;
+
+    @Autowired
+    private ActivityDailyRollupRepository rollupRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final LocalDate today = LocalDate.now();
+
+    @Test
+    void streakEndingTodayCountsToday() {
+        String tabId = UUID.randomUUID().toString();
+        activeDays(tabId, today, 3);
+
+        assertThat(activityRollupService.getSummary(null, tabId).getCurrentStreak()).isEqualTo(3);
+    }
+
+    @Test
+    void streakMayEndYesterday() {
+        String tabId = UUID.randomUUID().toString();
+        activeDays(tabId, today.minusDays(1), 5);
+        activeDays(tabId, today.minusDays(10), 2);
+
+        assertThat(activityRollupService.getSummary(null, tabId).getCurrentStreak()).isEqualTo(5);
+    }
+
+    @Test
+    void longStreakStopsReadingAtTheFirstGap() {
+        String tabId = UUID.randomUUID().toString();
+        activeDays(tabId, today, 40);
+        // Older history that the streak must not read
+        activeDays(tabId, today.minusDays(41), 300);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        statistics.clear();
+        int streak = activityRollupService.getSummary(null, tabId).getCurrentStreak();
+
+        assertThat(streak).isEqualTo(40);
+        // The summary range, two windows of days back to the gap, then the first active day
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(4);
+    }
+
+    @Test
+    void summaryReportsTheFirstActiveDayOfAnyYear() {
+        String tabId = UUID.randomUUID().toString();
+        activeDays(tabId, today, 2);
+        activeDays(tabId, today.minusYears(3), 1);
+        rollupRepository.save(ActivityDailyRollup.builder()
+                .activityDate(today.minusYears(4))
+                .tabId(tabId)
+                .activityCount(0)
+                .build());
+
+        assertThat(activityRollupService.getSummary(null, tabId).getFirstActivityDate())
+                .isEqualTo(today.minusYears(3));
+        assertThat(activityRollupService.getSummary(null, UUID.randomUUID().toString()).getFirstActivityDate())
+                .isNull();
+    }
+
+    @Test
+    void streakWindowsSeekTheTabIndex() {
+        String plan = jdbcTemplate.queryForObject("EXPLAIN SELECT * FROM activity_daily_rollups " +
+                "WHERE tab_id = 't' AND activity_date BETWEEN DATE '2025-12-01' AND DATE '2026-01-01' " +
+                "ORDER BY activity_date", String.class);
+
+        assertThat(plan).contains("IDX_ROLLUP_TAB_DATE: TAB_ID = 't'").contains("ACTIVITY_DATE >=");
+    }
+
+    private void activeDays(String tabId, LocalDate last, int days) {
+        List<ActivityDailyRollup> rollups = new ArrayList<>();
+        for (int i = 0; i < days; i++) {
+            rollups.add(ActivityDailyRollup.builder()
+                    .activityDate(last.minusDays(i))
+                    .tabId(tabId)
+                    .activityCount(1)
+                    .build());
+        }
+        rollupRepository.saveAll(rollups);
+    }
+}
@@ -0,0 +1,96 @@
+package com.preptracker.service;
+
+import com.preptracker.model.ActivityLog;
+import com.preptracker.model.Item;
+import com.preptracker.repository.ActivityLogRepository;
+import com.preptracker.repository.ItemRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "app.activity.writer.running-marker=target/test-data/activity-writer-test.running")
+@ActiveProfiles("test")
+class ActivityWriterTest {
+
+    @Autowired
+    private ActivityWriter activityWriter;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private ActivityLogRepository activityLogRepository;
+
+    @Value("${app.activity.writer.running-marker}")
+    private String runningMarker;
+
+    @Test
+    void completionIsWrittenInTheBackground() throws Exception {
+        Item item = itemRepository.save(Item.builder().title("Background").tabId("tab-1").build());
+
+        itemService.toggleItemCompletion(item.getId());
+
+        assertThat(awaitLogs(item.getId())).hasSize(1);
+    }
+
+    @Test
+    void cleanRestartDoesNotRecreateDeletedLogs() throws Exception {
+        Item item = completedWithoutLog("Deleted on purpose");
+
+        activityWriter.shutdown();
+        assertThat(Files.exists(Paths.get(runningMarker))).isFalse();
+        activityWriter.start();
+        activityWriter.recover();
+        Thread.sleep(1500);
+
+        assertThat(activityLogRepository.findAll()).extracting(ActivityLog::getItemId).doesNotContain(item.getId());
+    }
+
+    @Test
+    void restartAfterCrashRecoversMissingLogs() throws Exception {
+        Item item = completedWithoutLog("Lost in a crash");
+
+        activityWriter.shutdown();
+        // The marker a crashed run leaves behind
+        Files.writeString(Paths.get(runningMarker), "crashed");
+        activityWriter.start();
+        activityWriter.recover();
+
+        assertThat(awaitLogs(item.getId())).hasSize(1);
+    }
+
+    private Item completedWithoutLog(String title) {
+        return itemRepository.save(Item.builder()
+                .title(title)
+                .tabId("tab-1")
+                .completed(true)
+                .completedAt(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS))
+                .build());
+    }
+
+    private List<ActivityLog> awaitLogs(String itemId) throws InterruptedException {
+        for (int attempt = 0; attempt < 50; attempt++) {
+            List<ActivityLog> logs = activityLogRepository.findAll().stream()
+                    .filter(log -> itemId.equals(log.getItemId()))
+                    .toList();
+            if (!logs.isEmpty()) {
+                return logs;
+            }
+            Thread.sleep(100);
+        }
+        return List.of();
+    }
+}
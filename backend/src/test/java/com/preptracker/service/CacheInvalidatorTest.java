@@ -0,0 +1,106 @@
+package com.preptracker.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.preptracker.config.CacheConfig;
+import com.preptracker.dto.TabWithData;
+import com.preptracker.model.Item;
+import com.preptracker.model.Tab;
+import com.preptracker.repository.ItemRepository;
+import com.preptracker.repository.TabRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class CacheInvalidatorTest {
+
+    private static final int ROUNDS = 50;
+
+    @Autowired
+    private TabService tabService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private TabRepository tabRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private Cache<Object, Object> tabData;
+
+    private Tab edited;
+    private Tab other;
+    private Item item;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        tabData = (Cache<Object, Object>) cacheManager.getCache(CacheConfig.TAB_DATA_CACHE).getNativeCache();
+        edited = tabRepository.save(Tab.builder().name("Edited").sortOrder(700).build());
+        other = tabRepository.save(Tab.builder().name("Other").sortOrder(701).build());
+        item = itemRepository.save(Item.builder().title("Title").tabId(edited.getId()).sortOrder(0).build());
+        itemRepository.save(Item.builder().title("Untouched").tabId(other.getId()).sortOrder(0).build());
+        tabData.invalidateAll();
+        tabService.getTabWithData(edited.getId());
+        tabService.getTabWithData(other.getId());
+        tabService.getAllTabsWithData();
+    }
+
+    @Test
+    void mixedWorkloadKeepsTreesWarm() {
+        CacheStats patched = runWorkload(() -> { });
+        // The same workload with every entry evicted on each write, as the allEntries evictions did
+        CacheStats evicted = runWorkload(tabData::invalidateAll);
+
+        assertThat(patched.hitRate()).isEqualTo(1.0);
+        assertThat(patched.hitCount()).isEqualTo(3L * ROUNDS);
+        assertThat(evicted.hitRate()).isZero();
+        assertThat(evicted.missCount()).isEqualTo(3L * ROUNDS);
+        TabWithData edit = tabService.getTabWithData(edited.getId());
+        assertThat(edit.getItems()).extracting(Item::getTitle).containsExactly("Title " + (ROUNDS - 1));
+        List<TabWithData> all = tabService.getAllTabsWithData();
+        assertThat(all.stream().filter(tab -> tab.getId().equals(edited.getId())).findFirst().orElseThrow().getItems())
+                .extracting(Item::getTitle).containsExactly("Title " + (ROUNDS - 1));
+    }
+
+    @Test
+    void addingAnItemEvictsOnlyItsTab() {
+        itemService.createItem(Item.builder().title("Added").tabId(edited.getId()).build());
+
+        assertThat(tabData.getIfPresent(edited.getId())).isNull();
+        assertThat(tabData.getIfPresent(CacheInvalidator.ALL_WITH_DATA_KEY)).isNull();
+        assertThat(tabData.getIfPresent(other.getId())).isNotNull();
+        assertThat(tabService.getTabWithData(edited.getId()).getItems()).extracting(Item::getTitle)
+                .contains("Title", "Added");
+    }
+
+    /**
+     * Edits one item and reads back both trees and the full list, ROUNDS times; afterWrite
+     * runs after each edit. Returns the tree cache statistics for the run.
+     */
+    private CacheStats runWorkload(Runnable afterWrite) {
+        CacheStats before = tabData.stats();
+        for (int i = 0; i < ROUNDS; i++) {
+            itemService.updateItem(item.getId(), Item.builder().title("Title " + i).build());
+            afterWrite.run();
+            tabService.getTabWithData(edited.getId());
+            tabService.getTabWithData(other.getId());
+            tabService.getAllTabsWithData();
+        }
+        return tabData.stats().minus(before);
+    }
+}
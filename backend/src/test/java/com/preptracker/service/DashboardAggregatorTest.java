@@ -0,0 +1,107 @@
+package com.preptracker.service;
+
+import com.preptracker.config.CacheConfig;
+import com.preptracker.dto.DashboardStats;
+import com.preptracker.model.Application;
+import com.preptracker.model.Item;
+import com.preptracker.model.Subtopic;
+import com.preptracker.model.Tab;
+import com.preptracker.repository.ApplicationRepository;
+import com.preptracker.repository.ItemRepository;
+import com.preptracker.repository.ItemRepository.ProgressCount;
+import com.preptracker.repository.SubtopicRepository;
+import com.preptracker.repository.TabRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+class DashboardAggregatorTest {
+
+    private static final int TABS = 12;
+
+    @Autowired
+    private DashboardAggregator dashboardAggregator;
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    @Autowired
+    private TabRepository tabRepository;
+
+    @Autowired
+    private SubtopicRepository subtopicRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private ApplicationRepository applicationRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void eachAggregateIsOneQueryRegardlessOfTabCount() {
+        Tab last = null;
+        Subtopic lastSubtopic = null;
+        for (int i = 0; i < TABS; i++) {
+            last = tabRepository.save(Tab.builder().name("Counted " + i).sortOrder(400 + i).build());
+            lastSubtopic = subtopicRepository.save(Subtopic.builder().name("Sub " + i).tabId(last.getId()).build());
+            itemRepository.save(Item.builder().title("Open").tabId(last.getId()).subtopicId(lastSubtopic.getId()).build());
+            itemRepository.save(Item.builder().title("Done").tabId(last.getId()).completed(true).build());
+        }
+        applicationRepository.save(Application.builder().company("Acme").role("Engineer").build());
+        cacheManager.getCache(CacheConfig.DASHBOARD_CACHE).clear();
+
+        statistics.clear();
+        Map<String, ProgressCount> byTab = dashboardAggregator.countItemsByTab();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+        statistics.clear();
+        Map<String, ProgressCount> bySubtopic = dashboardAggregator.countItemsBySubtopic();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+        statistics.clear();
+        Map<String, Long> applications = dashboardAggregator.countApplicationsByStatus();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+        assertThat(byTab.get(last.getId()).getTotal()).isEqualTo(2);
+        assertThat(byTab.get(last.getId()).getCompleted()).isEqualTo(1);
+        assertThat(bySubtopic.get(lastSubtopic.getId()).getTotal()).isEqualTo(1);
+        assertThat(applications.get("applied")).isPositive();
+    }
+
+    @Test
+    void warmDashboardIssuesNoQueries() {
+        DashboardStats first = dashboardService.getDashboardStats();
+
+        statistics.clear();
+        DashboardStats second = dashboardService.getDashboardStats();
+
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(second.getTotalCategories()).isEqualTo(first.getTotalCategories());
+        assertThat(second.getTotalQuestions()).isEqualTo(first.getTotalQuestions());
+    }
+}
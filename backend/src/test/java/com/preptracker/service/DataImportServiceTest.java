@@ -0,0 +1,131 @@
+package com.preptracker.service;
+
+import com.preptracker.dto.ImportStatus;
+import com.preptracker.model.ImageAttachment;
+import com.preptracker.model.ImageBlob;
+import com.preptracker.model.Item;
+import com.preptracker.model.Tab;
+import com.preptracker.repository.ImageAttachmentRepository;
+import com.preptracker.repository.ImageBlobRepository;
+import com.preptracker.repository.ItemRepository;
+import com.preptracker.repository.TabRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class DataImportServiceTest {
+
+    private static final String DOCUMENT = """
+            {"tabs": [{"id": "t1", "name": "Imported", "sortOrder": 0,
+                       "items": [{"id": "i1", "title": "First"}, {"id": "i2", "title": "Second"}]}],
+             "checklist": [{"id": "c1", "text": "Check"}],
+             "applications": [],
+             "activityLog": []}
+            """;
+
+    @Autowired
+    private DataImportService dataImportService;
+
+    @Autowired
+    private TabRepository tabRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private ImageAttachmentRepository imageAttachmentRepository;
+
+    @Autowired
+    private ImageBlobRepository imageBlobRepository;
+
+    @Test
+    void replaceSwapsInTheDocument() {
+        ImportStatus status = dataImportService.importData(stream(DOCUMENT), DataImportService.Mode.REPLACE, 1);
+
+        assertThat(status.getState()).isEqualTo(ImportStatus.State.COMPLETED);
+        assertThat(tabRepository.findAll()).extracting(Tab::getName).containsExactly("Imported");
+        assertThat(itemRepository.findAll()).extracting(Item::getId).containsExactlyInAnyOrder("i1", "i2");
+    }
+
+    @Test
+    void malformedDocumentLeavesDataUntouched() {
+        dataImportService.importData(stream(DOCUMENT), DataImportService.Mode.REPLACE, 1);
+        String broken = """
+                {"tabs": [{"id": "t2", "name": "Other", "items": [{"id": "i3", "title": "Third"}]}],
+                 "checklist": [{"id": "c2", "text": """;
+
+        assertThatThrownBy(() -> dataImportService.importData(stream(broken), DataImportService.Mode.REPLACE, 1))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(dataImportService.getStatus().getState()).isEqualTo(ImportStatus.State.FAILED);
+        assertThat(tabRepository.findAll()).extracting(Tab::getName).containsExactly("Imported");
+        assertThat(itemRepository.findAll()).extracting(Item::getId).containsExactlyInAnyOrder("i1", "i2");
+    }
+
+    @Test
+    void mergeKeepsRowsMissingFromTheDocument() {
+        dataImportService.importData(stream(DOCUMENT), DataImportService.Mode.REPLACE, 1);
+        String update = """
+                {"tabs": [{"id": "t1", "name": "Renamed", "items": [{"id": "i3", "title": "Third"}]}]}
+                """;
+
+        dataImportService.importData(stream(update), DataImportService.Mode.MERGE, 1);
+
+        assertThat(tabRepository.findAll()).extracting(Tab::getName).containsExactly("Renamed");
+        assertThat(itemRepository.findAll()).extracting(Item::getId).containsExactlyInAnyOrder("i1", "i2", "i3");
+    }
+
+    @Test
+    void replaceReleasesImagesOfItemsThatAreGone() {
+        dataImportService.importData(stream(DOCUMENT), DataImportService.Mode.REPLACE, 1);
+        imageBlobRepository.save(blob("hash-kept"));
+        imageBlobRepository.save(blob("hash-gone"));
+        ImageAttachment kept = imageAttachmentRepository.save(attachment("i1", "hash-kept"));
+        imageAttachmentRepository.save(attachment("i2", "hash-gone"));
+        String withoutSecond = DOCUMENT.replace(", {\"id\": \"i2\", \"title\": \"Second\"}", "");
+
+        dataImportService.importData(stream(withoutSecond), DataImportService.Mode.REPLACE, 1);
+
+        assertThat(imageAttachmentRepository.findAll()).extracting(ImageAttachment::getId)
+                .containsExactly(kept.getId());
+        assertThat(imageBlobRepository.findById("hash-kept").orElseThrow().getRefCount()).isEqualTo(1);
+        assertThat(imageBlobRepository.findById("hash-gone").orElseThrow().getRefCount()).isZero();
+    }
+
+    private static ImageBlob blob(String hash) {
+        return ImageBlob.builder()
+                .id(hash)
+                .fileName(hash + ".png")
+                .contentType("image/png")
+                .fileSize(1L)
+                .refCount(1)
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    private static ImageAttachment attachment(String itemId, String hash) {
+        return ImageAttachment.builder()
+                .itemId(itemId)
+                .fileName(hash + ".png")
+                .contentType("image/png")
+                .fileSize(1L)
+                .contentHash(hash)
+                .uploadedAt(LocalDateTime.now())
+                .build();
+    }
+
+    private static InputStream stream(String document) {
+        return new ByteArrayInputStream(document.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,78 @@
+package com.preptracker.service;
+
+import com.preptracker.dto.ImportStatus;
+import com.preptracker.repository.ItemRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs against a file database like the application's: an in-memory one hides
+ * most of the cost of a large transaction.
+ */
+@SpringBootTest(properties =
+        "spring.datasource.url=jdbc:h2:file:./target/test-data/import-throughput/${random.uuid};DB_CLOSE_ON_EXIT=FALSE")
+@ActiveProfiles("test")
+class DataImportThroughputTest {
+
+    private static final int ITEMS = 100_000;
+
+    @Autowired
+    private DataImportService dataImportService;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void replacesAndMerges100kItemsInSeconds() {
+        byte[] document = bulkDocument();
+        dataImportService.importData(new ByteArrayInputStream(document), DataImportService.Mode.REPLACE, null);
+
+        ImportStatus replace = dataImportService.importData(
+                new ByteArrayInputStream(document), DataImportService.Mode.REPLACE, null);
+        ImportStatus merge = dataImportService.importData(
+                new ByteArrayInputStream(document), DataImportService.Mode.MERGE, null);
+
+        // Applying the staged rows in one transaction took 37 to 46 s for the replace and 15 s for the merge
+        assertThat(replace.getDurationMs()).isLessThan(15_000);
+        assertThat(merge.getDurationMs()).isLessThan(15_000);
+        assertThat(itemRepository.count()).isEqualTo(ITEMS);
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT INDEX_NAME FROM INFORMATION_SCHEMA.INDEXES WHERE TABLE_NAME = 'ITEMS'", String.class))
+                .contains("IDX_ITEM_TAB_SUBTOPIC_ORDER", "IDX_ITEM_SUBTOPIC_ORDER",
+                        "IDX_ITEM_TAB_COMPLETED", "IDX_ITEM_SUBTOPIC_COMPLETED");
+        assertThat(jdbcTemplate.queryForList("SELECT TABLE_NAME FROM INFORMATION_SCHEMA.TABLES"
+                + " WHERE TABLE_NAME LIKE 'IMPORT%' OR TABLE_NAME LIKE 'REPLACED%'", String.class)).isEmpty();
+    }
+
+    /**
+     * Tabs of 5,000 items each, with random ids like the ones the application generates
+     */
+    private static byte[] bulkDocument() {
+        StringBuilder json = new StringBuilder("{\"tabs\": [");
+        for (int i = 0; i < ITEMS; i++) {
+            if (i % 5000 == 0) {
+                json.append(i == 0 ? "" : "]}, ")
+                        .append("{\"id\": \"bulk-").append(i / 5000).append("\", \"name\": \"Bulk\", \"items\": [");
+            } else {
+                json.append(", ");
+            }
+            json.append("{\"id\": \"").append(UUID.randomUUID())
+                    .append("\", \"title\": \"Item ").append(i)
+                    .append("\", \"content\": \"Notes on item ").append(i)
+                    .append("\", \"sortOrder\": ").append(i % 5000).append('}');
+        }
+        return json.append("]}]}").toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,92 @@
+package com.preptracker.service;
+
+import com.preptracker.dto.ChangeEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EventBroadcasterTest {
+
+    private static final int QUEUE_CAPACITY = 8;
+
+    @Test
+    void slowSubscriberGetsOneResyncInsteadOfItsBacklog() throws Exception {
+        CountDownLatch firstSendStarted = new CountDownLatch(1);
+        CountDownLatch clientCatchesUp = new CountDownLatch(1);
+        List<ChangeEvent> received = Collections.synchronizedList(new ArrayList<>());
+        EventBroadcaster broadcaster = new EventBroadcaster(1, QUEUE_CAPACITY, 10, Duration.ofMinutes(1)) {
+            @Override
+            SseEmitter createEmitter(Duration timeout) {
+                return new SseEmitter(timeout.toMillis()) {
+                    // A client whose connection stalls until the test lets it drain
+                    @Override
+                    public void send(SseEventBuilder builder) throws IOException {
+                        firstSendStarted.countDown();
+                        try {
+                            clientCatchesUp.await(10, TimeUnit.SECONDS);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            throw new IOException(e);
+                        }
+                        builder.build().stream()
+                                .map(DataWithMediaType::getData)
+                                .filter(ChangeEvent.class::isInstance)
+                                .map(ChangeEvent.class::cast)
+                                .forEach(received::add);
+                    }
+                };
+            }
+        };
+        try {
+            broadcaster.subscribe();
+            broadcaster.broadcast(event(0));
+            assertThat(firstSendStarted.await(10, TimeUnit.SECONDS)).isTrue();
+
+            // Event 0 is stuck in the stalled send; the rest overflow the queue more than once
+            int events = QUEUE_CAPACITY * 3;
+            for (int i = 1; i <= events; i++) {
+                broadcaster.broadcast(event(i));
+            }
+            clientCatchesUp.countDown();
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (!lastIs(received, "item-" + events) && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            List<ChangeEvent> sent = List.copyOf(received);
+            assertThat(sent).extracting(ChangeEvent::getType).filteredOn(EventBroadcaster.RESYNC::equals).hasSize(1);
+            assertThat(sent.get(0).getId()).isEqualTo("item-0");
+            assertThat(sent.get(1).getType()).isEqualTo(EventBroadcaster.RESYNC);
+            assertThat(sent.size()).isLessThanOrEqualTo(QUEUE_CAPACITY + 1);
+            // After the resync only the newest events follow, in order
+            List<String> tail = sent.subList(2, sent.size()).stream().map(ChangeEvent::getId).toList();
+            List<String> expected = new ArrayList<>();
+            for (int i = events - tail.size() + 1; i <= events; i++) {
+                expected.add("item-" + i);
+            }
+            assertThat(tail).isNotEmpty().containsExactlyElementsOf(expected);
+        } finally {
+            clientCatchesUp.countDown();
+            broadcaster.shutdown();
+        }
+    }
+
+    private static boolean lastIs(List<ChangeEvent> received, String id) {
+        synchronized (received) {
+            return !received.isEmpty() && id.equals(received.get(received.size() - 1).getId());
+        }
+    }
+
+    private static ChangeEvent event(int i) {
+        return ChangeEvent.builder().type("item.toggled").id("item-" + i).build();
+    }
+}
@@ -0,0 +1,80 @@
+package com.preptracker.service;
+
+import com.preptracker.model.ImageBlob;
+import com.preptracker.repository.ImageBlobRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.reset;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ImageServiceTest {
+
+    @Autowired
+    private ImageService imageService;
+
+    @SpyBean
+    private ImageBlobRepository imageBlobRepository;
+
+    @Test
+    void collectorDeletesBlobsPastTheGracePeriod() throws IOException {
+        ImageBlob blob = unreferencedBlob();
+
+        imageService.collectGarbage();
+
+        assertThat(imageBlobRepository.findById(blob.getId())).isEmpty();
+        assertThat(imageService.locate(blob.getFileName())).doesNotExist();
+    }
+
+    @Test
+    void uploadThatRestartsTheGracePeriodKeepsTheBlob() throws IOException {
+        ImageBlob blob = unreferencedBlob();
+        // An upload of the same content reaches storeBlob after the collector read its candidates
+        doAnswer(invocation -> {
+            imageBlobRepository.deferCollection(blob.getId(), LocalDateTime.now());
+            return List.of(blob.getId());
+        }).when(imageBlobRepository).findUnreferencedIds(any());
+
+        try {
+            imageService.collectGarbage();
+        } finally {
+            reset(imageBlobRepository);
+        }
+
+        assertThat(imageService.locate(blob.getFileName())).exists();
+        // The upload then takes its reference in saveAll
+        assertThat(imageBlobRepository.incrementRefCount(blob.getId())).isEqualTo(1);
+    }
+
+    private ImageBlob unreferencedBlob() throws IOException {
+        String contentHash = UUID.randomUUID().toString().replace("-", "");
+        String fileName = contentHash + ".png";
+        Path file = imageService.shardedPath(fileName);
+        Files.createDirectories(file.getParent());
+        Files.write(file, new byte[]{1, 2, 3});
+        LocalDateTime longAgo = LocalDateTime.now().minusDays(1);
+        return imageBlobRepository.save(ImageBlob.builder()
+                .id(contentHash)
+                .fileName(fileName)
+                .contentType("image/png")
+                .fileSize(3L)
+                .refCount(0)
+                .createdAt(longAgo)
+                .unreferencedSince(longAgo)
+                .build());
+    }
+}
@@ -0,0 +1,111 @@
+package com.preptracker.service;
+
+import com.preptracker.dto.MoveRequest;
+import com.preptracker.dto.ReorderRequest;
+import com.preptracker.model.Item;
+import com.preptracker.model.Tab;
+import com.preptracker.repository.ItemRepository;
+import com.preptracker.repository.TabRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.assertj.core.groups.Tuple;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+class ItemReorderTest {
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private TabRepository tabRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void reorderCostDoesNotGrowWithTheList() {
+        long small = reorderStatements(10);
+        long large = reorderStatements(300);
+
+        // Only the scope lookup goes through Hibernate; the rows are written in one JDBC batch
+        assertThat(small).isEqualTo(1);
+        assertThat(large).isEqualTo(small);
+    }
+
+    @Test
+    void moveWritesOnlyTheMovedItem() {
+        List<Item> items = items(5, SparseOrdering.GAP);
+        Map<String, Integer> before = sortOrders(items);
+
+        itemService.moveItem(items.get(4).getId(), new MoveRequest(items.get(0).getId()));
+
+        Map<String, Integer> after = sortOrders(items);
+        assertThat(after.get(items.get(4).getId())).isEqualTo(SparseOrdering.GAP / 2);
+        for (int i = 0; i < 4; i++) {
+            assertThat(after.get(items.get(i).getId())).isEqualTo(before.get(items.get(i).getId()));
+        }
+    }
+
+    @Test
+    void moveWithoutRoomRenumbersTheList() {
+        List<Item> items = items(3, 1);
+
+        itemService.moveItem(items.get(2).getId(), new MoveRequest(items.get(0).getId()));
+
+        assertThat(itemRepository.findByTabIdAndSubtopicIdIsNullOrderBySortOrderAsc(items.get(0).getTabId()))
+                .extracting(Item::getId, Item::getSortOrder)
+                .containsExactly(
+                        Tuple.tuple(items.get(0).getId(), 0),
+                        Tuple.tuple(items.get(2).getId(), SparseOrdering.GAP),
+                        Tuple.tuple(items.get(1).getId(), 2 * SparseOrdering.GAP));
+    }
+
+    private long reorderStatements(int size) {
+        List<Item> items = items(size, 1);
+        List<ReorderRequest> reversed = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            reversed.add(new ReorderRequest(items.get(i).getId(), size - i));
+        }
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        statistics.clear();
+        itemService.reorderItems(reversed);
+        long statements = statistics.getPrepareStatementCount();
+
+        Map<String, Integer> sortOrders = sortOrders(items);
+        for (ReorderRequest update : reversed) {
+            assertThat(sortOrders.get(update.getId())).isEqualTo(update.getSortOrder());
+        }
+        return statements;
+    }
+
+    private List<Item> items(int count, int step) {
+        Tab tab = tabRepository.save(Tab.builder().name("Reordered").sortOrder(900).build());
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            items.add(Item.builder().title("Item " + i).tabId(tab.getId()).sortOrder(i * step).build());
+        }
+        return itemRepository.saveAll(items);
+    }
+
+    private Map<String, Integer> sortOrders(List<Item> items) {
+        return itemRepository.findAllById(items.stream().map(Item::getId).toList()).stream()
+                .collect(Collectors.toMap(Item::getId, Item::getSortOrder));
+    }
+}
@@ -0,0 +1,86 @@
+package com.preptracker.service;
+
+import com.preptracker.model.Item;
+import com.preptracker.model.Tab;
+import com.preptracker.repository.ItemRepository;
+import com.preptracker.repository.TabRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doAnswer;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ProgressCountersTest {
+
+    @Autowired
+    private ProgressCounters progressCounters;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private TabRepository tabRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @SpyBean
+    private DashboardAggregator dashboardAggregator;
+
+    @Test
+    void reconcileRepairsDrift() {
+        Tab tab = tabRepository.save(Tab.builder().name("Drift").sortOrder(300).build());
+        itemRepository.save(Item.builder().title("Unseen").tabId(tab.getId()).completed(true).build());
+        assertThat(progressCounters.tab(tab.getId()).getTotal()).isZero();
+
+        progressCounters.reconcile();
+
+        assertThat(progressCounters.tab(tab.getId()).getTotal()).isEqualTo(1);
+        assertThat(progressCounters.tab(tab.getId()).getCompleted()).isEqualTo(1);
+    }
+
+    @Test
+    void reconcileKeepsDeltaAppliedWhileCounting() {
+        Tab tab = tabRepository.save(Tab.builder().name("Racing").sortOrder(301).build());
+        Item item = itemService.createItem(Item.builder().title("Toggled").tabId(tab.getId()).build());
+        progressCounters.reconcile();
+        long globalCompleted = progressCounters.global().getCompleted();
+
+        // The toggle commits and applies its delta after the counts were read
+        doAnswer(invocation -> {
+            Object counts = invocation.callRealMethod();
+            itemService.toggleItemCompletion(item.getId());
+            return counts;
+        }).when(dashboardAggregator).countItemsByTab();
+
+        progressCounters.reconcile();
+
+        assertThat(progressCounters.tab(tab.getId()).getCompleted()).isEqualTo(1);
+        assertThat(progressCounters.global().getCompleted()).isEqualTo(globalCompleted + 1);
+    }
+
+    @Test
+    void rolledBackCreateLeavesCountersAlone() {
+        Tab tab = tabRepository.save(Tab.builder().name("Rolled back").sortOrder(302).build());
+        progressCounters.reconcile();
+        long globalTotal = progressCounters.global().getTotal();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            itemService.createItem(Item.builder().title("Never committed").tabId(tab.getId()).build());
+            status.setRollbackOnly();
+        });
+
+        assertThat(progressCounters.tab(tab.getId()).getTotal()).isZero();
+        assertThat(progressCounters.global().getTotal()).isEqualTo(globalTotal);
+    }
+}
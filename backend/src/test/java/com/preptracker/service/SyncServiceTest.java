@@ -0,0 +1,50 @@
+package com.preptracker.service;
+
+import com.preptracker.dto.SyncResponse;
+import com.preptracker.model.Tab;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class SyncServiceTest {
+
+    @Autowired
+    private SyncService syncService;
+
+    @Autowired
+    private TabService tabService;
+
+    @Test
+    void versionZeroGetsFullResync() {
+        tabService.createTab(Tab.builder().name("Logged").build());
+
+        SyncResponse response = syncService.changesSince(0L);
+
+        assertThat(response.isFullResync()).isTrue();
+        assertThat(response.getVersion()).isEqualTo(syncService.currentVersion());
+    }
+
+    @Test
+    void deltaCarriesWritesAfterTheClientVersion() {
+        tabService.createTab(Tab.builder().name("Before").build());
+        long since = syncService.currentVersion();
+        Tab created = tabService.createTab(Tab.builder().name("Created").build());
+        Tab updated = tabService.updateTab(created.getId(), Tab.builder().name("Renamed").build());
+
+        SyncResponse response = syncService.changesSince(since);
+
+        assertThat(response.isFullResync()).isFalse();
+        assertThat(response.getChanges()).isEqualTo(2);
+        assertThat(response.getTabs()).extracting(Tab::getName).containsExactly(updated.getName());
+    }
+
+    @Test
+    void versionsAheadOfTheServerGetFullResync() {
+        assertThat(syncService.changesSince(syncService.currentVersion() + 10).isFullResync()).isTrue();
+    }
+}
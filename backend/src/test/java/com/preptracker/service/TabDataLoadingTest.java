@@ -0,0 +1,106 @@
+package com.preptracker.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.preptracker.config.CacheConfig;
+import com.preptracker.dto.TabWithData;
+import com.preptracker.model.Tab;
+import com.preptracker.repository.TabRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "app.cache.caches[tabData].refresh-after-write=1s"
+})
+@ActiveProfiles("test")
+class TabDataLoadingTest {
+
+    private static final int CALLERS = 40;
+
+    @Autowired
+    private TabService tabService;
+
+    @Autowired
+    private TabRepository tabRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Cache<Object, Object> tabData;
+    private Statistics statistics;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        tabData = (Cache<Object, Object>) cacheManager.getCache(CacheConfig.TAB_DATA_CACHE).getNativeCache();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void expiryStormRunsOneLoad() throws Exception {
+        tabData.invalidateAll();
+        CacheStats before = tabData.stats();
+        statistics.clear();
+
+        CyclicBarrier start = new CyclicBarrier(CALLERS);
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+        List<Future<List<TabWithData>>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < CALLERS; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return tabService.getAllTabsWithData();
+                }));
+            }
+            List<TabWithData> first = results.get(0).get(30, TimeUnit.SECONDS);
+            for (Future<List<TabWithData>> result : results) {
+                assertThat(result.get(30, TimeUnit.SECONDS)).isSameAs(first);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(tabData.stats().minus(before).loadCount()).isEqualTo(1);
+        // Tabs, subtopics and items, once
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+    }
+
+    @Test
+    void staleTreeIsServedWhileItReloads() throws Exception {
+        tabData.invalidateAll();
+        List<TabWithData> stale = tabService.getAllTabsWithData();
+        // Written behind the cache, so only a reload can pick it up
+        Tab added = tabRepository.save(Tab.builder().name("Behind the cache").sortOrder(800).build());
+        Thread.sleep(1200);
+
+        assertThat(tabService.getAllTabsWithData()).isSameAs(stale);
+
+        List<TabWithData> refreshed = stale;
+        for (int attempt = 0; attempt < 50 && refreshed == stale; attempt++) {
+            Thread.sleep(100);
+            refreshed = tabService.getAllTabsWithData();
+        }
+        assertThat(refreshed).extracting(TabWithData::getId).contains(added.getId());
+    }
+}
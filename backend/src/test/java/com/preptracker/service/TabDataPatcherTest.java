@@ -0,0 +1,123 @@
+package com.preptracker.service;
+
+import com.preptracker.dto.SubtopicWithItems;
+import com.preptracker.dto.TabWithData;
+import com.preptracker.model.Item;
+import com.preptracker.model.Subtopic;
+import com.preptracker.model.Tab;
+import com.preptracker.repository.SubtopicRepository;
+import com.preptracker.repository.TabRepository;
+import org.assertj.core.groups.Tuple;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class TabDataPatcherTest {
+
+    private static final int THREADS = 6;
+
+    @Autowired
+    private TabService tabService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private TabTreeLoader tabTreeLoader;
+
+    @Autowired
+    private TabRepository tabRepository;
+
+    @Autowired
+    private SubtopicRepository subtopicRepository;
+
+    @Test
+    void patchedProgressMatchesReloadWhenTabHasLooseItems() {
+        Tab tab = tabRepository.save(Tab.builder().name("Loose items").hasSubtopics(true).sortOrder(200).build());
+        Subtopic subtopic = subtopicRepository.save(Subtopic.builder().name("Only").tabId(tab.getId()).sortOrder(0).build());
+        Item inside = item(tab, subtopic, 0);
+        item(tab, subtopic, 1);
+        item(tab, null, 2);
+        item(tab, null, 3);
+        tabService.getTabWithData(tab.getId());
+
+        itemService.toggleItemCompletion(inside.getId());
+
+        TabWithData cached = tabService.getTabWithData(tab.getId());
+        assertThat(cached.getProgress()).isEqualTo(50);
+        assertThat(cached.getProgress()).isEqualTo(tabTreeLoader.loadTab(tab).getProgress());
+    }
+
+    @Test
+    void interleavedTogglesLeaveCachedTreeEqualToReload() throws Exception {
+        Tab tab = tabRepository.save(Tab.builder().name("Concurrent").hasSubtopics(true).sortOrder(201).build());
+        Subtopic first = subtopicRepository.save(Subtopic.builder().name("First").tabId(tab.getId()).sortOrder(0).build());
+        Subtopic second = subtopicRepository.save(Subtopic.builder().name("Second").tabId(tab.getId()).sortOrder(1).build());
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            Subtopic subtopic = i % 3 == 0 ? first : i % 3 == 1 ? second : null;
+            items.add(item(tab, subtopic, i));
+        }
+        tabService.getTabWithData(tab.getId());
+
+        CyclicBarrier start = new CyclicBarrier(THREADS);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> toggles = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                String itemId = items.get(i).getId();
+                int times = 5 + i;
+                toggles.add(executor.submit(() -> {
+                    start.await();
+                    for (int n = 0; n < times; n++) {
+                        itemService.toggleItemCompletion(itemId);
+                        tabService.getTabWithData(tab.getId());
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> toggle : toggles) {
+                toggle.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        TabWithData cached = tabService.getTabWithData(tab.getId());
+        TabWithData reloaded = tabTreeLoader.loadTab(tabRepository.findById(tab.getId()).orElseThrow());
+        assertThat(cached.getProgress()).isEqualTo(reloaded.getProgress());
+        assertThat(cached.getSubtopics()).hasSameSizeAs(reloaded.getSubtopics());
+        for (int i = 0; i < reloaded.getSubtopics().size(); i++) {
+            SubtopicWithItems expected = reloaded.getSubtopics().get(i);
+            SubtopicWithItems actual = cached.getSubtopics().get(i);
+            assertThat(actual.getProgress()).isEqualTo(expected.getProgress());
+            assertThat(actual.getItems()).extracting(Item::getId, Item::getCompleted)
+                    .containsExactlyElementsOf(expected.getItems().stream()
+                            .map(item -> Tuple.tuple(item.getId(), item.getCompleted()))
+                            .toList());
+        }
+    }
+
+    // Through the service, so the progress counters that patched subtopics read include the item
+    private Item item(Tab tab, Subtopic subtopic, int sortOrder) {
+        return itemService.createItem(Item.builder()
+                .title("Item " + sortOrder)
+                .tabId(tab.getId())
+                .subtopicId(subtopic != null ? subtopic.getId() : null)
+                .sortOrder(sortOrder)
+                .build());
+    }
+}
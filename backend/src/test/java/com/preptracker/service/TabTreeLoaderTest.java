@@ -0,0 +1,113 @@
+package com.preptracker.service;
+
+import com.preptracker.dto.SubtopicWithItems;
+import com.preptracker.dto.TabWithData;
+import com.preptracker.model.Item;
+import com.preptracker.model.Subtopic;
+import com.preptracker.model.Tab;
+import com.preptracker.repository.ItemRepository;
+import com.preptracker.repository.SubtopicRepository;
+import com.preptracker.repository.TabRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+class TabTreeLoaderTest {
+
+    @Autowired
+    private TabTreeLoader tabTreeLoader;
+
+    @Autowired
+    private TabRepository tabRepository;
+
+    @Autowired
+    private SubtopicRepository subtopicRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void queryCountStaysFlatAsSubtopicsGrow() {
+        Tab small = tabWithSubtopics("Small", 2);
+        long smallTree = queriesFor(() -> tabTreeLoader.loadTab(small));
+        long smallAll = queriesFor(() -> tabTreeLoader.loadAll());
+
+        Tab large = tabWithSubtopics("Large", 60);
+        long largeTree = queriesFor(() -> tabTreeLoader.loadTab(large));
+        long largeAll = queriesFor(() -> tabTreeLoader.loadAll());
+
+        assertThat(smallTree).isEqualTo(2);
+        assertThat(largeTree).isEqualTo(smallTree);
+        assertThat(smallAll).isEqualTo(3);
+        assertThat(largeAll).isEqualTo(smallAll);
+    }
+
+    @Test
+    void assemblesTheSameTreeAsPerTabLoads() {
+        Tab tab = tabWithSubtopics("Assembled", 3);
+        Tab flat = tabRepository.save(Tab.builder().name("Flat").sortOrder(601).build());
+        itemRepository.save(Item.builder().title("Second").tabId(flat.getId()).sortOrder(1).build());
+        itemRepository.save(Item.builder().title("First").tabId(flat.getId()).sortOrder(0).build());
+
+        List<TabWithData> all = tabTreeLoader.loadAll();
+
+        TabWithData assembled = all.stream().filter(t -> t.getId().equals(tab.getId())).findFirst().orElseThrow();
+        TabWithData loaded = tabTreeLoader.loadTab(tab);
+        assertThat(assembled.getSubtopics()).extracting(SubtopicWithItems::getId)
+                .containsExactlyElementsOf(loaded.getSubtopics().stream().map(SubtopicWithItems::getId).toList());
+        assertThat(assembled.getSubtopics().get(0).getItems()).extracting(Item::getId)
+                .containsExactlyElementsOf(loaded.getSubtopics().get(0).getItems().stream().map(Item::getId).toList());
+        TabWithData flatTree = all.stream().filter(t -> t.getId().equals(flat.getId())).findFirst().orElseThrow();
+        assertThat(flatTree.getItems()).extracting(Item::getTitle).containsExactly("First", "Second");
+    }
+
+    private Tab tabWithSubtopics(String name, int subtopicCount) {
+        Tab tab = tabRepository.save(Tab.builder().name(name).hasSubtopics(true).sortOrder(600).build());
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < subtopicCount; i++) {
+            Subtopic subtopic = subtopicRepository.save(Subtopic.builder()
+                    .name(name + " " + i)
+                    .tabId(tab.getId())
+                    .sortOrder(i)
+                    .build());
+            for (int j = 0; j < 3; j++) {
+                items.add(Item.builder()
+                        .title("Item " + j)
+                        .tabId(tab.getId())
+                        .subtopicId(subtopic.getId())
+                        .sortOrder(j)
+                        .build());
+            }
+        }
+        itemRepository.saveAll(items);
+        return tab;
+    }
+
+    private long queriesFor(Runnable load) {
+        statistics.clear();
+        load.run();
+        return statistics.getPrepareStatementCount();
+    }
+}
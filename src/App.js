@@ -1,4 +1,4 @@
-import React, { useState, useEffect, useCallback } from 'react';
+import React, { useState, useEffect, useCallback, useRef } from 'react';
 import { motion, AnimatePresence } from 'framer-motion';
 import {
   BarChart, Bar, XAxis, YAxis, Tooltip, ResponsiveContainer,
@@ -41,7 +41,7 @@ import {
 } from '@dnd-kit/sortable';
 
 // Import API service
-import { tabsApi, subtopicsApi, itemsApi, checklistApi, applicationsApi, activityApi, dashboardApi } from './services/api';
+import { tabsApi, subtopicsApi, itemsApi, checklistApi, applicationsApi, activityApi, dashboardApi, eventsApi } from './services/api';
 import { CodeAvatar, LoadingSpinner, ErrorMessage, SortableTopicSection, SortableAccordionItem, AppModals, ChecklistView, ApplicationTrackerView, JournalView, HabitsView } from './components';
 
 // Icon mapping
@@ -49,6 +49,65 @@ const IconMap = {
   Database, Layers, Code2, Cpu, FileCode, BookOpen, Sparkles
 };
 
+// ============ LIVE UPDATE HELPERS ============
+const upsertById = (list, entity) => {
+  if (!list) return list;
+  return list.some(e => e.id === entity.id)
+    ? list.map(e => (e.id === entity.id ? entity : e))
+    : [...list, entity];
+};
+
+const removeById = (list, id) => (list ? list.filter(e => e.id !== id) : list);
+
+// Journal rows fetched per cursor page
+const ACTIVITY_PAGE_SIZE = 100;
+
+// Swap an updated item into a tab tree, keeping its place
+const patchTabItem = (tab, item) => {
+  if (!tab || tab.id !== item.tabId) return tab;
+  return {
+    ...tab,
+    items: tab.items?.map(i => (i.id === item.id ? item : i)),
+    subtopics: tab.subtopics?.map(s => (
+      s.id === item.subtopicId ? { ...s, items: s.items?.map(i => (i.id === item.id ? item : i)) } : s
+    )),
+  };
+};
+
+const patchTabProgress = (tab, progress) => {
+  if (!tab || !progress) return tab;
+  let patched = tab;
+  progress.forEach(p => {
+    if (p.scope === 'tab' && p.id === tab.id) {
+      patched = { ...patched, progress: p.percent };
+    } else if (p.scope === 'subtopic' && patched.subtopics) {
+      patched = {
+        ...patched,
+        subtopics: patched.subtopics.map(s => (s.id === p.id ? { ...s, progress: p.percent } : s)),
+      };
+    }
+  });
+  return patched;
+};
+
+const patchStatsProgress = (stats, progress) => {
+  if (!stats || !progress) return stats;
+  let patched = stats;
+  progress.forEach(p => {
+    if (p.scope === 'overall') {
+      patched = { ...patched, overallProgress: p.percent, totalQuestions: p.total, completedQuestions: p.completed };
+    } else if (p.scope === 'tab' && patched.categoryProgress) {
+      patched = {
+        ...patched,
+        categoryProgress: patched.categoryProgress.map(c => (
+          c.tabId === p.id ? { ...c, progress: p.percent, total: p.total, completed: p.completed } : c
+        )),
+      };
+    }
+  });
+  return patched;
+};
+
 function App() {
   // State
   const [tabs, setTabs] = useState([]);
@@ -57,6 +116,10 @@ function App() {
   const [checklist, setChecklist] = useState([]);
   const [applications, setApplications] = useState([]);
   const [activityLog, setActivityLog] = useState([]);
+  // Cursor of the next journal page, null once the oldest row is loaded
+  const [activityCursor, setActivityCursor] = useState(null);
+  // Bumped whenever activity changes, so the heatmap refetches its summary
+  const [activityRevision, setActivityRevision] = useState(0);
   const [habits, setHabits] = useState([]);
   const [dashboardStats, setDashboardStats] = useState(null);
   
@@ -78,11 +141,98 @@ function App() {
     useSensor(KeyboardSensor, { coordinateGetter: sortableKeyboardCoordinates })
   );
 
+  // Live updates: true while the event stream is connected, null before it first connects
+  const liveRef = useRef(null);
+  const activeTabRef = useRef(null);
+  activeTabRef.current = activeTab;
+
   // Load initial data
   useEffect(() => {
     loadInitialData();
   }, []);
 
+  // Apply pushed change events instead of refetching whole trees
+  useEffect(() => {
+    // After a resync or a reconnect, missed events may be of any type
+    const reloadAll = () => {
+      if (activeTabRef.current) loadTabData(activeTabRef.current);
+      loadTabs();
+      loadDashboardStats();
+      loadChecklist();
+      loadApplications();
+      loadActivityLog();
+    };
+    const applyEvent = (event) => {
+      const tabId = activeTabRef.current;
+      if (event.progress) {
+        setDashboardStats(prev => patchStatsProgress(prev, event.progress));
+        setCurrentTabData(prev => patchTabProgress(prev, event.progress));
+      }
+      switch (event.type) {
+        case 'item.toggled':
+        case 'item.updated':
+          setCurrentTabData(prev => patchTabItem(prev, event.data));
+          break;
+        case 'item.created':
+        case 'item.deleted':
+        case 'items.reordered':
+        case 'subtopic.created':
+        case 'subtopic.updated':
+        case 'subtopic.deleted':
+        case 'subtopics.reordered':
+          if (tabId && (!event.tabId || event.tabId === tabId)) {
+            loadTabData(tabId);
+          }
+          break;
+        case 'tab.created':
+        case 'tab.updated':
+          setTabs(prev => upsertById(prev, event.data));
+          break;
+        case 'tab.deleted':
+          setTabs(prev => removeById(prev, event.id));
+          break;
+        case 'checklist.created':
+        case 'checklist.updated':
+        case 'checklist.toggled':
+          setChecklist(prev => upsertById(prev, event.data));
+          break;
+        case 'checklist.deleted':
+          setChecklist(prev => removeById(prev, event.id));
+          break;
+        case 'application.created':
+        case 'application.updated':
+          setApplications(prev => upsertById(prev, event.data));
+          break;
+        case 'application.deleted':
+          setApplications(prev => removeById(prev, event.id));
+          break;
+        case 'activity.appended':
+          setActivityLog(prev => (
+            !prev || prev.some(a => a.id === event.data.id) ? prev : [event.data, ...prev]
+          ));
+          setActivityRevision(r => r + 1);
+          break;
+        case 'activity.deleted':
+          setActivityLog(prev => removeById(prev, event.id));
+          setActivityRevision(r => r + 1);
+          break;
+        case 'resync':
+          // The server dropped this client's backlog
+          reloadAll();
+          break;
+        default:
+          break;
+      }
+    };
+    const onStatus = (connected) => {
+      if (connected && liveRef.current === false) {
+        reloadAll();
+      }
+      liveRef.current = connected;
+    };
+    return eventsApi.subscribe(applyEvent, onStatus);
+  }, []);
+
   // Load tab data when activeTab changes
   useEffect(() => {
     if (activeTab) {
@@ -131,6 +281,19 @@ function App() {
     }
   };
 
+  const loadTabs = async () => {
+    try {
+      const [tabsData, tabsWithSubtopicsData] = await Promise.all([
+        tabsApi.getAll(),
+        tabsApi.getTabsWithSubtopics()
+      ]);
+      setTabs(tabsData);
+      setTabsWithSubtopics(tabsWithSubtopicsData);
+    } catch (err) {
+      console.error('Failed to load tabs:', err);
+    }
+  };
+
   const loadTabData = async (tabId) => {
     try {
       const data = await tabsApi.getWithData(tabId);
@@ -160,13 +323,30 @@ function App() {
 
   const loadActivityLog = async () => {
     try {
-      const data = await activityApi.getAll();
-      setActivityLog(data);
+      const page = await activityApi.getPage(ACTIVITY_PAGE_SIZE);
+      setActivityLog(page.items);
+      setActivityCursor(page.nextCursor || null);
+      setActivityRevision(r => r + 1);
     } catch (err) {
       console.error('Failed to load activity log:', err);
     }
   };
 
+  const loadMoreActivityLog = async () => {
+    if (!activityCursor) return;
+    try {
+      const page = await activityApi.getPage(ACTIVITY_PAGE_SIZE, activityCursor);
+      // Rows pushed live may already be in the list
+      setActivityLog(prev => {
+        const loaded = new Set(prev.map(a => a.id));
+        return [...prev, ...page.items.filter(a => !loaded.has(a.id))];
+      });
+      setActivityCursor(page.nextCursor || null);
+    } catch (err) {
+      console.error('Failed to load more activity:', err);
+    }
+  };
+
   const loadDashboardStats = async () => {
     try {
       const data = await dashboardApi.getStats();
@@ -209,10 +389,13 @@ function App() {
   // Toggle item completion
   const toggleItemComplete = async (itemId) => {
     try {
-      await itemsApi.toggleCompletion(itemId);
-      await loadTabData(activeTab);
-      // Always refresh dashboard stats to update sidebar progress
-      await loadDashboardStats();
+      const updated = await itemsApi.toggleCompletion(itemId);
+      setCurrentTabData(prev => patchTabItem(prev, updated));
+      // Progress arrives with the item.toggled event; refetch only without a live stream
+      if (!liveRef.current) {
+        await loadTabData(activeTab);
+        await loadDashboardStats();
+      }
     } catch (err) {
       console.error('Failed to toggle item:', err);
     }
@@ -1001,7 +1184,12 @@ function App() {
 
             {/* Journal View */}
             {activeTopNav === 'journal' && (
-              <JournalView activityLog={activityLog} />
+              <JournalView
+                activityLog={activityLog}
+                activityRevision={activityRevision}
+                hasMore={!!activityCursor}
+                onLoadMore={loadMoreActivityLog}
+              />
             )}
 
             {/* Habit Tracker View */}
@@ -27,6 +27,9 @@ import {
 } from 'lucide-react';
 import { imagesApi } from '../services/api';
 
+// Image types the backend accepts
+const IMAGE_TYPES = ['image/png', 'image/jpeg', 'image/gif', 'image/webp'];
+
 // Accordion Item Component (for individual questions)
 function AccordionItem({ item, isOpen, isEditing, onToggle, onToggleComplete, onUpdate, onDelete, onEdit, isNested = false, dragHandleProps = {} }) {
   const [content, setContent] = useState(item.content);
@@ -81,11 +84,9 @@ function AccordionItem({ item, isOpen, isEditing, onToggle, onToggleComplete, on
 
     setUploadingImage(true);
     try {
-      const uploadedImages = [];
-      for (const file of files) {
-        const uploaded = await imagesApi.upload(file, item.id);
-        uploadedImages.push(uploaded);
-      }
+      const uploadedImages = files.length > 1
+        ? await imagesApi.uploadMultiple(files, item.id)
+        : [await imagesApi.upload(files[0], item.id)];
       await loadImages();
 
       // Embed images in the note at cursor position
@@ -153,7 +154,7 @@ function AccordionItem({ item, isOpen, isEditing, onToggle, onToggleComplete, on
     setDragActive(false);
 
     const files = Array.from(e.dataTransfer.files).filter(
-      file => file.type.startsWith('image/')
+      file => IMAGE_TYPES.includes(file.type)
     );
     if (files.length > 0) {
       handleImageUpload(files);
@@ -166,7 +167,7 @@ function AccordionItem({ item, isOpen, isEditing, onToggle, onToggleComplete, on
 
     const imageFiles = [];
     for (const item of items) {
-      if (item.type.startsWith('image/')) {
+      if (IMAGE_TYPES.includes(item.type)) {
         const file = item.getAsFile();
         if (file) imageFiles.push(file);
       }
@@ -439,7 +440,7 @@ function AccordionItem({ item, isOpen, isEditing, onToggle, onToggleComplete, on
                           <span>Upload</span>
                           <input
                             type="file"
-                            accept="image/*"
+                            accept={IMAGE_TYPES.join(',')}
                             multiple
                             style={{ display: 'none' }}
                             onChange={(e) => handleImageUpload(Array.from(e.target.files))}
@@ -479,7 +480,7 @@ function AccordionItem({ item, isOpen, isEditing, onToggle, onToggleComplete, on
                           {images.map((img) => (
                             <div key={img.id} className="image-item">
                               <img
-                                src={imagesApi.getImageUrl(img.fileName)}
+                                src={imagesApi.getImageUrl(img.fileName, 'thumb')}
                                 alt={img.originalFileName}
                                 loading="lazy"
                               />
@@ -509,7 +510,7 @@ function AccordionItem({ item, isOpen, isEditing, onToggle, onToggleComplete, on
                             <Plus size={24} />
                             <input
                               type="file"
-                              accept="image/*"
+                              accept={IMAGE_TYPES.join(',')}
                               multiple
                               style={{ display: 'none' }}
                               onChange={(e) => handleImageUpload(Array.from(e.target.files))}
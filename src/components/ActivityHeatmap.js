@@ -1,10 +1,26 @@
-import React, { useState } from 'react';
+import React, { useEffect, useState } from 'react';
+import { activityApi } from '../services/api';
 
 // Activity Heatmap Component (Reusable for Journal)
-function ActivityHeatmap({ activities }) {
+// Counts and streaks come from the daily rollups, so archived history is included
+// without loading every activity row; a new revision refetches them
+function ActivityHeatmap({ revision }) {
   const today = new Date();
   const currentYear = today.getFullYear();
   const [selectedYear, setSelectedYear] = useState('last12');
+  const [summary, setSummary] = useState(null);
+
+  useEffect(() => {
+    let cancelled = false;
+    activityApi.getSummary(selectedYear === 'last12' ? undefined : selectedYear)
+      .then(data => {
+        if (!cancelled) setSummary(data);
+      })
+      .catch(err => console.error('Failed to load activity summary:', err));
+    return () => {
+      cancelled = true;
+    };
+  }, [selectedYear, revision]);
 
   const localFormatDate = (d) => {
     if (!d) return '';
@@ -14,13 +30,8 @@ function ActivityHeatmap({ activities }) {
     return `${y}-${m}-${day}`;
   };
 
-  // Group activities by date and count them
-  const activityCountsByDate = activities.reduce((acc, activity) => {
-    if (activity.date) {
-      acc[activity.date] = (acc[activity.date] || 0) + 1;
-    }
-    return acc;
-  }, {});
+  // Activity count per day (YYYY-MM-DD) within the selected range
+  const activityCountsByDate = summary?.dailyCounts || {};
 
   // Function to get color based on activity count
   const getCellColor = (count) => {
@@ -30,127 +41,25 @@ function ActivityHeatmap({ activities }) {
     return 'var(--accent-orange)';                               // Neon Orange (7+)
   };
 
-  // Get available years from activities data
+  // Every year from the first active day up to now
   const availableYears = (() => {
-    const years = new Set();
-    years.add(currentYear);
-    activities.forEach(activity => {
-      if (activity.date) {
-        const year = parseInt(activity.date.split('-')[0]);
-        if (!isNaN(year)) years.add(year);
-      }
-    });
-    return Array.from(years).sort((a, b) => b - a);
-  })();
-
-  // Extract unique dates from activities
-  const completedDatesSet = new Set(Object.keys(activityCountsByDate));
-
-  // Filter activities based on selected year for count
-  const filteredActivitiesCount = activities.filter(activity => {
-    if (selectedYear === 'last12') {
-      const d = new Date(activity.date);
-      const oneYearAgo = new Date();
-      oneYearAgo.setDate(today.getDate() - 365);
-      return d >= oneYearAgo && d <= today;
-    } else {
-      return activity.date && activity.date.startsWith(selectedYear.toString());
-    }
-  }).length;
-
-  // Filter unique dates for total active days stat
-  const filteredDatesCount = Array.from(completedDatesSet).filter(dateStr => {
-    if (selectedYear === 'last12') {
-      const d = new Date(dateStr);
-      const oneYearAgo = new Date();
-      oneYearAgo.setDate(today.getDate() - 365);
-      return d >= oneYearAgo && d <= today;
-    } else {
-      return dateStr.startsWith(selectedYear.toString());
+    const firstYear = summary?.firstActivityDate
+      ? parseInt(summary.firstActivityDate.split('-')[0])
+      : currentYear;
+    const years = [];
+    for (let year = currentYear; year >= Math.min(firstYear, currentYear); year--) {
+      years.push(year);
     }
-  }).length;
-
-  const totalActiveDays = filteredDatesCount;
-
-  // Calculate streaks
-  let maxStreak = 0;
-  let currentStreak = 0;
-  let tempStreak = 0;
-
-  if (completedDatesSet.size > 0) {
-    if (selectedYear === 'last12') {
-      // Max streak in last 365 days
-      for (let i = 0; i < 365; i++) {
-        const d = new Date();
-        d.setDate(today.getDate() - (364 - i));
-        const dateStr = localFormatDate(d);
-        if (completedDatesSet.has(dateStr)) {
-          tempStreak++;
-          maxStreak = Math.max(maxStreak, tempStreak);
-        } else {
-          tempStreak = 0;
-        }
-      }
-
-      // Current streak
-      let checkDate = new Date();
-      while (true) {
-        const dateStr = localFormatDate(checkDate);
-        if (completedDatesSet.has(dateStr)) {
-          currentStreak++;
-          checkDate.setDate(checkDate.getDate() - 1);
-        } else {
-          if (currentStreak === 0) {
-            const yesterday = new Date();
-            yesterday.setDate(yesterday.getDate() - 1);
-            const yestStr = localFormatDate(yesterday);
-            if (completedDatesSet.has(yestStr)) {
-              checkDate = yesterday;
-              continue;
-            }
-          }
-          break;
-        }
-      }
-    } else {
-      // Specific year stats
-      const isLeap = (year) => (year % 4 === 0 && year % 100 !== 0) || (year % 400 === 0);
-      const daysInYear = isLeap(selectedYear) ? 366 : 365;
-
-      for (let i = 0; i < daysInYear; i++) {
-        const d = new Date(selectedYear, 0, 1 + i);
-        const dateStr = localFormatDate(d);
-        if (completedDatesSet.has(dateStr)) {
-          tempStreak++;
-          maxStreak = Math.max(maxStreak, tempStreak);
-        } else {
-          tempStreak = 0;
-        }
-      }
+    return years;
+  })();
 
-      if (selectedYear === currentYear) {
-        let checkDate = new Date();
-        while (true) {
-          const dateStr = localFormatDate(checkDate);
-          if (completedDatesSet.has(dateStr)) {
-            currentStreak++;
-            checkDate.setDate(checkDate.getDate() - 1);
-          } else {
-            if (currentStreak === 0) {
-              const yesterday = new Date();
-              yesterday.setDate(yesterday.getDate() - 1);
-              const yestStr = localFormatDate(yesterday);
-              if (completedDatesSet.has(yestStr)) {
-                checkDate = yesterday;
-                continue;
-              }
-            }
-            break;
-          }
-        }
-      }
-    }
-  }
+  const filteredActivitiesCount = summary?.totalActivities || 0;
+  const totalActiveDays = summary?.activeDays || 0;
+  const maxStreak = summary?.longestStreak || 0;
+  // The current streak only shows for ranges that reach today
+  const currentStreak = selectedYear === 'last12' || selectedYear === currentYear
+    ? summary?.currentStreak || 0
+    : 0;
 
   const monthNames = ['Jan', 'Feb', 'Mar', 'Apr', 'May', 'Jun', 'Jul', 'Aug', 'Sep', 'Oct', 'Nov', 'Dec'];
 
@@ -2,7 +2,8 @@ import React, { useState } from 'react';
 import { motion, AnimatePresence } from 'framer-motion';
 import { ChevronDown, Zap } from 'lucide-react';
 
-function JournalTimeline({ activityLog }) {
+// Shows the journal pages loaded so far; older pages are fetched on demand
+function JournalTimeline({ activityLog, hasMore, onLoadMore }) {
   const [hoveredDate, setHoveredDate] = useState(null);
 
   // Group activities by date
@@ -171,11 +172,19 @@ function JournalTimeline({ activityLog }) {
           </motion.div>
         ))}
 
-        {/* End marker */}
-        <div className="timeline-origin">
-          <div className="origin-node"></div>
-          <span className="origin-label">ORIGIN</span>
-        </div>
+        {/* End marker, once the oldest page is loaded */}
+        {hasMore ? (
+          <div className="timeline-origin">
+            <button className="btn btn-secondary" onClick={onLoadMore}>
+              Load older activity
+            </button>
+          </div>
+        ) : (
+          <div className="timeline-origin">
+            <div className="origin-node"></div>
+            <span className="origin-label">ORIGIN</span>
+          </div>
+        )}
       </div>
     </div>
   );
@@ -4,7 +4,7 @@ import { ScrollText } from 'lucide-react';
 import ActivityHeatmap from './ActivityHeatmap';
 import JournalTimeline from './JournalTimeline';
 
-function JournalView({ activityLog }) {
+function JournalView({ activityLog, activityRevision, hasMore, onLoadMore }) {
   return (
     <motion.div
       key="journal"
@@ -23,9 +23,9 @@ function JournalView({ activityLog }) {
         <p className="content-subtitle">Your daily learning timeline</p>
       </div>
 
-      <ActivityHeatmap activities={activityLog} />
+      <ActivityHeatmap revision={activityRevision} />
 
-      <JournalTimeline activityLog={activityLog} />
+      <JournalTimeline activityLog={activityLog} hasMore={hasMore} onLoadMore={onLoadMore} />
     </motion.div>
   );
 }
@@ -98,6 +98,11 @@ export const subtopicsApi = {
     method: 'PUT',
     body: JSON.stringify(updates),
   }),
+  
+  move: (id, afterId) => fetchApi(`/subtopics/${id}/move`, {
+    method: 'PUT',
+    body: JSON.stringify({ afterId }),
+  }),
 };
 
 // ============ ITEMS API ============
@@ -132,6 +137,11 @@ export const itemsApi = {
     method: 'PUT',
     body: JSON.stringify(updates),
   }),
+  
+  move: (id, afterId) => fetchApi(`/items/${id}/move`, {
+    method: 'PUT',
+    body: JSON.stringify({ afterId }),
+  }),
 };
 
 // ============ CHECKLIST API ============
@@ -191,7 +201,9 @@ export const applicationsApi = {
 
 // ============ ACTIVITY LOG API ============
 export const activityApi = {
-  getAll: () => fetchApi('/activity'),
+  // Keyset pages, newest first; pass the previous page's nextCursor for the next one
+  getPage: (limit = 50, cursor) =>
+    fetchApi(`/activity/page?limit=${limit}${cursor ? `&cursor=${encodeURIComponent(cursor)}` : ''}`),
   
   getByDate: (date) => fetchApi(`/activity/date/${date}`),
   
@@ -200,6 +212,14 @@ export const activityApi = {
   
   getByTabId: (tabId) => fetchApi(`/activity/tab/${tabId}`),
   
+  getSummary: (year, tabId) => {
+    const params = new URLSearchParams();
+    if (year) params.append('year', year);
+    if (tabId) params.append('tabId', tabId);
+    const query = params.toString();
+    return fetchApi(`/activity/summary${query ? `?${query}` : ''}`);
+  },
+  
   create: (activity) => fetchApi('/activity', {
     method: 'POST',
     body: JSON.stringify(activity),
@@ -215,6 +235,14 @@ export const dashboardApi = {
   getStats: () => fetchApi('/dashboard/stats'),
   
   exportAll: () => fetchApi('/dashboard/export'),
+  
+  // Restore an export; body is a File or string in the export format, mode 'merge' or 'replace'
+  importAll: (body, mode = 'merge') => fetchApi(`/dashboard/import?mode=${mode}`, {
+    method: 'POST',
+    body,
+  }),
+  
+  getImportStatus: () => fetchApi('/dashboard/import/status'),
 };
 
 // ============ CACHE API ============
@@ -226,22 +254,21 @@ export const cacheApi = {
 
 // ============ IMAGES API ============
 export const imagesApi = {
-  // Get image URL for display
-  getImageUrl: (fileName) => `${API_BASE_URL}/images/${fileName}`,
+  // Get image URL for display; size is 'thumb' or 'medium' for a downscaled copy
+  getImageUrl: (fileName, size) =>
+    `${API_BASE_URL}/images/${fileName}${size ? `?size=${size}` : ''}`,
   
   // Get all images for an item
   getByItemId: (itemId) => fetchApi(`/images/item/${itemId}`),
   
-  // Upload single image
+  // Upload single image, streamed as the raw request body
   upload: async (file, itemId) => {
-    const formData = new FormData();
-    formData.append('file', file);
-    formData.append('itemId', itemId);
-    
-    const url = `${API_BASE_URL}/images/upload`;
+    const params = new URLSearchParams({ itemId, fileName: file.name || 'image' });
+    const url = `${API_BASE_URL}/images/upload-stream?${params}`;
     const response = await fetch(url, {
       method: 'POST',
-      body: formData,
+      headers: { 'Content-Type': file.type || 'application/octet-stream' },
+      body: file,
     });
     
     if (!response.ok) {
@@ -252,7 +279,7 @@ export const imagesApi = {
     return response.json();
   },
   
-  // Upload multiple images
+  // Upload multiple images in one request; the server stores them concurrently
   uploadMultiple: async (files, itemId) => {
     const formData = new FormData();
     for (const file of files) {
@@ -280,6 +307,37 @@ export const imagesApi = {
   }),
 };
 
+// ============ SYNC API ============
+export const syncApi = {
+  // Rows changed since a version; fullResync means refetch everything
+  getChanges: (since) => fetchApi(`/sync${since != null ? `?since=${since}` : ''}`),
+
+  getVersion: () => fetchApi('/sync/version'),
+};
+
+// ============ EVENTS API ============
+const EVENT_TYPES = [
+  'item.created', 'item.updated', 'item.toggled', 'item.deleted', 'items.reordered',
+  'subtopic.created', 'subtopic.updated', 'subtopic.deleted', 'subtopics.reordered',
+  'tab.created', 'tab.updated', 'tab.deleted',
+  'checklist.created', 'checklist.updated', 'checklist.toggled', 'checklist.deleted',
+  'application.created', 'application.updated', 'application.deleted',
+  'activity.appended', 'activity.deleted', 'resync',
+];
+
+export const eventsApi = {
+  // Subscribe to live change events; returns a function that closes the stream
+  subscribe: (onEvent, onStatus = () => {}) => {
+    const source = new EventSource(`${API_BASE_URL}/events`);
+    const handler = (e) => onEvent(JSON.parse(e.data));
+    EVENT_TYPES.forEach(type => source.addEventListener(type, handler));
+    source.onopen = () => onStatus(true);
+    // EventSource reconnects by itself; events missed meanwhile need a resync
+    source.onerror = () => onStatus(false);
+    return () => source.close();
+  },
+};
+
 // ============ HEALTH API ============
 export const healthApi = {
   ping: () => fetchApi('/ping'),
@@ -298,6 +356,8 @@ const api = {
   cache: cacheApi,
   images: imagesApi,
   health: healthApi,
+  events: eventsApi,
+  sync: syncApi,
 };
 
 export default api;